@@ -0,0 +1,181 @@
+package org.energy.trading.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Creator identities for in-memory stubs; Context builds a ClientIdentity from these bytes. Certificates are
+// issued on first use by a throwaway CA, with the OU role and participantId attribute a Fabric CA would set.
+public final class ClientIdentities {
+
+    public static final String CLIENT_ROLE = "client";
+    public static final String ADMIN_ROLE = "admin";
+
+    // Where a Fabric CA puts enrollment attributes, as JSON: {"attrs":{"participantId":"..."}}
+    private static final String ATTRIBUTES_OID = "1.2.3.4.5.6.7.8.1";
+    private static final String ECDSA_WITH_SHA256_OID = "1.2.840.10045.4.3.2";
+    private static final String COMMON_NAME_OID = "2.5.4.3";
+    private static final String UNIT_OID = "2.5.4.11";
+    private static final String ORGANIZATION_OID = "2.5.4.10";
+    private static final String ORGANIZATION = "Energy Trading Benchmarks";
+
+    private static final KeyPair CA_KEYS = generateKeys();
+    private static final Map<String, byte[]> CERTIFICATES = new ConcurrentHashMap<>();
+    private static final AtomicLong SERIALS = new AtomicLong();
+
+    private ClientIdentities() {
+    }
+
+    // A client of mspId acting for no participant
+    public static byte[] serialized(String mspId) {
+        return serialized(mspId, CLIENT_ROLE, null);
+    }
+
+    // A client of mspId enrolled with participantId=<participantId>
+    public static byte[] participant(String mspId, String participantId) {
+        return serialized(mspId, CLIENT_ROLE, participantId);
+    }
+
+    // An admin of mspId, as the network scripts use for configuration transactions
+    public static byte[] admin(String mspId) {
+        return serialized(mspId, ADMIN_ROLE, null);
+    }
+
+    // SerializedIdentity { string mspid = 1; bytes id_bytes = 2; } encoded by hand
+    public static byte[] serialized(String mspId, String role, String participantId) {
+        byte[] msp = mspId.getBytes(StandardCharsets.UTF_8);
+        byte[] cert = CERTIFICATES.computeIfAbsent(role + "/" + participantId,
+                key -> pem(certificate(role, participantId)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x0A);
+        writeVarInt(out, msp.length);
+        out.write(msp, 0, msp.length);
+        out.write(0x12);
+        writeVarInt(out, cert.length);
+        out.write(cert, 0, cert.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] certificate(String role, String participantId) {
+        byte[] signatureAlgorithm = der(0x30, oid(ECDSA_WITH_SHA256_OID));
+        byte[] issuer = name("benchmark-ca", null);
+        String commonName = participantId != null ? participantId : "benchmark-" + role;
+        byte[] extensions = new byte[0];
+        if (participantId != null) {
+            byte[] attributes = ("{\"attrs\":{\"participantId\":\"" + participantId + "\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            extensions = der(0xA3, der(0x30, der(0x30, oid(ATTRIBUTES_OID), der(0x04, attributes))));
+        }
+        byte[] tbs = der(0x30,
+                der(0xA0, der(0x02, new byte[] {2})),
+                der(0x02, BigInteger.valueOf(SERIALS.incrementAndGet()).toByteArray()),
+                signatureAlgorithm,
+                issuer,
+                der(0x30, time("20250101000000Z"), time("21250101000000Z")),
+                name(commonName, role),
+                CA_KEYS.getPublic().getEncoded(),
+                extensions);
+        try {
+            Signature signer = Signature.getInstance("SHA256withECDSA");
+            signer.initSign(CA_KEYS.getPrivate());
+            signer.update(tbs);
+            byte[] signature = signer.sign();
+            byte[] bits = new byte[signature.length + 1];
+            System.arraycopy(signature, 0, bits, 1, signature.length);
+            return der(0x30, tbs, signatureAlgorithm, der(0x03, bits));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign a client certificate", e);
+        }
+    }
+
+    private static byte[] name(String commonName, String unit) {
+        ByteArrayOutputStream rdns = new ByteArrayOutputStream();
+        rdns.writeBytes(rdn(ORGANIZATION_OID, ORGANIZATION));
+        if (unit != null) {
+            rdns.writeBytes(rdn(UNIT_OID, unit));
+        }
+        rdns.writeBytes(rdn(COMMON_NAME_OID, commonName));
+        return der(0x30, rdns.toByteArray());
+    }
+
+    private static byte[] rdn(String type, String value) {
+        return der(0x31, der(0x30, oid(type), der(0x0C, value.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static byte[] time(String generalizedTime) {
+        return der(0x18, generalizedTime.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] oid(String dotted) {
+        String[] arcs = dotted.split("\\.");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(Integer.parseInt(arcs[0]) * 40 + Integer.parseInt(arcs[1]));
+        for (int i = 2; i < arcs.length; i++) {
+            // Base 128, most significant group first, with the high bit set on all but the last
+            long arc = Long.parseLong(arcs[i]);
+            int groups = 1;
+            while (arc >>> (7 * groups) != 0) {
+                groups++;
+            }
+            for (int group = groups - 1; group >= 0; group--) {
+                int bits = (int) ((arc >>> (7 * group)) & 0x7F);
+                out.write(group > 0 ? bits | 0x80 : bits);
+            }
+        }
+        return der(0x06, out.toByteArray());
+    }
+
+    private static byte[] der(int tag, byte[]... contents) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] content : contents) {
+            body.writeBytes(content);
+        }
+        int length = body.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            int bytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                out.write(length >>> (8 * i));
+            }
+        }
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] pem(byte[] certificate) {
+        String base64 = Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(certificate);
+        return ("-----BEGIN CERTIFICATE-----\n" + base64 + "\n-----END CERTIFICATE-----\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static KeyPair generateKeys() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC keys are unavailable", e);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
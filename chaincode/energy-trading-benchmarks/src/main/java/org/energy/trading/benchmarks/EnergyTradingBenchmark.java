@@ -0,0 +1,113 @@
+package org.energy.trading.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.energy.trading.contracts.EnergyTradingContract;
+import org.energy.trading.models.SimplifiedPPA;
+import org.hyperledger.fabric.contract.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Contract transactions against a ledger seeded to ledgerSize keys.
+// Run with -prof gc to get the allocation rate alongside ops/s.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class EnergyTradingBenchmark {
+
+    private static final int PROSUMERS = 100;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int ledgerSize;
+
+    private EnergyTradingContract contract;
+    private LedgerFixture fixture;
+    private MethodHandle findOrCreatePPA;
+    private int next;
+    private long readings;
+
+    @Setup(Level.Trial)
+    public void seedLedger() throws ReflectiveOperationException {
+        contract = new EnergyTradingContract();
+        fixture = new LedgerFixture(contract, new InMemoryChaincodeStub("ProsumerMSP"), PROSUMERS);
+        fixture.seed(ledgerSize);
+
+        // findOrCreatePPA is not a transaction, so it is reached through a handle rather than widened
+        Method method = EnergyTradingContract.class.getDeclaredMethod("findOrCreatePPA",
+                Context.class, String.class, String.class);
+        method.setAccessible(true);
+        findOrCreatePPA = MethodHandles.lookup().unreflect(method);
+    }
+
+    private String nextProsumer() {
+        next = (next + 1) % PROSUMERS;
+        return LedgerFixture.prosumerId(next);
+    }
+
+    // Baseline: the per-transaction context, identity and flush every other benchmark pays
+    @Benchmark
+    public Context createContext() {
+        return fixture.execute(context -> context);
+    }
+
+    // Grows the ledger by one generation per op; the drift is small against the seeded size.
+    // Each op uses a fresh meter id so the reading is not rejected as a duplicate.
+    @Benchmark
+    public String processElectricityGeneration() {
+        String prosumerId = nextProsumer();
+        String meterId = "METER_BENCH" + (++readings);
+        return fixture.execute(context -> contract.processElectricityGeneration(context, prosumerId, 12.5,
+                meterId, LedgerFixture.TIMESTAMP, LedgerFixture.BUYER_ID));
+    }
+
+    // The retry path: one point read, no writes
+    @Benchmark
+    public String processDuplicateGeneration() {
+        return fixture.execute(context -> contract.processElectricityGeneration(context, LedgerFixture.prosumerId(0),
+                12.5, "METER0", LedgerFixture.TIMESTAMP, LedgerFixture.BUYER_ID));
+    }
+
+    @Benchmark
+    public String getGenerationEvents() {
+        String prosumerId = nextProsumer();
+        return fixture.execute(context -> contract.getGenerationEvents(context, prosumerId));
+    }
+
+    @Benchmark
+    public String getAvailableTokens() {
+        return fixture.execute(contract::getAvailableTokens);
+    }
+
+    @Benchmark
+    public String getAvailableTokensPage() {
+        return fixture.execute(context -> contract.getAvailableTokensPage(context, 100, ""));
+    }
+
+    @Benchmark
+    public SimplifiedPPA findOrCreatePPA() {
+        String prosumerId = nextProsumer();
+        return fixture.execute(context -> {
+            try {
+                return (SimplifiedPPA) findOrCreatePPA.invoke(contract, context, prosumerId, LedgerFixture.BUYER_ID);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,388 @@
+package org.energy.trading.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import com.google.protobuf.ByteString;
+
+// Single-threaded ChaincodeStub over sorted maps. Writes are applied immediately,
+// so it models the peer's key ordering and query semantics but not transaction isolation.
+public class InMemoryChaincodeStub implements ChaincodeStub {
+
+    // Fabric sorts keys by their UTF-8 bytes; U+10FFFF is the largest code point and closes every prefix range
+    private static final String MAX_UNICODE_RUNE = "\udbff\udfff";
+
+    private final NavigableMap<String, byte[]> state = new TreeMap<>();
+    private final Map<String, NavigableMap<String, byte[]>> privateData = new HashMap<>();
+    private final String mspId;
+    private byte[] creator;
+
+    private String txId = "tx0";
+    private Instant txTimestamp = Instant.EPOCH;
+    private Map<String, byte[]> transientData = Collections.emptyMap();
+    private ChaincodeEvent event;
+
+    public InMemoryChaincodeStub(String mspId) {
+        this.mspId = mspId;
+        this.creator = ClientIdentities.serialized(mspId);
+    }
+
+    // Starts a new simulated transaction
+    public void beginTransaction(String txId, Instant txTimestamp, Map<String, byte[]> transientData) {
+        this.txId = txId;
+        this.txTimestamp = txTimestamp;
+        this.transientData = transientData;
+        this.event = null;
+    }
+
+    // Submits the following transactions as another client; see ClientIdentities
+    public void setCreator(byte[] creator) {
+        this.creator = creator;
+    }
+
+    public int size() {
+        return state.size();
+    }
+
+    @Override
+    public byte[] getState(String key) {
+        byte[] value = state.get(key);
+        return value == null ? new byte[0] : value;
+    }
+
+    @Override
+    public void putState(String key, byte[] value) {
+        state.put(key, value);
+    }
+
+    @Override
+    public void delState(String key) {
+        state.remove(key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(String startKey, String endKey) {
+        CompositeKey.validateSimpleKeys(startKey, endKey);
+        return new Results(range(state, startKey, endKey, "", Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(String startKey, String endKey,
+                                                                                    int pageSize, String bookmark) {
+        CompositeKey.validateSimpleKeys(startKey, endKey);
+        return page(state, startKey, endKey, pageSize, bookmark);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String compositeKey) {
+        String prefix = partialKey(compositeKey);
+        return new Results(range(state, prefix, prefix + MAX_UNICODE_RUNE, "", Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String objectType, String... attributes) {
+        return getStateByPartialCompositeKey(new CompositeKey(objectType, attributes));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(CompositeKey compositeKey) {
+        return getStateByPartialCompositeKey(compositeKey.toString());
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            CompositeKey compositeKey, int pageSize, String bookmark) {
+        String prefix = compositeKey.toString();
+        return page(state, prefix, prefix + MAX_UNICODE_RUNE, pageSize, bookmark);
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(String objectType, String... attributes) {
+        return new CompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(String compositeKey) {
+        return CompositeKey.parseCompositeKey(compositeKey);
+    }
+
+    @Override
+    public byte[] getPrivateData(String collection, String key) {
+        byte[] value = collection(collection).get(key);
+        return value == null ? new byte[0] : value;
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(String collection, String key) {
+        throw new UnsupportedOperationException("getPrivateDataHash");
+    }
+
+    @Override
+    public void putPrivateData(String collection, String key, byte[] value) {
+        collection(collection).put(key, value);
+    }
+
+    @Override
+    public void delPrivateData(String collection, String key) {
+        collection(collection).remove(key);
+    }
+
+    @Override
+    public void purgePrivateData(String collection, String key) {
+        collection(collection).remove(key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(String collection, String startKey, String endKey) {
+        return new Results(range(collection(collection), startKey, endKey, "", Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String compositeKey) {
+        String prefix = partialKey(compositeKey);
+        return new Results(range(collection(collection), prefix, prefix + MAX_UNICODE_RUNE, "", Integer.MAX_VALUE), "");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection,
+                                                                             CompositeKey compositeKey) {
+        return getPrivateDataByPartialCompositeKey(collection, compositeKey.toString());
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String objectType,
+                                                                             String... attributes) {
+        return getPrivateDataByPartialCompositeKey(collection, new CompositeKey(objectType, attributes));
+    }
+
+    @Override
+    public String getTxId() {
+        return txId;
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return txTimestamp;
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return transientData;
+    }
+
+    @Override
+    public void setEvent(String name, byte[] payload) {
+        event = ChaincodeEvent.newBuilder()
+                .setEventName(name)
+                .setPayload(ByteString.copyFrom(payload))
+                .setTxId(txId)
+                .build();
+    }
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return event;
+    }
+
+    @Override
+    public byte[] getCreator() {
+        return creator;
+    }
+
+    @Override
+    public String getMspId() {
+        return mspId;
+    }
+
+    @Override
+    public String getChannelId() {
+        return "benchmark";
+    }
+
+    @Override
+    public List<byte[]> getArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getFunction() {
+        return null;
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Response invokeChaincode(String chaincodeName, List<byte[]> args, String channel) {
+        throw new UnsupportedOperationException("invokeChaincode");
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(String key) {
+        return new byte[0];
+    }
+
+    @Override
+    public void setStateValidationParameter(String key, byte[] value) {
+        // Endorsement policies are not modelled
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(String collection, String key) {
+        return new byte[0];
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(String collection, String key, byte[] value) {
+        // Endorsement policies are not modelled
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(String query) {
+        throw new UnsupportedOperationException("Rich queries need CouchDB");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(String query, int pageSize,
+                                                                                   String bookmark) {
+        throw new UnsupportedOperationException("Rich queries need CouchDB");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(String collection, String query) {
+        throw new UnsupportedOperationException("Rich queries need CouchDB");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(String key) {
+        throw new UnsupportedOperationException("Key history is not recorded");
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        return null;
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return new byte[0];
+    }
+
+    // Like the shim, a bare object type is accepted in place of an encoded composite key
+    private static String partialKey(String compositeKey) {
+        if (compositeKey.startsWith(CompositeKey.NAMESPACE)) {
+            return compositeKey;
+        }
+        return new CompositeKey(compositeKey).toString();
+    }
+
+    private NavigableMap<String, byte[]> collection(String collection) {
+        return privateData.computeIfAbsent(collection, name -> new TreeMap<>());
+    }
+
+    private static List<KeyValue> range(NavigableMap<String, byte[]> map, String startKey, String endKey,
+                                        String bookmark, int limit) {
+        String from = bookmark == null || bookmark.isEmpty() ? startKey : bookmark;
+        NavigableMap<String, byte[]> view = endKey.isEmpty() ? map.tailMap(from, true) : map.subMap(from, true, endKey, false);
+        List<KeyValue> results = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : view.entrySet()) {
+            if (results.size() == limit) {
+                break;
+            }
+            results.add(new Entry(entry.getKey(), entry.getValue()));
+        }
+        return results;
+    }
+
+    // Like the peer, the bookmark is the first key of the next page, or empty once the range is exhausted
+    private static Results page(NavigableMap<String, byte[]> map, String startKey, String endKey,
+                                int pageSize, String bookmark) {
+        List<KeyValue> results = range(map, startKey, endKey, bookmark, pageSize + 1);
+        String nextBookmark = "";
+        if (results.size() > pageSize) {
+            nextBookmark = results.remove(pageSize).getKey();
+        }
+        return new Results(results, nextBookmark);
+    }
+
+    private static final class Entry implements KeyValue {
+
+        private final String key;
+        private final byte[] value;
+
+        Entry(String key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public String getStringValue() {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Results implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+        private final List<KeyValue> results;
+        private final QueryResponseMetadata metadata;
+
+        Results(List<KeyValue> results, String bookmark) {
+            this.results = results;
+            this.metadata = QueryResponseMetadata.newBuilder()
+                    .setFetchedRecordsCount(results.size())
+                    .setBookmark(bookmark)
+                    .build();
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return results.iterator();
+        }
+
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.energy.trading.benchmarks;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.function.Function;
+
+import org.energy.trading.contracts.EnergyTradingContract;
+import org.hyperledger.fabric.contract.Context;
+
+// Seeds an in-memory ledger through the contract itself, so the keys and encodings
+// match what a peer would hold after the same sequence of transactions
+public final class LedgerFixture {
+
+    public static final String BUYER_ID = "UTILITY001";
+    public static final String TIMESTAMP = "2025-06-01T10:15:30.000+0530";
+
+    // Each generation writes an event, a credit and its owner index entry, a meter reading entry,
+    // two totals deltas and three rollup deltas
+    private static final int KEYS_PER_GENERATION = 9;
+
+    private final EnergyTradingContract contract;
+    private final InMemoryChaincodeStub stub;
+    private final int prosumerCount;
+    private long txCounter;
+
+    public LedgerFixture(EnergyTradingContract contract, InMemoryChaincodeStub stub, int prosumerCount) {
+        this.contract = contract;
+        this.stub = stub;
+        this.prosumerCount = prosumerCount;
+    }
+
+    public static String prosumerId(int index) {
+        return String.format("PROSUMER%06d", index);
+    }
+
+    // Registers the prosumers with one PPA each, then records generation until the ledger holds targetKeys keys
+    public void seed(int targetKeys) {
+        for (int i = 0; i < prosumerCount; i++) {
+            String prosumerId = prosumerId(i);
+            int index = i;
+            execute(context -> contract.registerProsumer(context, prosumerId, "Prosumer " + index,
+                    "Pune, Maharashtra", 100.0, "ProsumerMSP"));
+            execute(context -> contract.createPPA(context, "PPA_" + prosumerId, prosumerId, BUYER_ID,
+                    EnergyTradingContract.DEFAULT_TARIFF, "2025-01-01", "2030-12-31"));
+        }
+
+        int generations = Math.max(0, (targetKeys - stub.size()) / KEYS_PER_GENERATION);
+        for (int i = 0; i < generations; i++) {
+            String prosumerId = prosumerId(i % prosumerCount);
+            String meterId = "METER" + i;
+            execute(context -> contract.processElectricityGeneration(context, prosumerId, 12.5,
+                    meterId, TIMESTAMP, BUYER_ID));
+        }
+    }
+
+    // Starts a fresh transaction with a unique id and returns its context
+    public Context begin() {
+        long tx = ++txCounter;
+        stub.beginTransaction("tx" + tx, Instant.ofEpochSecond(1_748_750_000L + tx), Collections.emptyMap());
+        return contract.createContext(stub);
+    }
+
+    // Runs one transaction through the same hooks the contract router calls, so buffered writes are flushed
+    public <T> T execute(Function<Context, T> transaction) {
+        Context context = begin();
+        contract.beforeTransaction(context);
+        T result = transaction.apply(context);
+        contract.afterTransaction(context, result);
+        return result;
+    }
+}
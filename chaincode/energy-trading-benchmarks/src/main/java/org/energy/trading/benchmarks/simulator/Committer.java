@@ -0,0 +1,170 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Orders endorsed transactions into blocks and validates them the way the peer's committer does:
+// each transaction's reads are checked against committed state plus the writes of the valid
+// transactions before it in the same block, then the block's valid writes are applied at once.
+public class Committer implements Runnable {
+
+    private final VersionedState state;
+    private final SimulationStats stats;
+    private final int blockSize;
+    private final long blockTimeoutNanos;
+    private final BlockingQueue<EndorsedTransaction> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+    private long blockNum;
+
+    public Committer(VersionedState state, SimulationStats stats, int blockSize, long blockTimeoutMillis) {
+        this.state = state;
+        this.stats = stats;
+        this.blockSize = blockSize;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+    }
+
+    public void submit(EndorsedTransaction tx) {
+        queue.add(tx);
+    }
+
+    // Cuts what is queued into a final block and stops
+    public void shutdown() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                EndorsedTransaction first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Like the orderer's BatchTimeout, the timer starts with the first transaction of a block
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                List<EndorsedTransaction> block = new ArrayList<>(blockSize);
+                block.add(first);
+                while (block.size() < blockSize) {
+                    long remaining = deadline - System.nanoTime();
+                    EndorsedTransaction next = running
+                            ? queue.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    block.add(next);
+                }
+                commitBlock(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized void commitBlock(List<EndorsedTransaction> block) {
+        long currentBlock = ++blockNum;
+        // Updates from valid transactions earlier in this block; a null value is a delete
+        NavigableMap<String, VersionedValue> blockUpdates = new TreeMap<>();
+        List<ValidationCode> codes = new ArrayList<>(block.size());
+        List<String> conflictKeys = new ArrayList<>(block.size());
+
+        state.simulate(() -> {
+            for (int txNum = 0; txNum < block.size(); txNum++) {
+                ReadWriteSet readWriteSet = block.get(txNum).getReadWriteSet();
+                String conflictKey = findReadConflict(readWriteSet, blockUpdates);
+                ValidationCode code = ValidationCode.MVCC_READ_CONFLICT;
+                if (conflictKey == null) {
+                    conflictKey = findPhantom(readWriteSet, blockUpdates);
+                    code = conflictKey == null ? ValidationCode.VALID : ValidationCode.PHANTOM_READ_CONFLICT;
+                }
+                if (code == ValidationCode.VALID) {
+                    Version version = new Version(currentBlock, txNum);
+                    for (Map.Entry<String, byte[]> write : readWriteSet.getWrites().entrySet()) {
+                        blockUpdates.put(write.getKey(), new VersionedValue(write.getValue(), version));
+                    }
+                }
+                codes.add(code);
+                conflictKeys.add(conflictKey);
+            }
+            return null;
+        });
+
+        state.apply(blockUpdates);
+
+        long now = System.nanoTime();
+        stats.recordBlock(block.size());
+        for (int txNum = 0; txNum < block.size(); txNum++) {
+            EndorsedTransaction tx = block.get(txNum);
+            stats.recordCommit(tx, codes.get(txNum), conflictKeys.get(txNum), now - tx.getStartNanos());
+            tx.getCommit().complete(codes.get(txNum));
+        }
+    }
+
+    // Returns the first key whose version changed since it was read
+    private String findReadConflict(ReadWriteSet readWriteSet, Map<String, VersionedValue> blockUpdates) {
+        for (Map.Entry<String, Version> read : readWriteSet.getReads().entrySet()) {
+            if (blockUpdates.containsKey(read.getKey())) {
+                return read.getKey();
+            }
+            VersionedValue committed = state.get(read.getKey());
+            Version committedVersion = committed == null ? null : committed.getVersion();
+            if (!equal(read.getValue(), committedVersion)) {
+                return read.getKey();
+            }
+        }
+        return null;
+    }
+
+    // Re-executes each recorded range and returns the first key that was added, removed or updated
+    private String findPhantom(ReadWriteSet readWriteSet, NavigableMap<String, VersionedValue> blockUpdates) {
+        for (RangeQueryInfo rangeQuery : readWriteSet.getRangeQueries()) {
+            List<String> keys = rangeQuery.getKeys();
+            if (keys.isEmpty() && !rangeQuery.isExhausted()) {
+                continue;
+            }
+
+            NavigableMap<String, VersionedValue> committed = state.range(rangeQuery.getStartKey(),
+                    rangeQuery.getEndKey());
+            NavigableMap<String, VersionedValue> updated = VersionedState.slice(blockUpdates,
+                    rangeQuery.getStartKey(), rangeQuery.getEndKey());
+            // An unexhausted iterator only read up to its last key
+            if (!rangeQuery.isExhausted()) {
+                String lastKey = keys.get(keys.size() - 1);
+                committed = committed.headMap(lastKey, true);
+                updated = updated.headMap(lastKey, true);
+            }
+            if (!updated.isEmpty()) {
+                return updated.firstKey();
+            }
+
+            Iterator<Map.Entry<String, VersionedValue>> current = committed.entrySet().iterator();
+            for (int i = 0; i < keys.size(); i++) {
+                if (!current.hasNext()) {
+                    return keys.get(i);
+                }
+                Map.Entry<String, VersionedValue> entry = current.next();
+                int order = entry.getKey().compareTo(keys.get(i));
+                if (order != 0) {
+                    return order < 0 ? entry.getKey() : keys.get(i);
+                }
+                if (!entry.getValue().getVersion().equals(rangeQuery.getVersions().get(i))) {
+                    return entry.getKey();
+                }
+            }
+            if (current.hasNext()) {
+                return current.next().getKey();
+            }
+        }
+        return null;
+    }
+
+    private static boolean equal(Version a, Version b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
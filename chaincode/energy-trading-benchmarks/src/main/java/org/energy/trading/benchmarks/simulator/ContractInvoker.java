@@ -0,0 +1,92 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.energy.trading.contracts.EnergyTradingContract;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+// Dispatches an Invocation to the matching @Transaction method with the same context
+// lifecycle the contract router uses: createContext, beforeTransaction, call, afterTransaction
+public class ContractInvoker {
+
+    private final EnergyTradingContract contract;
+    private final Map<String, Method> transactions = new HashMap<>();
+
+    public ContractInvoker(EnergyTradingContract contract) {
+        this.contract = contract;
+        for (Method method : EnergyTradingContract.class.getMethods()) {
+            if (method.isAnnotationPresent(Transaction.class)) {
+                transactions.put(method.getName(), method);
+            }
+        }
+    }
+
+    // EVALUATE transactions are queried on one peer and never ordered
+    public boolean isSubmit(String function) {
+        return transaction(function).getAnnotation(Transaction.class).intent() == Transaction.TYPE.SUBMIT;
+    }
+
+    public Object invoke(ChaincodeStub stub, Invocation invocation) {
+        Method method = transaction(invocation.getFunction());
+        Object[] args = convertArgs(method, invocation.getArgs());
+
+        Context context = contract.createContext(stub);
+        args[0] = context;
+        contract.beforeTransaction(context);
+        Object result;
+        try {
+            result = method.invoke(contract, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        contract.afterTransaction(context, result);
+        return result;
+    }
+
+    private Method transaction(String function) {
+        Method method = transactions.get(function);
+        if (method == null) {
+            throw new IllegalArgumentException("Unknown transaction " + function);
+        }
+        return method;
+    }
+
+    private static Object[] convertArgs(Method method, List<String> args) {
+        Class<?>[] types = method.getParameterTypes();
+        if (args.size() != types.length - 1) {
+            throw new IllegalArgumentException(String.format("%s expects %d arguments, got %d",
+                    method.getName(), types.length - 1, args.size()));
+        }
+        Object[] converted = new Object[types.length];
+        for (int i = 1; i < types.length; i++) {
+            converted[i] = convert(types[i], args.get(i - 1));
+        }
+        return converted;
+    }
+
+    private static Object convert(Class<?> type, String value) {
+        if (type == String.class) {
+            return value;
+        } else if (type == double.class) {
+            return Double.parseDouble(value);
+        } else if (type == int.class) {
+            return Integer.parseInt(value);
+        } else if (type == long.class) {
+            return Long.parseLong(value);
+        } else if (type == boolean.class) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Unsupported parameter type " + type.getName());
+    }
+}
@@ -0,0 +1,40 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.concurrent.CompletableFuture;
+
+// A simulated proposal response waiting to be ordered and validated
+public final class EndorsedTransaction {
+
+    private final String txId;
+    private final String function;
+    private final ReadWriteSet readWriteSet;
+    private final long startNanos;
+    private final CompletableFuture<ValidationCode> commit = new CompletableFuture<>();
+
+    public EndorsedTransaction(String txId, String function, ReadWriteSet readWriteSet, long startNanos) {
+        this.txId = txId;
+        this.function = function;
+        this.readWriteSet = readWriteSet;
+        this.startNanos = startNanos;
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public ReadWriteSet getReadWriteSet() {
+        return readWriteSet;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public CompletableFuture<ValidationCode> getCommit() {
+        return commit;
+    }
+}
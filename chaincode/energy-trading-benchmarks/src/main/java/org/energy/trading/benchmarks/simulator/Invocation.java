@@ -0,0 +1,67 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// One line of a workload file, in the peer CLI's -c format:
+// {"function":"processElectricityGeneration","Args":["p1","50","m1","2025-09-10T18:45:00.000+0530","UTILITY1"]}
+// Transient values are base64 encoded, as with the CLI's --transient flag. ${round} in an argument
+// is replaced with the repetition number, so a repeated line can still submit distinct readings.
+// "Admin":true submits as an organization admin, for the maintenance transactions that require one.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class Invocation {
+
+    private static final String ROUND_PLACEHOLDER = "${round}";
+
+    private final String function;
+    private final List<String> args;
+    private final Map<String, String> transientData;
+    private final boolean admin;
+
+    @JsonCreator
+    public Invocation(@JsonProperty("function") final String function,
+                      @JsonProperty("Args") final List<String> args,
+                      @JsonProperty("Transient") final Map<String, String> transientData,
+                      @JsonProperty("Admin") final boolean admin) {
+        this.function = function;
+        this.args = args == null ? Collections.emptyList() : args;
+        this.transientData = transientData == null ? Collections.emptyMap() : transientData;
+        this.admin = admin;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public List<String> getArgs() {
+        return args;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public Invocation forRound(long round) {
+        List<String> roundArgs = new ArrayList<>(args.size());
+        for (String arg : args) {
+            roundArgs.add(arg.replace(ROUND_PLACEHOLDER, Long.toString(round)));
+        }
+        return new Invocation(function, roundArgs, transientData, admin);
+    }
+
+    public Map<String, byte[]> decodeTransient() {
+        Map<String, byte[]> decoded = new HashMap<>();
+        for (Map.Entry<String, String> entry : transientData.entrySet()) {
+            decoded.put(entry.getKey(), Base64.getDecoder().decode(entry.getValue()));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,212 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.energy.trading.benchmarks.ClientIdentities;
+import org.energy.trading.contracts.EnergyTradingContract;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+// Replays a workload against EnergyTradingContract with concurrent endorsement, block cutting and
+// MVCC/phantom validation, and reports committed throughput, conflicts per key and tail latency.
+//
+//   java -cp benchmarks.jar org.energy.trading.benchmarks.simulator.LedgerSimulator \
+//       --setup setup.jsonl --workload workload.jsonl --concurrency 32 --repeat 100
+public final class LedgerSimulator {
+
+    private static final String MSP_ID = "ProsumerMSP";
+
+    private final VersionedState state = new VersionedState();
+    private final ContractInvoker invoker = new ContractInvoker(new EnergyTradingContract());
+    private final AtomicLong txCounter = new AtomicLong();
+
+    private LedgerSimulator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path setup = null;
+        Path workload = null;
+        int concurrency = 8;
+        int repeat = 1;
+        // Defaults match the test network's orderer: MaxMessageCount 10, BatchTimeout 2s
+        int blockSize = 10;
+        long blockTimeoutMillis = 2000;
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--setup":
+                    setup = Paths.get(required(args[i], value));
+                    break;
+                case "--workload":
+                    workload = Paths.get(required(args[i], value));
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--repeat":
+                    repeat = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--block-size":
+                    blockSize = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--block-timeout-ms":
+                    blockTimeoutMillis = Long.parseLong(required(args[i], value));
+                    break;
+                default:
+                    usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (workload == null) {
+            usage("--workload is required");
+        }
+
+        LedgerSimulator simulator = new LedgerSimulator();
+        if (setup != null) {
+            simulator.setup(readWorkload(setup));
+        }
+        SimulationStats stats = new SimulationStats();
+        long elapsed = simulator.replay(readWorkload(workload), repeat, concurrency, blockSize, blockTimeoutMillis,
+                stats);
+        stats.print(System.out, elapsed);
+    }
+
+    // Commits each setup transaction in its own block, outside the measured run
+    private void setup(List<Invocation> invocations) {
+        SimulationStats setupStats = new SimulationStats();
+        Committer committer = new Committer(state, setupStats, 1, 0);
+        for (Invocation invocation : invocations) {
+            if (invoker.isSubmit(invocation.getFunction())) {
+                EndorsedTransaction tx = endorse(invocation, setupStats);
+                if (tx != null) {
+                    committer.commitBlock(Collections.singletonList(tx));
+                }
+            }
+        }
+        System.out.printf("Setup: %d transactions committed, %d keys in state%n%n", setupStats.getValid(),
+                state.size());
+    }
+
+    private long replay(List<Invocation> invocations, int repeat, int concurrency, int blockSize,
+                        long blockTimeoutMillis, SimulationStats stats) throws InterruptedException {
+        Committer committer = new Committer(state, stats, blockSize, blockTimeoutMillis);
+        Thread committerThread = new Thread(committer, "committer");
+        committerThread.start();
+
+        long total = (long) invocations.size() * repeat;
+        AtomicLong next = new AtomicLong();
+        List<Thread> clients = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int c = 0; c < concurrency; c++) {
+            // Closed-loop clients: each waits for its transaction to commit before sending the next
+            Thread client = new Thread(() -> {
+                long i;
+                while ((i = next.getAndIncrement()) < total) {
+                    Invocation invocation = invocations.get((int) (i % invocations.size()))
+                            .forRound(i / invocations.size());
+                    if (!invoker.isSubmit(invocation.getFunction())) {
+                        evaluate(invocation, stats);
+                        continue;
+                    }
+                    EndorsedTransaction tx = endorse(invocation, stats);
+                    if (tx == null) {
+                        continue;
+                    }
+                    committer.submit(tx);
+                    try {
+                        tx.getCommit().get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException(e.getCause());
+                    }
+                }
+            }, "client-" + c);
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        committer.shutdown();
+        committerThread.join();
+        return elapsed;
+    }
+
+    // Simulates the proposal; returns null when the chaincode rejects it, as the client never submits those
+    private EndorsedTransaction endorse(Invocation invocation, SimulationStats stats) {
+        long start = System.nanoTime();
+        String txId = "tx" + txCounter.incrementAndGet();
+        SimulationStub stub = newStub(txId, invocation);
+        try {
+            state.simulate(() -> invoker.invoke(stub, invocation));
+        } catch (RuntimeException e) {
+            stats.recordEndorsementFailure(invocation.getFunction(), String.valueOf(e.getMessage()));
+            return null;
+        }
+
+        ReadWriteSet readWriteSet = stub.getReadWriteSet();
+        // The peer refuses to return simulation results for update transactions that paginated
+        if (readWriteSet.isPaginated() && !readWriteSet.getWrites().isEmpty()) {
+            stats.recordEndorsementFailure(invocation.getFunction(),
+                    "paginated queries are not supported in update transactions");
+            return null;
+        }
+        return new EndorsedTransaction(txId, invocation.getFunction(), readWriteSet, start);
+    }
+
+    private void evaluate(Invocation invocation, SimulationStats stats) {
+        String txId = "tx" + txCounter.incrementAndGet();
+        SimulationStub stub = newStub(txId, invocation);
+        try {
+            state.simulate(() -> invoker.invoke(stub, invocation));
+            stats.recordEvaluation();
+        } catch (RuntimeException e) {
+            stats.recordEndorsementFailure(invocation.getFunction(), String.valueOf(e.getMessage()));
+        }
+    }
+
+    private SimulationStub newStub(String txId, Invocation invocation) {
+        byte[] creator = invocation.isAdmin() ? ClientIdentities.admin(MSP_ID) : ClientIdentities.serialized(MSP_ID);
+        return new SimulationStub(state, txId, Instant.now(), invocation.decodeTransient(), MSP_ID, creator);
+    }
+
+    private static List<Invocation> readWorkload(Path path) throws IOException {
+        ObjectReader reader = new ObjectMapper().readerFor(Invocation.class);
+        List<Invocation> invocations = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                invocations.add(reader.readValue(line));
+            }
+        }
+        return invocations;
+    }
+
+    private static String required(String option, String value) {
+        if (value == null) {
+            usage(option + " needs a value");
+        }
+        return value;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: LedgerSimulator --workload <file.jsonl> [--setup <file.jsonl>] [--concurrency 8]"
+                + " [--repeat 1] [--block-size 10] [--block-timeout-ms 2000]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,49 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A range read as Fabric records it: the keys and versions the chaincode consumed. When the
+// iterator was not exhausted the range effectively ends at the last key read.
+public final class RangeQueryInfo {
+
+    private final String startKey;
+    private final String endKey;
+    private final List<String> keys = new ArrayList<>();
+    private final List<Version> versions = new ArrayList<>();
+    private boolean exhausted;
+
+    RangeQueryInfo(String startKey, String endKey) {
+        this.startKey = startKey;
+        this.endKey = endKey;
+    }
+
+    void addResult(String key, Version version) {
+        keys.add(key);
+        versions.add(version);
+    }
+
+    void setExhausted(boolean exhausted) {
+        this.exhausted = exhausted;
+    }
+
+    public String getStartKey() {
+        return startKey;
+    }
+
+    public String getEndKey() {
+        return endKey;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public List<Version> getVersions() {
+        return versions;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
@@ -0,0 +1,50 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read/write set of one simulated transaction. Only the first read of a key is recorded,
+// and reads never observe the transaction's own writes.
+public final class ReadWriteSet {
+
+    // A null version records a read of a key that did not exist
+    private final Map<String, Version> reads = new LinkedHashMap<>();
+    private final List<RangeQueryInfo> rangeQueries = new ArrayList<>();
+    // A null value records a delete
+    private final Map<String, byte[]> writes = new LinkedHashMap<>();
+    private boolean paginated;
+
+    void recordRead(String key, Version version) {
+        reads.putIfAbsent(key, version);
+    }
+
+    void recordRangeQuery(RangeQueryInfo rangeQuery) {
+        rangeQueries.add(rangeQuery);
+    }
+
+    void recordWrite(String key, byte[] value) {
+        writes.put(key, value);
+    }
+
+    void recordPaginatedQuery() {
+        paginated = true;
+    }
+
+    public Map<String, Version> getReads() {
+        return reads;
+    }
+
+    public List<RangeQueryInfo> getRangeQueries() {
+        return rangeQueries;
+    }
+
+    public Map<String, byte[]> getWrites() {
+        return writes;
+    }
+
+    public boolean isPaginated() {
+        return paginated;
+    }
+}
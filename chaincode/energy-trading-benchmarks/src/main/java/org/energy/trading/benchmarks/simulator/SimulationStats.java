@@ -0,0 +1,224 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+
+// Outcome counters for one replay. Updated from client threads and the committer, read once at the end.
+public class SimulationStats {
+
+    private static final int TOP_KEYS = 20;
+
+    // Function counters: submitted, valid, MVCC conflict, phantom conflict, endorsement failure
+    private static final int SUBMITTED = 0;
+    private static final int VALID = 1;
+    private static final int MVCC = 2;
+    private static final int PHANTOM = 3;
+    private static final int FAILED = 4;
+
+    // Key counters: transactions that read the key, transactions invalidated on it
+    private static final int READS = 0;
+    private static final int CONFLICTS = 1;
+
+    private final Map<String, long[]> byFunction = new TreeMap<>();
+    private final Map<String, long[]> byKey = new HashMap<>();
+    private final Map<String, Long> endorsementErrors = new TreeMap<>();
+    private long[] latencies = new long[1024];
+    private int latencyCount;
+    private long evaluations;
+    private long blocks;
+    private long blockTransactions;
+
+    public synchronized void recordEndorsementFailure(String function, String message) {
+        functionCounters(function)[FAILED]++;
+        endorsementErrors.merge(function + ": " + message, 1L, Long::sum);
+    }
+
+    public synchronized void recordEvaluation() {
+        evaluations++;
+    }
+
+    public synchronized void recordBlock(int size) {
+        blocks++;
+        blockTransactions += size;
+    }
+
+    public synchronized void recordCommit(EndorsedTransaction tx, ValidationCode code, String conflictKey,
+                                          long latencyNanos) {
+        long[] counters = functionCounters(tx.getFunction());
+        counters[SUBMITTED]++;
+        switch (code) {
+            case VALID:
+                counters[VALID]++;
+                break;
+            case MVCC_READ_CONFLICT:
+                counters[MVCC]++;
+                break;
+            default:
+                counters[PHANTOM]++;
+                break;
+        }
+
+        Set<String> readKeys = new HashSet<>(tx.getReadWriteSet().getReads().keySet());
+        for (RangeQueryInfo rangeQuery : tx.getReadWriteSet().getRangeQueries()) {
+            readKeys.addAll(rangeQuery.getKeys());
+        }
+        // A phantom key may not have been read at all; it still counts as touched
+        if (conflictKey != null) {
+            readKeys.add(conflictKey);
+            keyCounters(conflictKey)[CONFLICTS]++;
+        }
+        for (String key : readKeys) {
+            keyCounters(key)[READS]++;
+        }
+
+        if (latencyCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        }
+        latencies[latencyCount++] = latencyNanos;
+    }
+
+    public synchronized long getValid() {
+        long valid = 0;
+        for (long[] counters : byFunction.values()) {
+            valid += counters[VALID];
+        }
+        return valid;
+    }
+
+    public synchronized void print(PrintStream out, long elapsedNanos) {
+        long submitted = 0;
+        long valid = 0;
+        long mvcc = 0;
+        long phantom = 0;
+        long failed = 0;
+        for (long[] counters : byFunction.values()) {
+            submitted += counters[SUBMITTED];
+            valid += counters[VALID];
+            mvcc += counters[MVCC];
+            phantom += counters[PHANTOM];
+            failed += counters[FAILED];
+        }
+        double seconds = elapsedNanos / 1e9;
+
+        out.printf("Elapsed:              %.2f s%n", seconds);
+        out.printf("Ordered transactions: %d in %d blocks (%.1f per block)%n", submitted, blocks,
+                blocks == 0 ? 0.0 : (double) blockTransactions / blocks);
+        out.printf("Committed (VALID):    %d (%.1f tx/s)%n", valid, seconds == 0 ? 0.0 : valid / seconds);
+        out.printf("MVCC_READ_CONFLICT:   %d (%.2f%%)%n", mvcc, percent(mvcc, submitted));
+        out.printf("PHANTOM_READ_CONFLICT:%d (%.2f%%)%n", phantom, percent(phantom, submitted));
+        out.printf("Endorsement failures: %d%n", failed);
+        out.printf("Evaluations:          %d%n", evaluations);
+
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        out.printf("Submit-to-commit latency ms: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), percentile(sorted, 1.0));
+
+        out.println();
+        out.printf("%-40s %10s %10s %10s %10s %10s%n", "function", "ordered", "valid", "mvcc", "phantom", "failed");
+        for (Map.Entry<String, long[]> entry : byFunction.entrySet()) {
+            long[] c = entry.getValue();
+            out.printf("%-40s %10d %10d %10d %10d %10d%n", entry.getKey(), c[SUBMITTED], c[VALID], c[MVCC],
+                    c[PHANTOM], c[FAILED]);
+        }
+
+        List<Map.Entry<String, long[]>> conflicted = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : byKey.entrySet()) {
+            if (entry.getValue()[CONFLICTS] > 0) {
+                conflicted.add(entry);
+            }
+        }
+        if (!conflicted.isEmpty()) {
+            conflicted.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[CONFLICTS])
+                    .reversed());
+            out.println();
+            out.printf("%-70s %10s %10s %8s%n", "conflicting key", "reads", "conflicts", "rate");
+            for (Map.Entry<String, long[]> entry : conflicted.subList(0, Math.min(TOP_KEYS, conflicted.size()))) {
+                long[] c = entry.getValue();
+                out.printf("%-70s %10d %10d %7.2f%%%n", formatKey(entry.getKey()), c[READS], c[CONFLICTS],
+                        percent(c[CONFLICTS], c[READS]));
+            }
+        }
+
+        if (!conflicted.isEmpty()) {
+            Map<String, long[]> families = new TreeMap<>();
+            for (Map.Entry<String, long[]> entry : byKey.entrySet()) {
+                long[] family = families.computeIfAbsent(keyFamily(entry.getKey()), k -> new long[2]);
+                family[READS] += entry.getValue()[READS];
+                family[CONFLICTS] += entry.getValue()[CONFLICTS];
+            }
+            out.println();
+            out.printf("%-70s %10s %10s%n", "conflicts by key family", "reads", "conflicts");
+            for (Map.Entry<String, long[]> entry : families.entrySet()) {
+                if (entry.getValue()[CONFLICTS] > 0) {
+                    out.printf("%-70s %10d %10d%n", entry.getKey(), entry.getValue()[READS],
+                            entry.getValue()[CONFLICTS]);
+                }
+            }
+        }
+
+        if (!endorsementErrors.isEmpty()) {
+            out.println();
+            out.println("Endorsement errors:");
+            for (Map.Entry<String, Long> entry : endorsementErrors.entrySet()) {
+                out.printf("%8d  %s%n", entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    private long[] functionCounters(String function) {
+        return byFunction.computeIfAbsent(function, f -> new long[5]);
+    }
+
+    private long[] keyCounters(String key) {
+        return byKey.computeIfAbsent(key, k -> new long[2]);
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : 100.0 * part / whole;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Per-transaction composite keys spread one hotspot over many keys; grouping on all
+    // attributes but the last folds them back together
+    private static String keyFamily(String key) {
+        if (!key.startsWith(CompositeKey.NAMESPACE)) {
+            return key;
+        }
+        CompositeKey compositeKey = CompositeKey.parseCompositeKey(key);
+        List<String> attributes = compositeKey.getAttributes();
+        if (attributes.isEmpty()) {
+            return compositeKey.getObjectType();
+        }
+        List<String> prefix = new ArrayList<>(attributes.subList(0, attributes.size() - 1));
+        prefix.add("*");
+        return compositeKey.getObjectType() + "(" + String.join(",", prefix) + ")";
+    }
+
+    // Composite keys print as objectType(attr,attr) instead of their NUL-delimited form
+    private static String formatKey(String key) {
+        if (!key.startsWith(CompositeKey.NAMESPACE)) {
+            return key;
+        }
+        CompositeKey compositeKey = CompositeKey.parseCompositeKey(key);
+        return compositeKey.getObjectType() + "(" + String.join(",", compositeKey.getAttributes()) + ")";
+    }
+}
@@ -0,0 +1,382 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+
+import org.energy.trading.benchmarks.ClientIdentities;
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import com.google.protobuf.ByteString;
+
+// Transaction simulator over the committed VersionedState. Reads go to committed state and
+// are recorded with their versions; writes are only buffered in the read/write set.
+public class SimulationStub implements ChaincodeStub {
+
+    private static final String MAX_UNICODE_RUNE = "\udbff\udfff";
+
+    private final VersionedState state;
+    private final String txId;
+    private final Instant txTimestamp;
+    private final Map<String, byte[]> transientData;
+    private final String mspId;
+    private final byte[] creator;
+    private final ReadWriteSet readWriteSet = new ReadWriteSet();
+    private ChaincodeEvent event;
+
+    public SimulationStub(VersionedState state, String txId, Instant txTimestamp,
+                          Map<String, byte[]> transientData, String mspId) {
+        this(state, txId, txTimestamp, transientData, mspId, ClientIdentities.serialized(mspId));
+    }
+
+    // creator is a serialized identity of mspId; see ClientIdentities
+    public SimulationStub(VersionedState state, String txId, Instant txTimestamp,
+                          Map<String, byte[]> transientData, String mspId, byte[] creator) {
+        this.state = state;
+        this.txId = txId;
+        this.txTimestamp = txTimestamp;
+        this.transientData = transientData;
+        this.mspId = mspId;
+        this.creator = creator;
+    }
+
+    public ReadWriteSet getReadWriteSet() {
+        return readWriteSet;
+    }
+
+    @Override
+    public byte[] getState(String key) {
+        VersionedValue value = state.get(key);
+        readWriteSet.recordRead(key, value == null ? null : value.getVersion());
+        return value == null ? new byte[0] : value.getValue();
+    }
+
+    @Override
+    public void putState(String key, byte[] value) {
+        readWriteSet.recordWrite(key, value);
+    }
+
+    @Override
+    public void delState(String key) {
+        readWriteSet.recordWrite(key, null);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(String startKey, String endKey) {
+        CompositeKey.validateSimpleKeys(startKey, endKey);
+        return query(startKey, endKey, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(String startKey, String endKey,
+                                                                                    int pageSize, String bookmark) {
+        CompositeKey.validateSimpleKeys(startKey, endKey);
+        readWriteSet.recordPaginatedQuery();
+        return query(bookmark == null || bookmark.isEmpty() ? startKey : bookmark, endKey, pageSize);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String compositeKey) {
+        String prefix = compositeKey.startsWith(CompositeKey.NAMESPACE)
+                ? compositeKey : new CompositeKey(compositeKey).toString();
+        return query(prefix, prefix + MAX_UNICODE_RUNE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String objectType, String... attributes) {
+        return getStateByPartialCompositeKey(new CompositeKey(objectType, attributes));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(CompositeKey compositeKey) {
+        return getStateByPartialCompositeKey(compositeKey.toString());
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            CompositeKey compositeKey, int pageSize, String bookmark) {
+        String prefix = compositeKey.toString();
+        readWriteSet.recordPaginatedQuery();
+        return query(bookmark == null || bookmark.isEmpty() ? prefix : bookmark, prefix + MAX_UNICODE_RUNE, pageSize);
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(String objectType, String... attributes) {
+        return new CompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(String compositeKey) {
+        return CompositeKey.parseCompositeKey(compositeKey);
+    }
+
+    @Override
+    public String getTxId() {
+        return txId;
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return txTimestamp;
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return transientData;
+    }
+
+    @Override
+    public void setEvent(String name, byte[] payload) {
+        event = ChaincodeEvent.newBuilder()
+                .setEventName(name)
+                .setPayload(ByteString.copyFrom(payload))
+                .setTxId(txId)
+                .build();
+    }
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return event;
+    }
+
+    @Override
+    public byte[] getCreator() {
+        return creator;
+    }
+
+    @Override
+    public String getMspId() {
+        return mspId;
+    }
+
+    @Override
+    public String getChannelId() {
+        return "simulator";
+    }
+
+    @Override
+    public List<byte[]> getArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getFunction() {
+        return null;
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(String key) {
+        return new byte[0];
+    }
+
+    @Override
+    public void setStateValidationParameter(String key, byte[] value) {
+        // Endorsement policies are not modelled
+    }
+
+    @Override
+    public Response invokeChaincode(String chaincodeName, List<byte[]> args, String channel) {
+        throw new UnsupportedOperationException("invokeChaincode");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(String query) {
+        throw new UnsupportedOperationException("Rich queries need CouchDB");
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(String query, int pageSize,
+                                                                                   String bookmark) {
+        throw new UnsupportedOperationException("Rich queries need CouchDB");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(String key) {
+        throw new UnsupportedOperationException("Key history is not recorded");
+    }
+
+    @Override
+    public byte[] getPrivateData(String collection, String key) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(String collection, String key) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(String collection, String key) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public void putPrivateData(String collection, String key, byte[] value) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(String collection, String key, byte[] value) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public void delPrivateData(String collection, String key) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public void purgePrivateData(String collection, String key) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(String collection, String startKey, String endKey) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String compositeKey) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection,
+                                                                             CompositeKey compositeKey) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String objectType,
+                                                                             String... attributes) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(String collection, String query) {
+        throw new UnsupportedOperationException("Private data is not simulated");
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        return null;
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return new byte[0];
+    }
+
+    private RecordingIterator query(String startKey, String endKey, int limit) {
+        RangeQueryInfo rangeQuery = new RangeQueryInfo(startKey, endKey);
+        readWriteSet.recordRangeQuery(rangeQuery);
+        return new RecordingIterator(state.range(startKey, endKey), rangeQuery, limit);
+    }
+
+    // Records each result as the chaincode consumes it, so an early break or a page limit
+    // narrows the range that validation re-checks, as on the peer
+    private static final class RecordingIterator implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+        private final Iterator<Map.Entry<String, VersionedValue>> entries;
+        private final RangeQueryInfo rangeQuery;
+        private final int limit;
+        private String nextKey;
+        private int returned;
+
+        RecordingIterator(NavigableMap<String, VersionedValue> range, RangeQueryInfo rangeQuery, int limit) {
+            this.entries = range.entrySet().iterator();
+            this.rangeQuery = rangeQuery;
+            this.limit = limit;
+            rangeQuery.setExhausted(!entries.hasNext());
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            return new Iterator<KeyValue>() {
+                @Override
+                public boolean hasNext() {
+                    return returned < limit && entries.hasNext();
+                }
+
+                @Override
+                public KeyValue next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<String, VersionedValue> entry = entries.next();
+                    returned++;
+                    rangeQuery.addResult(entry.getKey(), entry.getValue().getVersion());
+                    rangeQuery.setExhausted(!entries.hasNext());
+                    return new Entry(entry.getKey(), entry.getValue().getValue());
+                }
+            };
+        }
+
+        // Bookmark is the first key of the next page; only meaningful once the page is consumed
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            if (nextKey == null && returned >= limit && entries.hasNext()) {
+                nextKey = entries.next().getKey();
+            }
+            return QueryResponseMetadata.newBuilder()
+                    .setFetchedRecordsCount(returned)
+                    .setBookmark(nextKey == null ? "" : nextKey)
+                    .build();
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+
+    private static final class Entry implements KeyValue {
+
+        private final String key;
+        private final byte[] value;
+
+        Entry(String key, byte[] value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return value;
+        }
+
+        @Override
+        public String getStringValue() {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.energy.trading.benchmarks.simulator;
+
+// Subset of Fabric's TxValidationCode that the simulator can produce
+public enum ValidationCode {
+    VALID,
+    MVCC_READ_CONFLICT,
+    PHANTOM_READ_CONFLICT
+}
@@ -0,0 +1,40 @@
+package org.energy.trading.benchmarks.simulator;
+
+// Height at which a key was last written, as recorded in Fabric read sets
+public final class Version {
+
+    private final long blockNum;
+    private final int txNum;
+
+    public Version(long blockNum, int txNum) {
+        this.blockNum = blockNum;
+        this.txNum = txNum;
+    }
+
+    public long getBlockNum() {
+        return blockNum;
+    }
+
+    public int getTxNum() {
+        return txNum;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Version)) {
+            return false;
+        }
+        Version version = (Version) other;
+        return blockNum == version.blockNum && txNum == version.txNum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(blockNum) * 31 + txNum;
+    }
+
+    @Override
+    public String toString() {
+        return blockNum + ":" + txNum;
+    }
+}
@@ -0,0 +1,63 @@
+package org.energy.trading.benchmarks.simulator;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Committed world state. Like the peer's transaction manager, simulations share a read lock
+// and block commits take the write lock, so every endorsement sees a single committed height.
+public class VersionedState {
+
+    private final NavigableMap<String, VersionedValue> state = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public <T> T simulate(Supplier<T> simulation) {
+        lock.readLock().lock();
+        try {
+            return simulation.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers must hold the read lock through simulate; block validation does the same,
+    // so endorsements continue while a block is validated and only apply is exclusive
+    VersionedValue get(String key) {
+        return state.get(key);
+    }
+
+    NavigableMap<String, VersionedValue> range(String startKey, String endKey) {
+        return slice(state, startKey, endKey);
+    }
+
+    // [startKey, endKey) with an empty endKey meaning unbounded, as in getStateByRange
+    static <V> NavigableMap<String, V> slice(NavigableMap<String, V> map, String startKey, String endKey) {
+        if (!endKey.isEmpty() && startKey.compareTo(endKey) >= 0) {
+            return Collections.emptyNavigableMap();
+        }
+        return endKey.isEmpty() ? map.tailMap(startKey, true) : map.subMap(startKey, true, endKey, false);
+    }
+
+    // A null value deletes the key
+    void apply(Map<String, VersionedValue> updates) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, VersionedValue> update : updates.entrySet()) {
+                if (update.getValue().getValue() == null) {
+                    state.remove(update.getKey());
+                } else {
+                    state.put(update.getKey(), update.getValue());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return simulate(state::size);
+    }
+}
@@ -0,0 +1,20 @@
+package org.energy.trading.benchmarks.simulator;
+
+public final class VersionedValue {
+
+    private final byte[] value;
+    private final Version version;
+
+    public VersionedValue(byte[] value, Version version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public Version getVersion() {
+        return version;
+    }
+}
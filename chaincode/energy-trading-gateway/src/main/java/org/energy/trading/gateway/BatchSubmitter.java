@@ -0,0 +1,127 @@
+package org.energy.trading.gateway;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+// Schedules each batch on the lanes of its prosumers and waits for the outcome on its own virtual thread, so a
+// slow block holds up only the batches in it. Scheduling happens on the caller's thread, so a prosumer's batches
+// commit in the order they were flushed. A batch the chaincode rejects is resubmitted one reading per
+// transaction so a single bad reading does not drop the rest; conflicts are retried by the scheduler, and the
+// contract returns readings it already recorded as duplicates, so resubmitting never counts a reading twice.
+// Each batch's pending permits are released when it is done.
+final class BatchSubmitter implements Consumer<List<MeterReading>> {
+
+    static final String BATCH_FUNCTION = "processElectricityGenerationBatch";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSubmitter.class);
+    private static final String READINGS_TRANSIENT_KEY = "readings";
+
+    private final LaneScheduler scheduler;
+    private final Semaphore pending;
+    private final IngestionStats stats;
+    private final ObjectWriter readingsWriter = new ObjectMapper().writerFor(MeterReading[].class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    BatchSubmitter(LaneScheduler scheduler, Semaphore pending, IngestionStats stats) {
+        this.scheduler = scheduler;
+        this.pending = pending;
+        this.stats = stats;
+    }
+
+    @Override
+    public void accept(List<MeterReading> batch) {
+        stats.batches.increment();
+        CompletableFuture<CommitStatus> result = schedule(batch);
+        executor.execute(() -> {
+            try {
+                complete(batch, result);
+            } finally {
+                pending.release(batch.size());
+            }
+        });
+    }
+
+    // Waits for the batches already accepted to finish
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private CompletableFuture<CommitStatus> schedule(List<MeterReading> batch) {
+        return scheduler.submit(HotKeys.forReadings(batch), BATCH_FUNCTION, transientReadings(batch));
+    }
+
+    private void complete(List<MeterReading> batch, CompletableFuture<CommitStatus> result) {
+        CommitStatus status;
+        try {
+            status = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(batch, "interrupted");
+            return;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SubmissionException) {
+                SubmissionException rejected = (SubmissionException) cause;
+                if (rejected.getStage() == SubmissionException.Stage.ENDORSE && batch.size() > 1) {
+                    split(batch);
+                    return;
+                }
+                fail(batch, rejected.getStage() + ": " + rejected.getMessage());
+            } else {
+                fail(batch, String.valueOf(cause));
+            }
+            return;
+        }
+
+        if (status.isValid()) {
+            stats.committed.add(batch.size());
+        } else if (status.isConflict()) {
+            fail(batch, "still conflicting: " + status.getTxId());
+        } else {
+            fail(batch, status.getTxId() + " " + status.getCode());
+        }
+    }
+
+    // Schedules every reading before waiting on any, keeping them in the batch's order on the lanes
+    private void split(List<MeterReading> batch) {
+        stats.splits.increment();
+        List<CompletableFuture<CommitStatus>> results = new ArrayList<>(batch.size());
+        for (MeterReading reading : batch) {
+            results.add(schedule(Collections.singletonList(reading)));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(Collections.singletonList(batch.get(i)), results.get(i));
+        }
+    }
+
+    private Map<String, byte[]> transientReadings(List<MeterReading> batch) {
+        try {
+            return Collections.singletonMap(READINGS_TRANSIENT_KEY,
+                    readingsWriter.writeValueAsBytes(batch.toArray(new MeterReading[0])));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize readings", e);
+        }
+    }
+
+    private void fail(List<MeterReading> batch, String reason) {
+        stats.failed.add(batch.size());
+        LOGGER.warn("Dropped {} readings of {}: {}", batch.size(), batch.get(0).getProsumerId(), reason);
+    }
+}
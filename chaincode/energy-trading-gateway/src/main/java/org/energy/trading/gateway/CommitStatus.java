@@ -0,0 +1,32 @@
+package org.energy.trading.gateway;
+
+// Validation result of a committed transaction; code is the name of Fabric's TxValidationCode
+public final class CommitStatus {
+
+    public static final String VALID = "VALID";
+
+    private final String txId;
+    private final String code;
+
+    public CommitStatus(String txId, String code) {
+        this.txId = txId;
+        this.code = code;
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isValid() {
+        return VALID.equals(code);
+    }
+
+    // Invalidated because a key it read changed first; resubmitting may succeed
+    public boolean isConflict() {
+        return "MVCC_READ_CONFLICT".equals(code) || "PHANTOM_READ_CONFLICT".equals(code);
+    }
+}
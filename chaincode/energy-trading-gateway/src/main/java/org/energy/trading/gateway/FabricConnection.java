@@ -0,0 +1,102 @@
+package org.energy.trading.gateway;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.hyperledger.fabric.client.Gateway;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.client.identity.Identities;
+import org.hyperledger.fabric.client.identity.Signers;
+import org.hyperledger.fabric.client.identity.X509Identity;
+
+import io.grpc.Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.TlsChannelCredentials;
+
+// One gRPC connection and Gateway shared by every submission; the Gateway multiplexes concurrent
+// requests over it. Defaults match User1 of Org1 against peer0 in the test network started by launch.sh.
+public final class FabricConnection implements AutoCloseable {
+
+    private String endpoint = "localhost:7051";
+    private String hostAlias = "peer0.org1.example.com";
+    private String mspId = "Org1MSP";
+    private String channel = "mychannel";
+    private Path cryptoPath = Path.of("organizations", "peerOrganizations", "org1.example.com");
+    private String user = "User1@org1.example.com";
+
+    private ManagedChannel grpcChannel;
+    private Gateway gateway;
+
+    public Network connect() throws IOException, GeneralSecurityException {
+        Path userMsp = cryptoPath.resolve(Path.of("users", user, "msp"));
+        X509Identity identity;
+        try (Reader reader = Files.newBufferedReader(firstFile(userMsp.resolve("signcerts")))) {
+            identity = new X509Identity(mspId, Identities.readX509Certificate(reader));
+        }
+        try (Reader reader = Files.newBufferedReader(firstFile(userMsp.resolve("keystore")))) {
+            Path tlsCert = cryptoPath.resolve(Path.of("peers", hostAlias, "tls", "ca.crt"));
+            grpcChannel = Grpc.newChannelBuilder(endpoint,
+                            TlsChannelCredentials.newBuilder().trustManager(tlsCert.toFile()).build())
+                    .overrideAuthority(hostAlias)
+                    .build();
+            gateway = Gateway.newInstance()
+                    .identity(identity)
+                    .signer(Signers.newPrivateKeySigner(Identities.readPrivateKey(reader)))
+                    .connection(grpcChannel)
+                    .connect();
+        }
+        return gateway.getNetwork(channel);
+    }
+
+    @Override
+    public void close() {
+        if (gateway != null) {
+            gateway.close();
+        }
+        if (grpcChannel != null) {
+            grpcChannel.shutdownNow();
+            try {
+                grpcChannel.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void setHostAlias(String hostAlias) {
+        this.hostAlias = hostAlias;
+    }
+
+    public void setMspId(String mspId) {
+        this.mspId = mspId;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public void setCryptoPath(Path cryptoPath) {
+        this.cryptoPath = cryptoPath;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    // cryptogen and fabric-ca name these files differently, so take the single file in each directory
+    private static Path firstFile(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).findFirst()
+                    .orElseThrow(() -> new IOException("No file in " + directory));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.energy.trading.gateway;
+
+import java.util.Map;
+
+import org.hyperledger.fabric.client.CommitStatusException;
+import org.hyperledger.fabric.client.Contract;
+import org.hyperledger.fabric.client.EndorseException;
+import org.hyperledger.fabric.client.Status;
+import org.hyperledger.fabric.client.SubmitException;
+import org.hyperledger.fabric.client.SubmittedTransaction;
+import org.hyperledger.fabric.client.Transaction;
+
+// TransactionClient over a Fabric Gateway connection
+public final class FabricTransactionClient implements TransactionClient {
+
+    private final FabricConnection connection;
+    private final Contract contract;
+
+    public FabricTransactionClient(FabricConnection connection, Contract contract) {
+        this.connection = connection;
+        this.contract = contract;
+    }
+
+    @Override
+    public PendingTransaction submit(String function, Map<String, byte[]> transientData, String... args)
+            throws SubmissionException {
+        Transaction transaction;
+        try {
+            transaction = contract.newProposal(function)
+                    .addArguments(args)
+                    .putAllTransient(transientData)
+                    .build()
+                    .endorse();
+        } catch (EndorseException e) {
+            throw new SubmissionException(SubmissionException.Stage.ENDORSE, e.getMessage(), e);
+        }
+
+        SubmittedTransaction submitted;
+        try {
+            submitted = transaction.submitAsync();
+        } catch (SubmitException e) {
+            throw new SubmissionException(SubmissionException.Stage.SUBMIT, e.getMessage(), e);
+        }
+        return new PendingTransaction() {
+            @Override
+            public String getTxId() {
+                return submitted.getTransactionId();
+            }
+
+            @Override
+            public byte[] getResult() {
+                return submitted.getResult();
+            }
+
+            @Override
+            public CommitStatus awaitCommit() throws SubmissionException {
+                try {
+                    Status status = submitted.getStatus();
+                    return new CommitStatus(status.getTransactionId(), status.getCode().name());
+                } catch (CommitStatusException e) {
+                    throw new SubmissionException(SubmissionException.Stage.COMMIT, e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -0,0 +1,67 @@
+package org.energy.trading.gateway;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Predicts the ledger keys a transaction reads and may write, from its arguments alone. Keys follow the
+// contract's layout, so two transactions that share a predicted key would conflict if they landed in the
+// same block. Buyers are deliberately not keys of their own: a buyer is only ever read through a
+// (prosumer, buyer) pair, and keying on the buyer would put every prosumer of a utility on one lane.
+// Generation only reads PROSUMER_ and writes keys unique to its transaction, so the (prosumer, buyer) index,
+// which the first reading of a pair writes when it creates the PPA, is its only hot key.
+final class HotKeys {
+
+    private static final String PPA_INDEX = "prosumer~buyer";
+    // The shim's composite key layout: each part, the object type first, is preceded by U+0000 and the
+    // last is followed by one
+    private static final String COMPOSITE_KEY_DELIMITER = "\u0000";
+
+    private HotKeys() {
+    }
+
+    static String prosumer(String prosumerId) {
+        return "PROSUMER_" + prosumerId;
+    }
+
+    static String agreement(String agreementId) {
+        return "PPA_" + agreementId;
+    }
+
+    // Looked up by every generation, and written when the reading auto-creates the PPA
+    static String ppaIndex(String prosumerId, String buyerId) {
+        return COMPOSITE_KEY_DELIMITER + PPA_INDEX + COMPOSITE_KEY_DELIMITER + prosumerId
+                + COMPOSITE_KEY_DELIMITER + buyerId + COMPOSITE_KEY_DELIMITER;
+    }
+
+    static Set<String> forReadings(Collection<MeterReading> readings) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (MeterReading reading : readings) {
+            keys.add(ppaIndex(reading.getProsumerId(), reading.getBuyerId()));
+        }
+        return keys;
+    }
+
+    // Empty for functions with no per-entity keys, which then run outside the lanes
+    static Set<String> forTransaction(String function, String... args) {
+        Set<String> keys = new LinkedHashSet<>();
+        switch (function) {
+            case "registerProsumer":
+            case "archiveGenerationEvents":
+                keys.add(prosumer(args[0]));
+                break;
+            case "processElectricityGeneration":
+                keys.add(ppaIndex(args[0], args[4]));
+                break;
+            case "createPPA":
+                keys.add(agreement(args[0]));
+                keys.add(prosumer(args[1]));
+                keys.add(ppaIndex(args[1], args[2]));
+                break;
+            default:
+                return Collections.emptySet();
+        }
+        return keys;
+    }
+}
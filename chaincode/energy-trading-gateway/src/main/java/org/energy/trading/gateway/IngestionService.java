@@ -0,0 +1,151 @@
+package org.energy.trading.gateway;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.concurrent.Semaphore;
+
+// Accepts meter readings over local HTTP and submits them in per-prosumer batches, so meters never hold a
+// Fabric connection or wait for a commit.
+//
+//   java -jar gateway.jar --crypto-path ../organizations/peerOrganizations/org1.example.com
+public final class IngestionService {
+
+    private static final String CHAINCODE_NAME = "energy-trading-chaincode";
+
+    // Opens the client once the options are parsed; the tests' in-memory launcher supplies its own
+    interface ClientFactory {
+        TransactionClient open(FabricConnection connection, String chaincode) throws Exception;
+    }
+
+    private IngestionService() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(args, (connection, chaincode) -> new FabricTransactionClient(connection,
+                connection.connect().getContract(chaincode)));
+    }
+
+    static void run(String[] args, ClientFactory clients) throws Exception {
+        String host = "127.0.0.1";
+        int port = 8088;
+        int batchSize = 100;
+        long maxDelayMillis = 500;
+        int maxPending = 10_000;
+        double meterRate = 1.0;
+        double meterBurst = 5;
+        int lanes = 32;
+        int maxAttempts = 5;
+        long retryBaseMillis = 100;
+        String chaincode = CHAINCODE_NAME;
+        FabricConnection connection = new FabricConnection();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--host":
+                    host = required(args[i], value);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--batch-size":
+                    batchSize = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--max-delay-ms":
+                    maxDelayMillis = Long.parseLong(required(args[i], value));
+                    break;
+                case "--max-pending":
+                    maxPending = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--meter-rate":
+                    meterRate = Double.parseDouble(required(args[i], value));
+                    break;
+                case "--meter-burst":
+                    meterBurst = Double.parseDouble(required(args[i], value));
+                    break;
+                case "--lanes":
+                    lanes = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--max-attempts":
+                    maxAttempts = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--retry-base-ms":
+                    retryBaseMillis = Long.parseLong(required(args[i], value));
+                    break;
+                case "--chaincode":
+                    chaincode = required(args[i], value);
+                    break;
+                case "--peer":
+                    connection.setEndpoint(required(args[i], value));
+                    break;
+                case "--peer-host-alias":
+                    connection.setHostAlias(required(args[i], value));
+                    break;
+                case "--msp-id":
+                    connection.setMspId(required(args[i], value));
+                    break;
+                case "--crypto-path":
+                    connection.setCryptoPath(Paths.get(required(args[i], value)));
+                    break;
+                case "--user":
+                    connection.setUser(required(args[i], value));
+                    break;
+                case "--channel":
+                    connection.setChannel(required(args[i], value));
+                    break;
+                default:
+                    usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        // The contract accepts at most 500 readings per batch
+        if (batchSize < 1 || batchSize > 500) {
+            usage("--batch-size must be between 1 and 500");
+        }
+        if (lanes < 1 || maxAttempts < 1) {
+            usage("--lanes and --max-attempts must be at least 1");
+        }
+
+        TransactionClient client = clients.open(connection, chaincode);
+        IngestionStats stats = new IngestionStats();
+        LaneScheduler scheduler = new LaneScheduler(client, lanes, maxAttempts, retryBaseMillis, stats);
+        Semaphore pending = new Semaphore(maxPending);
+        BatchSubmitter submitter = new BatchSubmitter(scheduler, pending, stats);
+        ReadingBatcher batcher = new ReadingBatcher(batchSize, maxDelayMillis, submitter);
+        ReadingServer server = new ReadingServer(new InetSocketAddress(host, port),
+                new MeterRateLimiter(meterRate, meterBurst), pending, batcher, stats);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            batcher.close();
+            try {
+                submitter.shutdown();
+                scheduler.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            client.close();
+            System.out.println(stats.snapshot());
+        }));
+        server.start();
+        System.out.printf("Accepting readings on http://%s:%d/readings%n", host, port);
+    }
+
+    private static String required(String option, String value) {
+        if (value == null) {
+            usage(option + " needs a value");
+        }
+        return value;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: IngestionService [--host 127.0.0.1] [--port 8088] [--batch-size 100] [--max-delay-ms 500]"
+                + " [--max-pending 10000] [--meter-rate 1.0] [--meter-burst 5] [--lanes 32] [--max-attempts 5]"
+                + " [--retry-base-ms 100]"
+                + " [--peer localhost:7051] [--crypto-path <org dir>] [--user User1@org1.example.com]"
+                + " [--msp-id Org1MSP] [--channel mychannel] [--peer-host-alias peer0.org1.example.com]"
+                + " [--chaincode " + CHAINCODE_NAME + "]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,51 @@
+package org.energy.trading.gateway;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for GET /stats. Readings are counted once each: accepted readings end up committed or failed.
+// Transactions are counted per attempt, so conflicts / transactions is the share of submissions lost to
+// conflicts; rates are averaged since the service started.
+final class IngestionStats {
+
+    private final long startedAt = System.nanoTime();
+
+    final LongAdder accepted = new LongAdder();
+    final LongAdder invalid = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+    final LongAdder overloaded = new LongAdder(); // rejected while the pending buffer was full
+    final LongAdder batches = new LongAdder();
+    final LongAdder committed = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder splits = new LongAdder(); // rejected batches resubmitted one reading at a time
+    final LongAdder transactions = new LongAdder(); // submission attempts, retries included
+    final LongAdder committedTransactions = new LongAdder();
+    final LongAdder conflicts = new LongAdder(); // attempts invalidated by MVCC or phantom conflicts
+    final LongAdder scheduled = new LongAdder(); // transactions handed to the lanes, before any retry
+    final LongAdder laneWaitNanos = new LongAdder(); // time scheduled transactions spent queued behind their lanes
+
+    Map<String, Number> snapshot() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+        long transactionCount = transactions.sum();
+        long committedCount = committedTransactions.sum();
+        long conflictCount = conflicts.sum();
+        long scheduledCount = scheduled.sum();
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("accepted", accepted.sum());
+        snapshot.put("invalid", invalid.sum());
+        snapshot.put("rateLimited", rateLimited.sum());
+        snapshot.put("overloaded", overloaded.sum());
+        snapshot.put("batches", batches.sum());
+        snapshot.put("committed", committed.sum());
+        snapshot.put("failed", failed.sum());
+        snapshot.put("splits", splits.sum());
+        snapshot.put("transactions", transactionCount);
+        snapshot.put("committedTransactions", committedCount);
+        snapshot.put("conflicts", conflictCount);
+        snapshot.put("committedTxPerSecond", committedCount / seconds);
+        snapshot.put("conflictRate", transactionCount == 0 ? 0.0 : (double) conflictCount / transactionCount);
+        snapshot.put("meanLaneWaitMillis", scheduledCount == 0 ? 0.0 : laneWaitNanos.sum() / 1e6 / scheduledCount);
+        return snapshot;
+    }
+}
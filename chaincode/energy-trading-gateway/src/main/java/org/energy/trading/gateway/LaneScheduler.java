@@ -0,0 +1,126 @@
+package org.energy.trading.gateway;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Serializes transactions that share a predicted hot key and runs the rest in parallel. Every key hashes to
+// one of a fixed number of lanes; a transaction waits for the transactions submitted before it on each of its
+// lanes, so two that would conflict never share a block. Ordering is fixed when submit is called, so
+// transactions on a lane commit in submission order. A transaction spanning several lanes waits for all of
+// them, and lanes only ever wait on earlier submissions, so they cannot deadlock.
+//
+// A conflict can still come from another client or from two keys colliding on a lane boundary; those are
+// resubmitted after a jittered exponential backoff, holding the lanes so later transactions stay behind.
+final class LaneScheduler {
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final TransactionClient client;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final IngestionStats stats;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Completes when the last transaction submitted on the lane is done, however it ended
+    private final CompletableFuture<?>[] tails;
+
+    LaneScheduler(TransactionClient client, int laneCount, int maxAttempts, long retryBaseMillis,
+                  IngestionStats stats) {
+        this.client = client;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.stats = stats;
+        this.tails = new CompletableFuture<?>[laneCount];
+        Arrays.fill(tails, CompletableFuture.completedFuture(null));
+    }
+
+    // Completes with the final commit status, which is a conflict only once maxAttempts are used up, or
+    // exceptionally with a SubmissionException. Transactions with no hot keys run outside the lanes.
+    CompletableFuture<CommitStatus> submit(Collection<String> hotKeys, String function,
+                                           Map<String, byte[]> transientData, String... args) {
+        long queuedAt = System.nanoTime();
+        int[] lanes = hotKeys.stream().mapToInt(key -> Math.floorMod(key.hashCode(), tails.length))
+                .distinct().toArray();
+
+        CompletableFuture<CommitStatus> result;
+        synchronized (tails) {
+            CompletableFuture<?>[] predecessors = new CompletableFuture<?>[lanes.length];
+            for (int i = 0; i < lanes.length; i++) {
+                predecessors[i] = tails[lanes[i]];
+            }
+            result = CompletableFuture.allOf(predecessors)
+                    .handle((ignored, error) -> null)
+                    .thenApplyAsync(ignored -> {
+                        stats.scheduled.increment();
+                        stats.laneWaitNanos.add(System.nanoTime() - queuedAt);
+                        return run(function, transientData, args);
+                    }, executor);
+            CompletableFuture<?> done = result.handle((status, error) -> null);
+            for (int lane : lanes) {
+                tails[lane] = done;
+            }
+        }
+        return result;
+    }
+
+    // Waits for the transactions already submitted to finish
+    void shutdown() throws InterruptedException {
+        CompletableFuture<?> drained;
+        synchronized (tails) {
+            drained = CompletableFuture.allOf(tails);
+        }
+        try {
+            drained.get(1, TimeUnit.MINUTES);
+        } catch (ExecutionException | TimeoutException e) {
+            // Lane tails never fail; transactions still running after the timeout are abandoned
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private CommitStatus run(String function, Map<String, byte[]> transientData, String... args) {
+        CommitStatus status = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) {
+                backoff(attempt);
+            }
+            stats.transactions.increment();
+            try {
+                status = client.submit(function, transientData, args).awaitCommit();
+            } catch (SubmissionException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            if (status.isValid()) {
+                stats.committedTransactions.increment();
+                return status;
+            }
+            if (!status.isConflict()) {
+                return status;
+            }
+            stats.conflicts.increment();
+        }
+        return status;
+    }
+
+    // Full jitter: a uniform delay up to an exponentially growing bound, so conflicting clients spread out
+    private void backoff(int attempt) {
+        long bound = Math.min(MAX_BACKOFF_MILLIS, retryBaseMillis << Math.min(attempt - 2, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.energy.trading.gateway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Token bucket per meter: burst readings at once, refilled at ratePerSecond.
+// A meter reading every 15 minutes needs far less; the limit stops a stuck meter from flooding a batch.
+final class MeterRateLimiter {
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    MeterRateLimiter(double ratePerSecond, double burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+    }
+
+    // Takes each meter's count of tokens, or none: returns the first meter over its rate, after giving back
+    // what the meters before it took, or null once every meter's tokens are taken
+    String tryAcquire(Map<String, Integer> readingsPerMeter) {
+        long nowNanos = System.nanoTime();
+        List<Map.Entry<String, Integer>> taken = new ArrayList<>(readingsPerMeter.size());
+        for (Map.Entry<String, Integer> meter : readingsPerMeter.entrySet()) {
+            if (!bucket(meter.getKey()).tryTake(nowNanos, meter.getValue())) {
+                for (Map.Entry<String, Integer> done : taken) {
+                    bucket(done.getKey()).give(done.getValue());
+                }
+                return meter.getKey();
+            }
+            taken.add(meter);
+        }
+        return null;
+    }
+
+    // Returns tokens taken for a request that was rejected for another reason
+    void release(Map<String, Integer> readingsPerMeter) {
+        for (Map.Entry<String, Integer> meter : readingsPerMeter.entrySet()) {
+            bucket(meter.getKey()).give(meter.getValue());
+        }
+    }
+
+    private Bucket bucket(String meterId) {
+        return buckets.computeIfAbsent(meterId, id -> new Bucket());
+    }
+
+    private final class Bucket {
+
+        private double tokens = burst;
+        private long refilledNanos = System.nanoTime();
+
+        synchronized boolean tryTake(long nowNanos, int count) {
+            // Another request may have refilled the bucket after nowNanos was read
+            if (nowNanos > refilledNanos) {
+                tokens = Math.min(burst, tokens + (nowNanos - refilledNanos) / 1e9 * ratePerSecond);
+                refilledNanos = nowNanos;
+            }
+            if (tokens < count) {
+                return false;
+            }
+            tokens -= count;
+            return true;
+        }
+
+        synchronized void give(int count) {
+            tokens = Math.min(burst, tokens + count);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.energy.trading.gateway;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// A reading as meters POST it and as processElectricityGenerationBatch takes it in its "readings" transient
+// entry. Mirrors the contract's MeterReading field for field, so the gateway needs no chaincode classes.
+public final class MeterReading {
+
+    private final String prosumerId;
+    private final double generatedKWh;
+    private final String meterId;
+    private final String timestamp;
+    private final String buyerId;
+
+    @JsonCreator
+    public MeterReading(
+            @JsonProperty("prosumerId") String prosumerId,
+            @JsonProperty("generatedKWh") double generatedKWh,
+            @JsonProperty("meterId") String meterId,
+            @JsonProperty("timestamp") String timestamp,
+            @JsonProperty("buyerId") String buyerId) {
+        this.prosumerId = prosumerId;
+        this.generatedKWh = generatedKWh;
+        this.meterId = meterId;
+        this.timestamp = timestamp;
+        this.buyerId = buyerId;
+    }
+
+    // --- Getters ---
+    public String getProsumerId() {
+        return prosumerId;
+    }
+
+    public double getGeneratedKWh() {
+        return generatedKWh;
+    }
+
+    public String getMeterId() {
+        return meterId;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBuyerId() {
+        return buyerId;
+    }
+}
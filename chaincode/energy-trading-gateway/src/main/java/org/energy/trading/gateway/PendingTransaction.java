@@ -0,0 +1,13 @@
+package org.energy.trading.gateway;
+
+// A transaction accepted by the orderer and not yet known to be committed
+public interface PendingTransaction {
+
+    String getTxId();
+
+    // The chaincode's response from endorsement
+    byte[] getResult();
+
+    // Blocks until the transaction is in a block and returns its validation result
+    CommitStatus awaitCommit() throws SubmissionException, InterruptedException;
+}
@@ -0,0 +1,97 @@
+package org.energy.trading.gateway;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Buffers readings per prosumer and hands a buffer to the sink when it holds batchSize readings or its
+// oldest reading has waited maxDelay. A batch holds one prosumer's readings, so its transaction reads
+// only that prosumer's keys.
+final class ReadingBatcher implements AutoCloseable {
+
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<MeterReading>> sink;
+    private final Map<String, Buffer> buffers = new HashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ReadingBatcher(int batchSize, long maxDelayMillis, Consumer<List<MeterReading>> sink) {
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.sink = sink;
+        // Checking four times per delay bounds how late a time-triggered flush can be
+        long tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), maxDelayNanos / 4);
+        timer.scheduleAtFixedRate(this::flushExpired, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void add(MeterReading reading) {
+        List<MeterReading> full = null;
+        synchronized (this) {
+            Buffer buffer = buffers.computeIfAbsent(reading.getProsumerId(), id -> new Buffer(System.nanoTime()));
+            buffer.readings.add(reading);
+            if (buffer.readings.size() >= batchSize) {
+                buffers.remove(reading.getProsumerId());
+                full = buffer.readings;
+            }
+        }
+        if (full != null) {
+            sink.accept(full);
+        }
+    }
+
+    // Sends every buffered reading, due or not, and stops the timer
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        List<List<MeterReading>> remaining;
+        synchronized (this) {
+            remaining = new ArrayList<>();
+            for (Buffer buffer : buffers.values()) {
+                remaining.add(buffer.readings);
+            }
+            buffers.clear();
+        }
+        for (List<MeterReading> batch : remaining) {
+            sink.accept(batch);
+        }
+    }
+
+    private void flushExpired() {
+        for (List<MeterReading> batch : takeDue(System.nanoTime())) {
+            sink.accept(batch);
+        }
+    }
+
+    // Removes the buffers that have waited maxDelay; the sink is called outside the lock
+    private synchronized List<List<MeterReading>> takeDue(long nowNanos) {
+        List<List<MeterReading>> due = new ArrayList<>();
+        for (Iterator<Buffer> it = buffers.values().iterator(); it.hasNext(); ) {
+            Buffer buffer = it.next();
+            if (nowNanos - buffer.startedNanos >= maxDelayNanos) {
+                due.add(buffer.readings);
+                it.remove();
+            }
+        }
+        return due;
+    }
+
+    private static final class Buffer {
+
+        private final long startedNanos;
+        private final List<MeterReading> readings = new ArrayList<>();
+
+        private Buffer(long startedNanos) {
+            this.startedNanos = startedNanos;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.energy.trading.gateway;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Local HTTP endpoint for meters, one virtual thread per request.
+//
+//   POST /readings  one MeterReading or a JSON array of them; 202 once buffered, 400 when a reading is
+//                   invalid, 429 when one of its meters is over its rate, 503 when the pending buffer is full.
+//                   A request is accepted or rejected as a whole.
+//   GET  /stats     IngestionStats counters
+final class ReadingServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRateLimiter rateLimiter;
+    private final Semaphore pending;
+    private final ReadingBatcher batcher;
+    private final IngestionStats stats;
+
+    ReadingServer(InetSocketAddress address, MeterRateLimiter rateLimiter, Semaphore pending,
+                  ReadingBatcher batcher, IngestionStats stats) throws IOException {
+        this.rateLimiter = rateLimiter;
+        this.pending = pending;
+        this.batcher = batcher;
+        this.stats = stats;
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/readings", this::handleReadings);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    // The bound port, which differs from the requested one when that was 0
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting requests and waits up to a second for those in progress
+    void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handleReadings(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, Collections.singletonMap("error", "POST readings"));
+            return;
+        }
+
+        List<MeterReading> readings;
+        try (InputStream body = exchange.getRequestBody()) {
+            readings = parse(objectMapper.readTree(body));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            stats.invalid.increment();
+            respond(exchange, 400, Collections.singletonMap("error", String.valueOf(e.getMessage())));
+            return;
+        }
+
+        // Every meter is checked before any tokens are kept, and a request turned away for a full buffer gets
+        // them back, so a rejected request costs its meters nothing
+        Map<String, Integer> readingsPerMeter = new LinkedHashMap<>();
+        for (MeterReading reading : readings) {
+            readingsPerMeter.merge(reading.getMeterId(), 1, Integer::sum);
+        }
+        String limitedMeter = rateLimiter.tryAcquire(readingsPerMeter);
+        if (limitedMeter != null) {
+            stats.rateLimited.add(readings.size());
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 429, Collections.singletonMap("error", "Meter " + limitedMeter + " is over its rate"));
+            return;
+        }
+        if (!pending.tryAcquire(readings.size())) {
+            rateLimiter.release(readingsPerMeter);
+            stats.overloaded.add(readings.size());
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, Collections.singletonMap("error", "Too many readings pending"));
+            return;
+        }
+
+        for (MeterReading reading : readings) {
+            batcher.add(reading);
+        }
+        stats.accepted.add(readings.size());
+        respond(exchange, 202, Collections.singletonMap("accepted", readings.size()));
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, stats.snapshot());
+    }
+
+    // The contract validates a batch as a whole, so readings are checked here first
+    private List<MeterReading> parse(JsonNode node) throws JsonProcessingException {
+        List<MeterReading> readings = new ArrayList<>();
+        if (node != null && node.isArray()) {
+            for (JsonNode element : node) {
+                readings.add(objectMapper.treeToValue(element, MeterReading.class));
+            }
+        } else if (node != null && node.isObject()) {
+            readings.add(objectMapper.treeToValue(node, MeterReading.class));
+        }
+        if (readings.isEmpty()) {
+            throw new IllegalArgumentException("Expected a reading or an array of readings");
+        }
+
+        for (MeterReading reading : readings) {
+            if (isBlank(reading.getProsumerId()) || isBlank(reading.getMeterId())
+                    || isBlank(reading.getTimestamp()) || isBlank(reading.getBuyerId())) {
+                throw new IllegalArgumentException("prosumerId, meterId, timestamp and buyerId are required");
+            }
+            if (!(reading.getGeneratedKWh() > 0) || Double.isInfinite(reading.getGeneratedKWh())) {
+                throw new IllegalArgumentException("generatedKWh must be positive");
+            }
+        }
+        return readings;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, ?> body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,22 @@
+package org.energy.trading.gateway;
+
+// A transaction that failed before a commit status was known
+public class SubmissionException extends Exception {
+
+    public enum Stage {
+        ENDORSE,  // the chaincode rejected the proposal, or no peer could endorse it
+        SUBMIT,   // the orderer did not accept the transaction
+        COMMIT    // the commit status could not be obtained
+    }
+
+    private final Stage stage;
+
+    public SubmissionException(Stage stage, String message, Throwable cause) {
+        super(message, cause);
+        this.stage = stage;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,15 @@
+package org.energy.trading.gateway;
+
+import java.util.Map;
+
+// The submit path of a Fabric Gateway client, split at the point the orderer accepts the transaction,
+// so callers can move on before the commit status arrives. Calls block; run them on virtual threads.
+public interface TransactionClient extends AutoCloseable {
+
+    // Endorses the proposal and sends the transaction to the orderer
+    PendingTransaction submit(String function, Map<String, byte[]> transientData, String... args)
+            throws SubmissionException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,162 @@
+package org.energy.trading.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Submits batches through the lanes to the contract running on the in-memory stand-in, then reads the
+// prosumer's totals back from the ledger
+class BatchSubmitterTest {
+
+    private static final String PROSUMER_ID = "PROSUMER001";
+    private static final String TIMESTAMP = "2025-06-01T10:00:00.000+0530";
+    private static final int PERMITS = 100;
+
+    private final IngestionStats stats = new IngestionStats();
+    private final Semaphore pending = new Semaphore(PERMITS);
+    private SimulatedTransactionClient ledger;
+
+    @BeforeEach
+    void registerProsumer() throws Exception {
+        // Small, quick blocks keep the tests short
+        ledger = new SimulatedTransactionClient(10, 20);
+        CommitStatus status = ledger.submit("registerProsumer", Collections.emptyMap(), PROSUMER_ID,
+                "Solar Site 1", "Pune, Maharashtra", "100.0", "ProsumerMSP").awaitCommit();
+        assertTrue(status.isValid());
+    }
+
+    @AfterEach
+    void closeLedger() {
+        ledger.close();
+    }
+
+    @Test
+    void commitsABatchAsOneTransaction() throws Exception {
+        BatchSubmitter submitter = submitter(ledger);
+
+        submit(submitter, Arrays.asList(reading("METER001"), reading("METER002"), reading("METER003")));
+
+        assertEquals(3, stats.committed.sum());
+        assertEquals(0, stats.failed.sum());
+        assertEquals(1, stats.transactions.sum());
+        assertEquals(37.5, totalGenerated(), 1e-9);
+    }
+
+    @Test
+    void resubmitsARejectedBatchOneReadingPerTransaction() throws Exception {
+        BatchSubmitter submitter = submitter(ledger);
+
+        // The gateway only checks the timestamp is present; the contract rejects the whole batch over it
+        submit(submitter, Arrays.asList(reading("METER001"), reading("METER002", "not a time"),
+                reading("METER003")));
+
+        assertEquals(1, stats.splits.sum());
+        assertEquals(2, stats.committed.sum());
+        assertEquals(1, stats.failed.sum());
+        assertEquals(25.0, totalGenerated(), 1e-9);
+    }
+
+    @Test
+    void doesNotCountAResubmittedBatchTwice() throws Exception {
+        BatchSubmitter submitter = submitter(ledger);
+        List<MeterReading> batch = Arrays.asList(reading("METER001"), reading("METER002"));
+
+        submit(submitter, batch);
+        submit(submitter, batch);
+
+        assertEquals(0, stats.failed.sum());
+        assertEquals(25.0, totalGenerated(), 1e-9);
+    }
+
+    @Test
+    void doesNotCountABatchTwiceWhenACommittedAttemptIsRetried() throws Exception {
+        // The first attempt commits, but is reported as a conflict, so the scheduler submits it again
+        BatchSubmitter submitter = submitter(new FirstCommitLostClient(ledger));
+
+        submit(submitter, Arrays.asList(reading("METER001"), reading("METER002")));
+
+        assertEquals(1, stats.conflicts.sum());
+        assertEquals(2, stats.transactions.sum());
+        assertEquals(2, stats.committed.sum());
+        assertEquals(25.0, totalGenerated(), 1e-9);
+    }
+
+    private BatchSubmitter submitter(TransactionClient client) {
+        return new BatchSubmitter(new LaneScheduler(client, 4, 3, 10, stats), pending, stats);
+    }
+
+    // Takes the batch's pending permits as ReadingServer does, then waits until the submitter has released them
+    private void submit(BatchSubmitter submitter, List<MeterReading> batch) throws InterruptedException {
+        assertTrue(pending.tryAcquire(batch.size()));
+        submitter.accept(batch);
+        assertTrue(pending.tryAcquire(PERMITS, 30, TimeUnit.SECONDS));
+        pending.release(PERMITS);
+    }
+
+    private double totalGenerated() throws Exception {
+        byte[] prosumer = ledger.submit("getProsumer", Collections.emptyMap(), PROSUMER_ID).getResult();
+        return new ObjectMapper().readTree(prosumer).get("totalEnergyGenerated").asDouble();
+    }
+
+    private static MeterReading reading(String meterId) {
+        return reading(meterId, TIMESTAMP);
+    }
+
+    private static MeterReading reading(String meterId, String timestamp) {
+        return new MeterReading(PROSUMER_ID, 12.5, meterId, timestamp, "UTILITY001");
+    }
+
+    private static final class FirstCommitLostClient implements TransactionClient {
+
+        private final TransactionClient delegate;
+        private final AtomicBoolean lost = new AtomicBoolean();
+
+        private FirstCommitLostClient(TransactionClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public PendingTransaction submit(String function, Map<String, byte[]> transientData, String... args)
+                throws SubmissionException {
+            PendingTransaction transaction = delegate.submit(function, transientData, args);
+            if (!lost.compareAndSet(false, true)) {
+                return transaction;
+            }
+            return new PendingTransaction() {
+                @Override
+                public String getTxId() {
+                    return transaction.getTxId();
+                }
+
+                @Override
+                public byte[] getResult() {
+                    return transaction.getResult();
+                }
+
+                @Override
+                public CommitStatus awaitCommit() throws SubmissionException, InterruptedException {
+                    CommitStatus status = transaction.awaitCommit();
+                    assertTrue(status.isValid());
+                    return new CommitStatus(status.getTxId(), "MVCC_READ_CONFLICT");
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
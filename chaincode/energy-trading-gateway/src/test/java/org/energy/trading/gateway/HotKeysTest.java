@@ -0,0 +1,30 @@
+package org.energy.trading.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+
+class HotKeysTest {
+
+    // The gateway builds the key without the shim; it must still be the key the contract writes
+    @Test
+    void ppaIndexMatchesTheShimsCompositeKey() {
+        assertEquals(new CompositeKey("prosumer~buyer", "PROSUMER001", "UTILITY001").toString(),
+                HotKeys.ppaIndex("PROSUMER001", "UTILITY001"));
+    }
+
+    @Test
+    void readingsOfOnePairShareOneKey() {
+        MeterReading first = new MeterReading("PROSUMER001", 12.5, "METER001", "2025-06-01T10:00:00.000+0530", "UTILITY001");
+        MeterReading second = new MeterReading("PROSUMER001", 7.5, "METER002", "2025-06-01T10:00:00.000+0530", "UTILITY001");
+        MeterReading other = new MeterReading("PROSUMER001", 7.5, "METER002", "2025-06-01T10:00:00.000+0530", "CORPORATE001");
+
+        assertEquals(Collections.singleton(HotKeys.ppaIndex("PROSUMER001", "UTILITY001")),
+                HotKeys.forReadings(Arrays.asList(first, second)));
+        assertEquals(2, HotKeys.forReadings(Arrays.asList(first, second, other)).size());
+    }
+}
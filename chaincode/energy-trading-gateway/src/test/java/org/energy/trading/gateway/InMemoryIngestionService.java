@@ -0,0 +1,85 @@
+package org.energy.trading.gateway;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.energy.trading.benchmarks.simulator.Invocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+// Runs IngestionService against the in-memory stand-in instead of a network. --setup transactions are
+// committed before the service starts; every other option is IngestionService's.
+//
+//   mvn -pl energy-trading-gateway exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=org.energy.trading.gateway.InMemoryIngestionService \
+//       -Dexec.args="--setup energy-trading-benchmarks/workloads/setup.jsonl"
+public final class InMemoryIngestionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryIngestionService.class);
+
+    private InMemoryIngestionService() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path setup = null;
+        List<String> serviceArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--setup".equals(args[i]) && i + 1 < args.length) {
+                setup = Paths.get(args[++i]);
+            } else {
+                serviceArgs.add(args[i]);
+            }
+        }
+
+        Path setupFile = setup;
+        IngestionService.run(serviceArgs.toArray(new String[0]), (connection, chaincode) -> {
+            // Same block cutting as the test network's orderer: 10 transactions or 2 s
+            SimulatedTransactionClient client = new SimulatedTransactionClient(10, 2000);
+            if (setupFile != null) {
+                LaneScheduler scheduler = new LaneScheduler(client, 32, 5, 100, new IngestionStats());
+                runSetup(scheduler, setupFile);
+                scheduler.shutdown();
+            }
+            return client;
+        });
+    }
+
+    // Schedules every setup transaction, then waits for all of them. Transactions for one prosumer share a lane
+    // and commit in file order; different prosumers are set up in parallel.
+    static void runSetup(LaneScheduler scheduler, Path setup) throws IOException, InterruptedException {
+        ObjectReader reader = new ObjectMapper().readerFor(Invocation.class);
+        List<Invocation> invocations = new ArrayList<>();
+        List<CompletableFuture<CommitStatus>> results = new ArrayList<>();
+        for (String line : Files.readAllLines(setup, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Invocation invocation = reader.readValue(line);
+            String[] args = invocation.getArgs().toArray(new String[0]);
+            invocations.add(invocation);
+            results.add(scheduler.submit(HotKeys.forTransaction(invocation.getFunction(), args),
+                    invocation.getFunction(), invocation.decodeTransient(), args));
+        }
+        for (int i = 0; i < invocations.size(); i++) {
+            String function = invocations.get(i).getFunction();
+            try {
+                CommitStatus status = results.get(i).get();
+                if (!status.isValid()) {
+                    LOGGER.warn("Setup {} was {}", function, status.getCode());
+                }
+            } catch (ExecutionException e) {
+                LOGGER.warn("Setup {} failed: {}", function, e.getCause().getMessage());
+            }
+        }
+    }
+}
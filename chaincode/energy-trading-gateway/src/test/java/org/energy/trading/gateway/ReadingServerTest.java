@@ -0,0 +1,142 @@
+package org.energy.trading.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+// Drives ReadingServer over HTTP into a ReadingBatcher whose sink only records the batches
+class ReadingServerTest {
+
+    private static final long NO_DELAY_FLUSH = 60_000;
+
+    private final IngestionStats stats = new IngestionStats();
+    private final BlockingQueue<List<MeterReading>> batches = new LinkedBlockingQueue<>();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private ReadingBatcher batcher;
+    private ReadingServer server;
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.stop();
+        }
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void flushesABatchOnceItHoldsBatchSizeReadings() throws Exception {
+        start(3, NO_DELAY_FLUSH, new MeterRateLimiter(1.0, 5), new Semaphore(100));
+
+        assertEquals(202, post(reading("PROSUMER001", "METER001", 0), reading("PROSUMER002", "METER002", 0)).statusCode());
+        assertEquals(202, post(reading("PROSUMER001", "METER003", 0), reading("PROSUMER001", "METER004", 0)).statusCode());
+
+        List<MeterReading> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(3, batch.size());
+        for (MeterReading reading : batch) {
+            assertEquals("PROSUMER001", reading.getProsumerId());
+        }
+        // PROSUMER002's single reading waits for more readings or the delay
+        assertNull(batches.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(4, stats.accepted.sum());
+    }
+
+    @Test
+    void flushesAPartialBatchAfterMaxDelay() throws Exception {
+        start(100, 200, new MeterRateLimiter(1.0, 5), new Semaphore(100));
+
+        long postedAt = System.nanoTime();
+        assertEquals(202, post(reading("PROSUMER001", "METER001", 0), reading("PROSUMER001", "METER002", 0)).statusCode());
+
+        List<MeterReading> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(2, batch.size());
+        assertTrue(System.nanoTime() - postedAt >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void rejectsARequestWithAMeterOverItsRateWithoutTakingTokens() throws Exception {
+        // Practically no refill, so every token taken would show
+        start(100, NO_DELAY_FLUSH, new MeterRateLimiter(1e-6, 2), new Semaphore(100));
+
+        HttpResponse<String> limited = post(reading("PROSUMER001", "METER001", 0),
+                reading("PROSUMER001", "METER002", 0), reading("PROSUMER001", "METER002", 1),
+                reading("PROSUMER001", "METER002", 2));
+        assertEquals(429, limited.statusCode());
+        assertEquals("1", limited.headers().firstValue("Retry-After").orElse(null));
+        assertTrue(limited.body().contains("METER002"));
+        assertEquals(4, stats.rateLimited.sum());
+
+        // METER001 was checked first, yet still has its whole burst
+        assertEquals(202, post(reading("PROSUMER001", "METER001", 0), reading("PROSUMER001", "METER001", 1)).statusCode());
+        assertEquals(429, post(reading("PROSUMER001", "METER001", 2)).statusCode());
+        assertEquals(2, stats.accepted.sum());
+    }
+
+    @Test
+    void rejectsARequestWhenThePendingBufferIsFullAndReturnsItsTokens() throws Exception {
+        Semaphore pending = new Semaphore(2);
+        start(100, NO_DELAY_FLUSH, new MeterRateLimiter(1e-6, 3), pending);
+
+        HttpResponse<String> overloaded = post(reading("PROSUMER001", "METER001", 0),
+                reading("PROSUMER001", "METER001", 1), reading("PROSUMER001", "METER001", 2));
+        assertEquals(503, overloaded.statusCode());
+        assertEquals("1", overloaded.headers().firstValue("Retry-After").orElse(null));
+        assertEquals(3, stats.overloaded.sum());
+        assertEquals(2, pending.availablePermits());
+
+        // Once there is room, the same meter can still send its whole burst
+        pending.release();
+        assertEquals(202, post(reading("PROSUMER001", "METER001", 0),
+                reading("PROSUMER001", "METER001", 1), reading("PROSUMER001", "METER001", 2)).statusCode());
+        assertEquals(0, pending.availablePermits());
+    }
+
+    @Test
+    void rejectsAnInvalidReadingWithoutBufferingTheRequest() throws Exception {
+        start(100, NO_DELAY_FLUSH, new MeterRateLimiter(1.0, 5), new Semaphore(100));
+
+        String invalid = "{\"prosumerId\":\"PROSUMER001\",\"generatedKWh\":-1,\"meterId\":\"METER002\","
+                + "\"timestamp\":\"2025-06-01T10:00:00.000+0530\",\"buyerId\":\"UTILITY001\"}";
+        assertEquals(400, post(reading("PROSUMER001", "METER001", 0), invalid).statusCode());
+        assertEquals(1, stats.invalid.sum());
+        assertEquals(0, stats.accepted.sum());
+    }
+
+    private void start(int batchSize, long maxDelayMillis, MeterRateLimiter rateLimiter, Semaphore pending)
+            throws IOException {
+        batcher = new ReadingBatcher(batchSize, maxDelayMillis, batches::add);
+        server = new ReadingServer(new InetSocketAddress("127.0.0.1", 0), rateLimiter, pending, batcher, stats);
+        server.start();
+    }
+
+    private HttpResponse<String> post(String... readings) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/readings"))
+                .POST(HttpRequest.BodyPublishers.ofString("[" + String.join(",", readings) + "]"))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String reading(String prosumerId, String meterId, int minute) {
+        return String.format("{\"prosumerId\":\"%s\",\"generatedKWh\":12.5,\"meterId\":\"%s\","
+                + "\"timestamp\":\"2025-06-01T10:%02d:00.000+0530\",\"buyerId\":\"UTILITY001\"}", prosumerId, meterId, minute);
+    }
+}
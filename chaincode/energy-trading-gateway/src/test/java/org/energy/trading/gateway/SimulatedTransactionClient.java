@@ -0,0 +1,105 @@
+package org.energy.trading.gateway;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.energy.trading.benchmarks.simulator.Committer;
+import org.energy.trading.benchmarks.simulator.ContractInvoker;
+import org.energy.trading.benchmarks.simulator.EndorsedTransaction;
+import org.energy.trading.benchmarks.simulator.Invocation;
+import org.energy.trading.benchmarks.simulator.SimulationStats;
+import org.energy.trading.benchmarks.simulator.SimulationStub;
+import org.energy.trading.benchmarks.simulator.ValidationCode;
+import org.energy.trading.benchmarks.simulator.VersionedState;
+import org.energy.trading.contracts.EnergyTradingContract;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// In-memory stand-in for the Fabric Gateway, built on the benchmarks module's ledger simulator:
+// proposals run EnergyTradingContract against versioned state, and the committer cuts blocks and applies
+// MVCC and phantom validation, so conflicts and invalid transactions surface as they would on a peer.
+// Test scope only, so the contract and the simulator stay out of gateway.jar.
+public final class SimulatedTransactionClient implements TransactionClient {
+
+    private static final String MSP_ID = "ProsumerMSP";
+
+    private final VersionedState state = new VersionedState();
+    private final ContractInvoker invoker = new ContractInvoker(new EnergyTradingContract());
+    private final AtomicLong txCounter = new AtomicLong();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Committer committer;
+    private final Thread committerThread;
+
+    public SimulatedTransactionClient(int blockSize, long blockTimeoutMillis) {
+        committer = new Committer(state, new SimulationStats(), blockSize, blockTimeoutMillis);
+        committerThread = new Thread(committer, "simulated-committer");
+        committerThread.start();
+    }
+
+    @Override
+    public PendingTransaction submit(String function, Map<String, byte[]> transientData, String... args)
+            throws SubmissionException {
+        String txId = "tx" + txCounter.incrementAndGet();
+        SimulationStub stub = new SimulationStub(state, txId, Instant.now(), transientData, MSP_ID);
+        Invocation invocation = new Invocation(function, Arrays.asList(args), null, false);
+        Object result;
+        try {
+            result = state.simulate(() -> invoker.invoke(stub, invocation));
+        } catch (RuntimeException e) {
+            throw new SubmissionException(SubmissionException.Stage.ENDORSE, String.valueOf(e.getMessage()), e);
+        }
+
+        byte[] response = response(result);
+        EndorsedTransaction transaction = new EndorsedTransaction(txId, function, stub.getReadWriteSet(), System.nanoTime());
+        committer.submit(transaction);
+        return new PendingTransaction() {
+            @Override
+            public String getTxId() {
+                return txId;
+            }
+
+            @Override
+            public byte[] getResult() {
+                return response;
+            }
+
+            @Override
+            public CommitStatus awaitCommit() throws SubmissionException, InterruptedException {
+                try {
+                    ValidationCode code = transaction.getCommit().get();
+                    return new CommitStatus(txId, code.name());
+                } catch (ExecutionException e) {
+                    throw new SubmissionException(SubmissionException.Stage.COMMIT, e.getCause().getMessage(), e);
+                }
+            }
+        };
+    }
+
+    // Strings as they are, anything else as JSON, like the contract router's serializer
+    private byte[] response(Object result) throws SubmissionException {
+        if (result == null || result instanceof String) {
+            return String.valueOf(result).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new SubmissionException(SubmissionException.Stage.ENDORSE, "Failed to serialize the response", e);
+        }
+    }
+
+    // Cuts the queued transactions into a final block before returning
+    @Override
+    public void close() {
+        committer.shutdown();
+        try {
+            committerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.energy.trading.indexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+// Extracts one chaincode namespace's public write set from a committed block.
+// Transactions the peer marked invalid (MVCC or endorsement failures) are skipped, so the result is
+// exactly what the peer applied to world state. Chaincode events travel inside the same
+// ChaincodeAction, but the write set is the authoritative copy of every entity, so only it is read.
+public final class BlockDecoder {
+
+    private final String namespace;
+
+    public BlockDecoder(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public DecodedBlock decode(Block block) throws InvalidProtocolBufferException {
+        List<ByteString> envelopes = block.getData().getDataList();
+        ByteString filter = block.getMetadata().getMetadata(BlockMetadataIndex.TRANSACTIONS_FILTER_VALUE);
+
+        List<LedgerWrite> writes = new ArrayList<>();
+        int valid = 0;
+        for (int i = 0; i < envelopes.size(); i++) {
+            if (i >= filter.size() || filter.byteAt(i) != TxValidationCode.VALID_VALUE) {
+                continue;
+            }
+            valid++;
+
+            Payload payload = Payload.parseFrom(Envelope.parseFrom(envelopes.get(i)).getPayload());
+            ChannelHeader header = ChannelHeader.parseFrom(payload.getHeader().getChannelHeader());
+            if (header.getType() != HeaderType.ENDORSER_TRANSACTION_VALUE) {
+                continue; // config transactions carry no chaincode writes
+            }
+            for (TransactionAction action : Transaction.parseFrom(payload.getData()).getActionsList()) {
+                readWrites(action, writes);
+            }
+        }
+        return new DecodedBlock(block.getHeader().getNumber(), envelopes.size(), valid, writes);
+    }
+
+    private void readWrites(TransactionAction action, List<LedgerWrite> writes) throws InvalidProtocolBufferException {
+        ChaincodeActionPayload actionPayload = ChaincodeActionPayload.parseFrom(action.getPayload());
+        ProposalResponsePayload response =
+                ProposalResponsePayload.parseFrom(actionPayload.getAction().getProposalResponsePayload());
+        TxReadWriteSet readWriteSet = TxReadWriteSet.parseFrom(ChaincodeAction.parseFrom(response.getExtension()).getResults());
+
+        for (NsReadWriteSet namespaceSet : readWriteSet.getNsRwsetList()) {
+            if (!namespace.equals(namespaceSet.getNamespace())) {
+                continue; // lifecycle and other chaincodes
+            }
+            for (KVWrite write : KVRWSet.parseFrom(namespaceSet.getRwset()).getWritesList()) {
+                writes.add(new LedgerWrite(write.getKey(), write.getIsDelete() ? null : write.getValue().toByteArray()));
+            }
+        }
+    }
+}
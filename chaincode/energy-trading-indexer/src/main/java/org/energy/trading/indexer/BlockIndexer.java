@@ -0,0 +1,163 @@
+package org.energy.trading.indexer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.hyperledger.fabric.protos.common.Block;
+
+// Applies blocks from a BlockSource to a ProjectionStore, checkpointing every checkpointInterval blocks
+// and when the source ends or the indexer is stopped.
+//
+//   java -jar indexer.jar --blocks recorded.blocks --checkpoint indexer.checkpoint
+//   java -jar indexer.jar --peer localhost:7051 --record recorded.blocks
+public final class BlockIndexer {
+
+    private static final String CHAINCODE_NAME = "energy-trading-chaincode";
+
+    private final ProjectionStore store;
+    private final BlockDecoder decoder;
+    private final Checkpoint checkpoint;
+    private final int checkpointInterval;
+    private volatile boolean stopping;
+
+    public BlockIndexer(ProjectionStore store, BlockDecoder decoder, Checkpoint checkpoint, int checkpointInterval) {
+        this.store = store;
+        this.decoder = decoder;
+        this.checkpoint = checkpoint;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path blocksFile = null;
+        Path recordFile = null;
+        Path checkpointFile = Paths.get("indexer.checkpoint");
+        int checkpointInterval = 100;
+        String chaincode = CHAINCODE_NAME;
+        GatewayConfig gateway = new GatewayConfig();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--blocks":
+                    blocksFile = Paths.get(required(args[i], value));
+                    break;
+                case "--record":
+                    recordFile = Paths.get(required(args[i], value));
+                    break;
+                case "--checkpoint":
+                    checkpointFile = Paths.get(required(args[i], value));
+                    break;
+                case "--checkpoint-interval":
+                    checkpointInterval = Integer.parseInt(required(args[i], value));
+                    break;
+                case "--chaincode":
+                    chaincode = required(args[i], value);
+                    break;
+                case "--peer":
+                    gateway.setEndpoint(required(args[i], value));
+                    break;
+                case "--peer-host-alias":
+                    gateway.setHostAlias(required(args[i], value));
+                    break;
+                case "--msp-id":
+                    gateway.setMspId(required(args[i], value));
+                    break;
+                case "--crypto-path":
+                    gateway.setCryptoPath(Paths.get(required(args[i], value)));
+                    break;
+                case "--user":
+                    gateway.setUser(required(args[i], value));
+                    break;
+                case "--channel":
+                    gateway.setChannel(required(args[i], value));
+                    break;
+                default:
+                    usage("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        if (blocksFile != null && recordFile != null) {
+            usage("--record applies to the gateway source, not --blocks");
+        }
+
+        ProjectionStore store = new ProjectionStore();
+        Checkpoint checkpoint = new Checkpoint(checkpointFile);
+        if (checkpoint.load(store)) {
+            System.out.println("Resumed from checkpoint at " + store.summary());
+        }
+        long startBlock = store.getLastBlock() + 1;
+
+        BlockIndexer indexer = new BlockIndexer(store, new BlockDecoder(chaincode), checkpoint, checkpointInterval);
+        try (BlockSource source = blocksFile != null
+                ? new RecordedBlockSource(blocksFile, startBlock)
+                : new GatewayBlockSource(gateway, startBlock, recordFile)) {
+            Thread worker = Thread.currentThread();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                indexer.stop(source);
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            long start = System.nanoTime();
+            long applied = indexer.run(source);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Applied %d blocks in %.2f s (%.0f blocks/s)%n", applied, seconds,
+                    seconds > 0 ? applied / seconds : 0);
+            System.out.println(store.summary());
+        }
+    }
+
+    // Returns the number of blocks applied; the store is checkpointed before returning
+    public long run(BlockSource source) throws IOException {
+        long applied = 0;
+        try {
+            while (!stopping) {
+                Block block = source.next();
+                if (block == null) {
+                    break;
+                }
+                store.apply(decoder.decode(block));
+                if (++applied % checkpointInterval == 0) {
+                    checkpoint.save(store);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closing the source is how stop unblocks a pending next()
+            if (!stopping) {
+                throw e;
+            }
+        } finally {
+            checkpoint.save(store);
+        }
+        return applied;
+    }
+
+    public void stop(BlockSource source) {
+        stopping = true;
+        try {
+            source.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close block source: " + e.getMessage());
+        }
+    }
+
+    private static String required(String option, String value) {
+        if (value == null) {
+            usage(option + " needs a value");
+        }
+        return value;
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: BlockIndexer [--blocks <file> | --peer localhost:7051 [--record <file>]]"
+                + " [--checkpoint indexer.checkpoint] [--checkpoint-interval 100] [--chaincode " + CHAINCODE_NAME + "]"
+                + " [--channel mychannel] [--msp-id Org1MSP] [--crypto-path <org dir>] [--user User1@org1.example.com]"
+                + " [--peer-host-alias peer0.org1.example.com]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,15 @@
+package org.energy.trading.indexer;
+
+import java.io.IOException;
+
+import org.hyperledger.fabric.protos.common.Block;
+
+// Committed blocks in order, starting from the block number the source was opened at
+public interface BlockSource extends AutoCloseable {
+
+    // Blocks until the next block is available; returns null when the source is exhausted
+    Block next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,118 @@
+package org.energy.trading.indexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.energy.trading.codec.CodecMode;
+import org.energy.trading.codec.LedgerCodec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Snapshot of a ProjectionStore in a memory-mapped file, so a restart resumes after the last block
+// applied instead of replaying the chain. Layout, big-endian:
+//
+//   int magic, int version, long lastBlock, int count, then count x (int keyLength, key UTF-8,
+//   int valueLength, value)
+//
+// Values use the contract's binary codec and are decoded straight from the mapping. A snapshot is
+// written to a sibling file, forced to disk and renamed over the previous one, so a crash mid-write
+// leaves the last complete checkpoint in place.
+public final class Checkpoint {
+
+    private static final int MAGIC = 0x45544958; // "ETIX"
+    private static final int VERSION = 2; // 2 adds the totals deltas
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+
+    private final Path path;
+    private final LedgerCodec codec = new LedgerCodec(new ObjectMapper());
+
+    public Checkpoint(Path path) {
+        this.path = path;
+    }
+
+    // Returns false when there is no checkpoint yet
+    public boolean load(ProjectionStore store) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not an indexer checkpoint");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + " in " + path);
+            }
+            long lastBlock = buffer.getLong();
+            int count = buffer.getInt();
+            byte[] key = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int keyLength = recordLength(buffer);
+                if (keyLength > key.length) {
+                    key = new byte[Math.max(keyLength, key.length * 2)];
+                }
+                buffer.get(key, 0, keyLength);
+
+                // The store decodes the value in place; only the slice's remaining bytes are read
+                int valueLength = recordLength(buffer);
+                ByteBuffer value = buffer.slice();
+                value.limit(valueLength);
+                store.restore(new String(key, 0, keyLength, StandardCharsets.UTF_8), value);
+                buffer.position(buffer.position() + valueLength);
+            }
+            store.setLastBlock(lastBlock);
+        }
+        return true;
+    }
+
+    private int recordLength(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining() >= Integer.BYTES ? buffer.getInt() : -1;
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Truncated checkpoint " + path);
+        }
+        return length;
+    }
+
+    public void save(ProjectionStore store) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long[] size = {HEADER_SIZE};
+        long lastBlock = store.getLastBlock();
+        store.forEachEntity((key, value) -> {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] valueBytes = codec.encode(value, CodecMode.BINARY);
+            records.add(keyBytes);
+            records.add(valueBytes);
+            size[0] += Integer.BYTES * 2 + keyBytes.length + valueBytes.length;
+        });
+
+        if (size[0] > Integer.MAX_VALUE) {
+            throw new IOException("Checkpoint of " + size[0] + " bytes exceeds a single mapping");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size[0]);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(lastBlock);
+            buffer.putInt(records.size() / 2);
+            for (byte[] record : records) {
+                buffer.putInt(record.length);
+                buffer.put(record);
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
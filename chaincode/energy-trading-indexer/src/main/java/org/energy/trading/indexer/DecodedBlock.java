@@ -0,0 +1,35 @@
+package org.energy.trading.indexer;
+
+import java.util.List;
+
+// The chaincode's writes from the valid transactions of one block, in commit order
+public final class DecodedBlock {
+
+    private final long number;
+    private final int transactionCount;
+    private final int validTransactionCount;
+    private final List<LedgerWrite> writes;
+
+    public DecodedBlock(long number, int transactionCount, int validTransactionCount, List<LedgerWrite> writes) {
+        this.number = number;
+        this.transactionCount = transactionCount;
+        this.validTransactionCount = validTransactionCount;
+        this.writes = writes;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public int getValidTransactionCount() {
+        return validTransactionCount;
+    }
+
+    public List<LedgerWrite> getWrites() {
+        return writes;
+    }
+}
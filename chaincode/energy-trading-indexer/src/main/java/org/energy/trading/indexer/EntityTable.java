@@ -0,0 +1,66 @@
+package org.energy.trading.indexer;
+
+import java.util.Arrays;
+
+// Entities of one type by their natural id (prosumerId, agreementId, eventId, tokenId), stored in
+// arrays indexed by a dense int id. Each entry remembers the ledger key it was last written under,
+// so a delete of an older key for the same entity (a keyspace move) does not drop the newer value.
+final class EntityTable<T> {
+
+    private final IdDictionary ids = new IdDictionary();
+    private Object[] values = new Object[64];
+    private String[] sourceKeys = new String[64];
+    private int count;
+
+    // Returns the int id of the entity, assigning one on first sight
+    int put(String id, String sourceKey, T value) {
+        int index = ids.intern(id);
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            sourceKeys = Arrays.copyOf(sourceKeys, sourceKeys.length * 2);
+        }
+        if (values[index] == null) {
+            count++;
+        }
+        values[index] = value;
+        sourceKeys[index] = sourceKey;
+        return index;
+    }
+
+    // Returns -1 when the entity is absent
+    int indexOf(String id) {
+        int index = ids.find(id);
+        return index >= 0 && values[index] != null ? index : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) values[index];
+    }
+
+    T get(String id) {
+        int index = indexOf(id);
+        return index >= 0 ? get(index) : null;
+    }
+
+    String sourceKey(int index) {
+        return sourceKeys[index];
+    }
+
+    void remove(int index) {
+        if (values[index] != null) {
+            values[index] = null;
+            sourceKeys[index] = null;
+            count--;
+        }
+    }
+
+    // Upper bound of the int ids handed out; slots below it may be empty
+    int capacity() {
+        return ids.size();
+    }
+
+    int size() {
+        return count;
+    }
+}
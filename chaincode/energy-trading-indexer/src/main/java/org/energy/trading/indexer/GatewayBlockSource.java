@@ -0,0 +1,94 @@
+package org.energy.trading.indexer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.Gateway;
+import org.hyperledger.fabric.client.identity.Identities;
+import org.hyperledger.fabric.client.identity.Identity;
+import org.hyperledger.fabric.client.identity.Signer;
+import org.hyperledger.fabric.client.identity.Signers;
+import org.hyperledger.fabric.client.identity.X509Identity;
+import org.hyperledger.fabric.protos.common.Block;
+
+import io.grpc.Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.TlsChannelCredentials;
+
+// Follows a channel's block events through a peer's Fabric Gateway. When a record file is given,
+// every block received is also appended to it for RecordedBlockSource to replay later.
+public final class GatewayBlockSource implements BlockSource {
+
+    private final ManagedChannel grpcChannel;
+    private final Gateway gateway;
+    private final CloseableIterator<Block> blocks;
+    private final OutputStream recording;
+
+    public GatewayBlockSource(GatewayConfig config, long startBlock, Path recordFile)
+            throws IOException, GeneralSecurityException {
+        grpcChannel = Grpc.newChannelBuilder(config.getEndpoint(),
+                        TlsChannelCredentials.newBuilder().trustManager(config.getTlsCertPath().toFile()).build())
+                .overrideAuthority(config.getHostAlias())
+                .build();
+        gateway = Gateway.newInstance()
+                .identity(readIdentity(config))
+                .signer(readSigner(config))
+                .connection(grpcChannel)
+                .connect();
+        blocks = gateway.getNetwork(config.getChannel())
+                .newBlockEventsRequest()
+                .startBlock(startBlock)
+                .build()
+                .getEvents();
+        recording = recordFile == null ? null : new BufferedOutputStream(Files.newOutputStream(recordFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public Block next() throws IOException {
+        if (!blocks.hasNext()) {
+            return null;
+        }
+        Block block = blocks.next();
+        if (recording != null) {
+            block.writeDelimitedTo(recording);
+            recording.flush();
+        }
+        return block;
+    }
+
+    @Override
+    public void close() throws IOException {
+        blocks.close();
+        gateway.close();
+        grpcChannel.shutdownNow();
+        try {
+            grpcChannel.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private static Identity readIdentity(GatewayConfig config) throws IOException, GeneralSecurityException {
+        try (Reader reader = Files.newBufferedReader(config.getCertPath())) {
+            return new X509Identity(config.getMspId(), Identities.readX509Certificate(reader));
+        }
+    }
+
+    private static Signer readSigner(GatewayConfig config) throws IOException, GeneralSecurityException {
+        try (Reader reader = Files.newBufferedReader(config.getKeyPath())) {
+            return Signers.newPrivateKeySigner(Identities.readPrivateKey(reader));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.energy.trading.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// Connection settings for GatewayBlockSource. Defaults match peer0 of Org1 in the test network
+// started by launch.sh, with cryptographic material under organizations/.
+public final class GatewayConfig {
+
+    private String endpoint = "localhost:7051";
+    private String hostAlias = "peer0.org1.example.com";
+    private String mspId = "Org1MSP";
+    private String channel = "mychannel";
+    private Path cryptoPath = Path.of("organizations", "peerOrganizations", "org1.example.com");
+    private String user = "User1@org1.example.com";
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getHostAlias() {
+        return hostAlias;
+    }
+
+    public String getMspId() {
+        return mspId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Path getTlsCertPath() {
+        return cryptoPath.resolve(Path.of("peers", hostAlias, "tls", "ca.crt"));
+    }
+
+    // cryptogen and fabric-ca name these files differently, so take the single file in each directory
+    public Path getCertPath() throws IOException {
+        return firstFile(cryptoPath.resolve(Path.of("users", user, "msp", "signcerts")));
+    }
+
+    public Path getKeyPath() throws IOException {
+        return firstFile(cryptoPath.resolve(Path.of("users", user, "msp", "keystore")));
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void setHostAlias(String hostAlias) {
+        this.hostAlias = hostAlias;
+    }
+
+    public void setMspId(String mspId) {
+        this.mspId = mspId;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public void setCryptoPath(Path cryptoPath) {
+        this.cryptoPath = cryptoPath;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    private static Path firstFile(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).findFirst()
+                    .orElseThrow(() -> new IOException("No file in " + directory));
+        }
+    }
+}
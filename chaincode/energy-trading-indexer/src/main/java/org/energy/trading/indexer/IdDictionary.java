@@ -0,0 +1,84 @@
+package org.energy.trading.indexer;
+
+import java.util.Arrays;
+
+// Assigns dense int ids to strings, so indexes can be keyed and valued by int instead of String.
+// Open addressing with linear probing; ids are never reused, which keeps every int handed out valid.
+final class IdDictionary {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int EMPTY = -1;
+
+    private String[] byId = new String[INITIAL_CAPACITY];
+    // Slot -> id, EMPTY when free; capacity is a power of two kept at most half full
+    private int[] slots = newSlots(INITIAL_CAPACITY * 2);
+    private int size;
+
+    // Returns the id of value, or -1 when it has none
+    int find(String value) {
+        int mask = slots.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (byId[id].equals(value)) {
+                return id;
+            }
+        }
+    }
+
+    int intern(String value) {
+        int mask = slots.length - 1;
+        int slot = hash(value) & mask;
+        for (; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (byId[slots[slot]].equals(value)) {
+                return slots[slot];
+            }
+        }
+
+        int id = size++;
+        if (id == byId.length) {
+            byId = Arrays.copyOf(byId, id * 2);
+        }
+        byId[id] = value;
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    String get(int id) {
+        return byId[id];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] grown = newSlots(slots.length * 2);
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(byId[id]) & mask;
+            while (grown[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id;
+        }
+        slots = grown;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    // Spreads String.hashCode, whose low bits are weak for ids sharing a prefix
+    private static int hash(String value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
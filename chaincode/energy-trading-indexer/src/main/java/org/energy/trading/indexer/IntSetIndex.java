@@ -0,0 +1,33 @@
+package org.energy.trading.indexer;
+
+import java.util.Arrays;
+
+// Secondary index from a dictionary id (prosumer, buyer, owner) to the entity ids that reference it.
+// Dictionary ids are dense, so the index is a plain array of sets rather than a hash map.
+final class IntSetIndex {
+
+    private static final IntSet EMPTY = new IntSet();
+
+    private IntSet[] sets = new IntSet[64];
+
+    void add(int key, int value) {
+        if (key >= sets.length) {
+            sets = Arrays.copyOf(sets, Math.max(key + 1, sets.length * 2));
+        }
+        if (sets[key] == null) {
+            sets[key] = new IntSet();
+        }
+        sets[key].add(value);
+    }
+
+    void remove(int key, int value) {
+        if (key >= 0 && key < sets.length && sets[key] != null) {
+            sets[key].remove(value);
+        }
+    }
+
+    // Never null; do not modify the returned set
+    IntSet get(int key) {
+        return key >= 0 && key < sets.length && sets[key] != null ? sets[key] : EMPTY;
+    }
+}
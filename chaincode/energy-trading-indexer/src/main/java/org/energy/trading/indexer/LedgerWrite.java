@@ -0,0 +1,25 @@
+package org.energy.trading.indexer;
+
+// One key written by a valid transaction; value is null for a delete
+public final class LedgerWrite {
+
+    private final String key;
+    private final byte[] value;
+
+    public LedgerWrite(String key, byte[] value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public boolean isDelete() {
+        return value == null;
+    }
+}
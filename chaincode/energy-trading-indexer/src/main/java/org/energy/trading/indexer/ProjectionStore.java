@@ -0,0 +1,418 @@
+package org.energy.trading.indexer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+import org.energy.trading.codec.LedgerCodec;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.SimplifiedPPA;
+import org.energy.trading.models.TotalsDelta;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// In-memory projection of the contract's prosumers, PPAs, generation events and credits, kept current
+// by applying each block's write set. Participant ids (prosumer, buyer, owner) share one dictionary,
+// so every secondary index maps an int to a sorted set of int entity ids.
+//
+// One writer applies whole blocks under the write lock; queries take the read lock and always see a
+// block boundary. Returned entities are shared with the store and must not be modified.
+//
+// Prosumer and PPA totals are kept as the contract keeps them: the base entity plus one delta per
+// transaction under entity~totals~tx. Reads add the live deltas to the base in key order, as getProsumer
+// and getPPA do, so the projected totals equal the contract's.
+public final class ProjectionStore {
+
+    // Keyspaces written by EnergyTradingContract; keep in step with its key constants
+    private static final String PROSUMER_PREFIX = "PROSUMER_";
+    private static final String PPA_PREFIX = "PPA_";
+    private static final String LEGACY_EVENT_PREFIX = "EVENT_"; // before migrateGenerationEvents
+    private static final String SPENT_CREDIT_PREFIX = "CREDIT_";
+    private static final String EVENT_INDEX = "prosumer~day~event";
+    private static final String AVAILABLE_CREDIT = "available~credit";
+    private static final String TOTALS_DELTA = "entity~totals~tx"; // (entity type, entity id, txId)
+    private static final String PPA_TOTALS = "PPA";
+    private static final String PROSUMER_TOTALS = "PROSUMER";
+    private static final char COMPOSITE_DELIMITER = '\u0000';
+
+    private final LedgerCodec codec = new LedgerCodec(new ObjectMapper());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdDictionary participants = new IdDictionary();
+    private final EntityTable<Prosumer> prosumers = new EntityTable<>();
+    private final EntityTable<SimplifiedPPA> ppas = new EntityTable<>();
+    private final EntityTable<GenerationEvent> events = new EntityTable<>();
+    private final EntityTable<EnergyCredit> credits = new EntityTable<>();
+
+    private final IntSetIndex ppasByProsumer = new IntSetIndex();
+    private final IntSetIndex ppasByBuyer = new IntSetIndex();
+    private final IntSetIndex eventsByProsumer = new IntSetIndex();
+    private final IntSetIndex creditsByProsumer = new IntSetIndex();
+    private final IntSetIndex creditsByOwner = new IntSetIndex();
+    private final BitSet availableCredits = new BitSet();
+
+    // Entity id -> its live totals deltas by ledger key
+    private final Map<String, NavigableMap<String, TotalsDelta>> ppaDeltas = new HashMap<>();
+    private final Map<String, NavigableMap<String, TotalsDelta>> prosumerDeltas = new HashMap<>();
+
+    private long lastBlock = -1;
+
+    public void apply(DecodedBlock block) {
+        lock.writeLock().lock();
+        try {
+            for (LedgerWrite write : block.getWrites()) {
+                apply(write.getKey(), write.isDelete() ? null : ByteBuffer.wrap(write.getValue()));
+            }
+            lastBlock = block.getNumber();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Number of the last block applied, -1 before the first
+    public long getLastBlock() {
+        lock.readLock().lock();
+        try {
+            return lastBlock;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Prosumer getProsumer(String prosumerId) {
+        lock.readLock().lock();
+        try {
+            Prosumer prosumer = prosumers.get(prosumerId);
+            return prosumer != null ? withTotals(prosumer) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SimplifiedPPA getPPA(String agreementId) {
+        lock.readLock().lock();
+        try {
+            SimplifiedPPA ppa = ppas.get(agreementId);
+            return ppa != null ? withTotals(ppa) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public EnergyCredit getCredit(String tokenId) {
+        lock.readLock().lock();
+        try {
+            return credits.get(tokenId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SimplifiedPPA> getPPAsByProsumer(String prosumerId) {
+        return lookup(ppasByProsumer, ppas, prosumerId, this::withTotals);
+    }
+
+    public List<SimplifiedPPA> getPPAsByBuyer(String buyerId) {
+        return lookup(ppasByBuyer, ppas, buyerId, this::withTotals);
+    }
+
+    // In the order the events were committed
+    public List<GenerationEvent> getEventsByProsumer(String prosumerId) {
+        return lookup(eventsByProsumer, events, prosumerId, UnaryOperator.identity());
+    }
+
+    public List<EnergyCredit> getCreditsByProsumer(String prosumerId) {
+        return lookup(creditsByProsumer, credits, prosumerId, UnaryOperator.identity());
+    }
+
+    public List<EnergyCredit> getCreditsByOwner(String ownerId) {
+        return lookup(creditsByOwner, credits, ownerId, UnaryOperator.identity());
+    }
+
+    // Oldest first, at most limit credits
+    public List<EnergyCredit> getAvailableCredits(int limit) {
+        lock.readLock().lock();
+        try {
+            List<EnergyCredit> result = new ArrayList<>(Math.min(limit, availableCredits.cardinality()));
+            for (int i = availableCredits.nextSetBit(0); i >= 0 && result.size() < limit;
+                 i = availableCredits.nextSetBit(i + 1)) {
+                result.add(credits.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String summary() {
+        lock.readLock().lock();
+        try {
+            return String.format("block %d: %d prosumers, %d PPAs, %d events, %d credits (%d available)",
+                    lastBlock, prosumers.size(), ppas.size(), events.size(), credits.size(),
+                    availableCredits.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits every entity and totals delta with the ledger key it was last written under; used to write
+    // checkpoints
+    void forEachEntity(BiConsumer<String, Object> visitor) {
+        lock.readLock().lock();
+        try {
+            visitAll(prosumers, visitor);
+            visitAll(ppas, visitor);
+            visitAll(events, visitor);
+            visitAll(credits, visitor);
+            visitDeltas(prosumerDeltas, visitor);
+            visitDeltas(ppaDeltas, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reloads one checkpointed entity; the checkpoint stores values in the same encodings as the ledger.
+    // The value is decoded from the buffer's remaining bytes, in place.
+    void restore(String key, ByteBuffer value) {
+        lock.writeLock().lock();
+        try {
+            apply(key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void setLastBlock(long blockNumber) {
+        lock.writeLock().lock();
+        try {
+            lastBlock = blockNumber;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(String key, ByteBuffer value) {
+        if (key.startsWith(PROSUMER_PREFIX)) {
+            applyProsumer(key, value);
+        } else if (key.startsWith(PPA_PREFIX)) {
+            applyPPA(key, value);
+        } else if (key.startsWith(LEGACY_EVENT_PREFIX)) {
+            applyEvent(key, value);
+        } else if (key.startsWith(SPENT_CREDIT_PREFIX)) {
+            applyCredit(key, value);
+        } else if (isComposite(key, EVENT_INDEX)) {
+            applyEvent(key, value);
+        } else if (isComposite(key, AVAILABLE_CREDIT)) {
+            applyCredit(key, value);
+        } else if (isComposite(key, TOTALS_DELTA)) {
+            applyTotalsDelta(key, value);
+        }
+        // Other keyspaces (indexes, rollups, orders, configuration) are not projected
+    }
+
+    private void applyProsumer(String key, ByteBuffer value) {
+        String prosumerId = key.substring(PROSUMER_PREFIX.length());
+        if (value == null) {
+            int index = prosumers.indexOf(prosumerId);
+            if (index >= 0) {
+                prosumers.remove(index);
+            }
+            return;
+        }
+        Prosumer prosumer = codec.decode(value, Prosumer.class);
+        participants.intern(prosumerId);
+        prosumers.put(prosumerId, key, prosumer);
+    }
+
+    private void applyPPA(String key, ByteBuffer value) {
+        String agreementId = key.substring(PPA_PREFIX.length());
+        int index = ppas.indexOf(agreementId);
+        if (index >= 0) {
+            SimplifiedPPA previous = ppas.get(index);
+            ppasByProsumer.remove(participants.find(previous.getProsumerId()), index);
+            ppasByBuyer.remove(participants.find(previous.getBuyerId()), index);
+            ppas.remove(index);
+        }
+        if (value == null) {
+            return;
+        }
+
+        SimplifiedPPA ppa = codec.decode(value, SimplifiedPPA.class);
+        index = ppas.put(agreementId, key, ppa);
+        ppasByProsumer.add(participants.intern(ppa.getProsumerId()), index);
+        ppasByBuyer.add(participants.intern(ppa.getBuyerId()), index);
+    }
+
+    // Events are written once, but migrateGenerationEvents moves them between keyspaces
+    private void applyEvent(String key, ByteBuffer value) {
+        if (value == null) {
+            int index = indexWrittenAt(events, key);
+            if (index >= 0) {
+                eventsByProsumer.remove(participants.find(events.get(index).getProsumerId()), index);
+                events.remove(index);
+            }
+            return;
+        }
+
+        GenerationEvent event = codec.decode(value, GenerationEvent.class);
+        int index = events.put(event.getEventId(), key, event);
+        eventsByProsumer.add(participants.intern(event.getProsumerId()), index);
+    }
+
+    // A credit moves between available~credit and CREDIT_ as it is consumed or re-listed, and the
+    // contract clears the old key in the same transaction; that delete is ignored once the move is applied.
+    private void applyCredit(String key, ByteBuffer value) {
+        if (value == null) {
+            int index = indexWrittenAt(credits, key);
+            if (index >= 0) {
+                unindexCredit(index);
+                credits.remove(index);
+            }
+            return;
+        }
+
+        EnergyCredit credit = codec.decode(value, EnergyCredit.class);
+        int index = credits.indexOf(credit.getTokenId());
+        if (index >= 0) {
+            unindexCredit(index);
+        }
+        index = credits.put(credit.getTokenId(), key, credit);
+        creditsByProsumer.add(participants.intern(credit.getProsumerId()), index);
+        creditsByOwner.add(participants.intern(credit.getOwnerId()), index);
+        availableCredits.set(index, credit.isAvailable());
+    }
+
+    // Deltas are written once per transaction and deleted when compactTotals folds them into a new one
+    private void applyTotalsDelta(String key, ByteBuffer value) {
+        String[] attributes = key.substring(TOTALS_DELTA.length() + 2, key.length() - 1)
+                .split(String.valueOf(COMPOSITE_DELIMITER), -1);
+        if (attributes.length != 3) {
+            return;
+        }
+        Map<String, NavigableMap<String, TotalsDelta>> deltas;
+        if (PPA_TOTALS.equals(attributes[0])) {
+            deltas = ppaDeltas;
+        } else if (PROSUMER_TOTALS.equals(attributes[0])) {
+            deltas = prosumerDeltas;
+        } else {
+            return;
+        }
+
+        String entityId = attributes[1];
+        if (value == null) {
+            NavigableMap<String, TotalsDelta> entityDeltas = deltas.get(entityId);
+            if (entityDeltas != null && entityDeltas.remove(key) != null && entityDeltas.isEmpty()) {
+                deltas.remove(entityId);
+            }
+            return;
+        }
+        deltas.computeIfAbsent(entityId, id -> new TreeMap<>()).put(key, codec.decode(value, TotalsDelta.class));
+    }
+
+    private void unindexCredit(int index) {
+        EnergyCredit previous = credits.get(index);
+        creditsByProsumer.remove(participants.find(previous.getProsumerId()), index);
+        creditsByOwner.remove(participants.find(previous.getOwnerId()), index);
+        availableCredits.clear(index);
+    }
+
+    // The entity whose id is the key's last segment, if it still lives at that key
+    private static int indexWrittenAt(EntityTable<?> table, String key) {
+        int index = table.indexOf(lastSegment(key));
+        return index >= 0 && key.equals(table.sourceKey(index)) ? index : -1;
+    }
+
+    // Base plus deltas, summed in the order the contract reads them; the stored entity is returned when
+    // there are no deltas
+    private Prosumer withTotals(Prosumer prosumer) {
+        NavigableMap<String, TotalsDelta> deltas = prosumerDeltas.get(prosumer.getProsumerId());
+        if (deltas == null) {
+            return prosumer;
+        }
+        TotalsDelta totals = sum(deltas);
+        Prosumer copy = new Prosumer(prosumer.getProsumerId(), prosumer.getName(), prosumer.getLocation(),
+                prosumer.getSolarCapacityKW(), prosumer.getOrganizationMSP());
+        copy.setTotalEnergyGenerated(prosumer.getTotalEnergyGenerated() + totals.getEnergyGenerated());
+        return copy;
+    }
+
+    private SimplifiedPPA withTotals(SimplifiedPPA ppa) {
+        NavigableMap<String, TotalsDelta> deltas = ppaDeltas.get(ppa.getAgreementId());
+        if (deltas == null) {
+            return ppa;
+        }
+        TotalsDelta totals = sum(deltas);
+        SimplifiedPPA copy = new SimplifiedPPA(ppa.getAgreementId(), ppa.getProsumerId(), ppa.getBuyerId(),
+                ppa.getTariffPerKWh(), ppa.getStartDate(), ppa.getEndDate());
+        copy.setTotalEnergyGenerated(ppa.getTotalEnergyGenerated() + totals.getEnergyGenerated());
+        copy.setTotalTokensIssued(ppa.getTotalTokensIssued() + totals.getTokensIssued());
+        copy.setTotalInvoiceValue(ppa.getTotalInvoiceValue() + totals.getInvoiceValue());
+        return copy;
+    }
+
+    private static TotalsDelta sum(NavigableMap<String, TotalsDelta> deltas) {
+        TotalsDelta sum = new TotalsDelta();
+        for (TotalsDelta delta : deltas.values()) {
+            sum.add(delta);
+        }
+        return sum;
+    }
+
+    private <T> List<T> lookup(IntSetIndex index, EntityTable<T> table, String participantId, UnaryOperator<T> view) {
+        lock.readLock().lock();
+        try {
+            IntSet ids = index.get(participants.find(participantId));
+            List<T> result = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                result.add(view.apply(table.get(ids.get(i))));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <T> void visitAll(EntityTable<T> table, BiConsumer<String, Object> visitor) {
+        for (int i = 0; i < table.capacity(); i++) {
+            T value = table.get(i);
+            if (value != null) {
+                visitor.accept(table.sourceKey(i), value);
+            }
+        }
+    }
+
+    private static void visitDeltas(Map<String, NavigableMap<String, TotalsDelta>> deltas,
+                                    BiConsumer<String, Object> visitor) {
+        for (NavigableMap<String, TotalsDelta> entityDeltas : deltas.values()) {
+            entityDeltas.forEach(visitor);
+        }
+    }
+
+    // Composite keys are \u0000objectType\u0000attr1\u0000...\u0000attrN\u0000
+    private static boolean isComposite(String key, String objectType) {
+        return key.length() > objectType.length() + 1
+                && key.charAt(0) == COMPOSITE_DELIMITER
+                && key.startsWith(objectType, 1)
+                && key.charAt(objectType.length() + 1) == COMPOSITE_DELIMITER;
+    }
+
+    // The id at the end of a plain key (PREFIX_id) or the last attribute of a composite key
+    private static String lastSegment(String key) {
+        if (key.charAt(0) != COMPOSITE_DELIMITER) {
+            return key.substring(key.indexOf('_') + 1);
+        }
+        int end = key.length() - 1;
+        return key.substring(key.lastIndexOf(COMPOSITE_DELIMITER, end - 1) + 1, end);
+    }
+}
@@ -0,0 +1,425 @@
+package org.energy.trading.indexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.energy.trading.benchmarks.ClientIdentities;
+import org.energy.trading.contracts.EnergyTradingContract;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.SimplifiedPPA;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockData;
+import org.hyperledger.fabric.protos.common.BlockHeader;
+import org.hyperledger.fabric.protos.common.BlockMetadata;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ChaincodeEndorsedAction;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.Transaction;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+
+// Runs the contract on an in-memory stub, records every transaction's writes as the blocks a peer would
+// commit, replays them through RecordedBlockSource and compares the projection with the contract's queries
+class BlockIndexerTest {
+
+    private static final String CHAINCODE_NAME = "energy-trading-chaincode";
+    private static final String PROSUMER_1 = "PROSUMER001";
+    private static final String PROSUMER_2 = "PROSUMER002";
+    private static final String BUYER = "BUYER001";
+    private static final List<String> OWNERS = Arrays.asList(PROSUMER_1, PROSUMER_2, BUYER);
+    private static final int CHECKPOINT_INTERVAL = 5;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EnergyTradingContract contract = new EnergyTradingContract();
+    private final RecordingChaincodeStub stub = new RecordingChaincodeStub("ProsumerMSP");
+    private final List<Block> blocks = new ArrayList<>();
+    private final List<NavigableMap<String, byte[]>> pendingWrites = new ArrayList<>();
+    private final List<Integer> pendingCodes = new ArrayList<>();
+    private long txCounter;
+    private String oldCredit;
+
+    @BeforeEach
+    void recordLedger() throws Exception {
+        execute(context -> contract.registerProsumer(context, PROSUMER_1, "Solar Site 1", "Pune, Maharashtra",
+                100.0, "ProsumerMSP"));
+        execute(context -> contract.registerProsumer(context, PROSUMER_2, "Solar Site 2", "Nagpur, Maharashtra",
+                50.0, "ProsumerMSP"));
+        execute(context -> contract.createPPA(context, "PPA001", PROSUMER_1, "UTILITY001", 4.5,
+                "2025-01-01", "2030-12-31"));
+
+        // A PPA stored before the prosumer~buyer index existed, which migratePPAIndex re-keys
+        SimplifiedPPA legacyPPA = new SimplifiedPPA("LEGACY001", PROSUMER_2, "CORPORATE002", 4.0,
+                "2024-01-01", "2030-12-31");
+        execute(context -> write("PPA_" + legacyPPA.getAgreementId(), legacyPPA));
+
+        String credit1 = generate(PROSUMER_1, "METER001", 12.5, "2025-06-01T10:00:00.000+0530", "UTILITY001");
+        // No PPA between these two yet, so the first reading creates one
+        String credit2 = generate(PROSUMER_2, "METER002", 8.0, "2025-06-01T10:00:00.000+0530", "CORPORATE001");
+        String readings = objectMapper.writeValueAsString(Arrays.asList(
+                reading(PROSUMER_1, "METER001", 3.25, "2025-06-01T11:00:00.000+0530", "UTILITY001"),
+                reading(PROSUMER_1, "METER003", 7.75, "2025-06-01T11:00:00.000+0530", "UTILITY001"),
+                reading(PROSUMER_2, "METER002", 4.5, "2025-06-01T11:00:00.000+0530", "CORPORATE001")));
+        execute(Collections.singletonMap("readings", readings.getBytes(StandardCharsets.UTF_8)),
+                contract::processElectricityGenerationBatch);
+        // Older than the retention window once the ledger reaches June
+        oldCredit = generate(PROSUMER_1, "METER001", 5.0, "2025-01-15T10:00:00.000+0530", "UTILITY001");
+        generate(PROSUMER_1, "METER003", 6.0, "2025-01-16T10:00:00.000+0530", "UTILITY001");
+
+        // An MVCC conflict in the same block as a valid transaction; the peer discards its writes
+        run(context -> contract.processElectricityGeneration(context, PROSUMER_2, 1.5, "METER002",
+                "2025-06-01T12:00:00.000+0530", "CORPORATE001"));
+        NavigableMap<String, byte[]> conflicting = new TreeMap<>();
+        conflicting.put("PROSUMER_PROSUMER009", objectMapper.writeValueAsBytes(
+                new Prosumer("PROSUMER009", "Never committed", "Pune, Maharashtra", 10.0, "ProsumerMSP")));
+        conflicting.put("PROSUMER_" + PROSUMER_1, null);
+        pendingWrites.add(conflicting);
+        pendingCodes.add(TxValidationCode.MVCC_READ_CONFLICT_VALUE);
+        cutBlock();
+
+        // Legacy events and PPA keys, then the migrations that move them
+        GenerationEvent legacyEvent = new GenerationEvent(PROSUMER_2 + "_legacy1", PROSUMER_2, "METER002", 2.0,
+                "2025-05-20T10:00:00.000+0530", "LEGACY001", 2.0, 8.0);
+        execute(context -> write("EVENT_" + legacyEvent.getEventId(), legacyEvent));
+        stub.setCreator(ClientIdentities.admin("ProsumerMSP"));
+        execute(context -> contract.migratePPAIndex(context, 100, ""));
+        execute(context -> contract.migrateGenerationEvents(context, 100));
+        stub.setCreator(ClientIdentities.serialized("ProsumerMSP"));
+        String credit3 = generate(PROSUMER_2, "METER004", 3.0, "2025-06-02T10:00:00.000+0530", "CORPORATE002");
+
+        // A full fill spends the old credit; a partial fill splits a spent credit off for the buyer and the
+        // rest of the ask stays listed
+        stub.setCreator(ClientIdentities.participant("ProsumerMSP", PROSUMER_1));
+        execute(context -> contract.placeAsk(context, oldCredit, 3.0));
+        execute(context -> contract.placeAsk(context, credit1, 4.0));
+        stub.setCreator(ClientIdentities.participant("BuyerMSP", BUYER));
+        execute(context -> contract.placeBid(context, BUYER, 5.0, 5.0));
+        execute(context -> contract.placeBid(context, BUYER, 5.0, 5.0));
+
+        // A split transfer and a whole one
+        stub.setCreator(ClientIdentities.participant("ProsumerMSP", PROSUMER_2));
+        execute(context -> contract.transferCredit(context, credit2, PROSUMER_1, 2.5));
+        execute(context -> contract.transferCredit(context, credit3, BUYER, 3.0));
+
+        // Compaction and archiving are admin transactions
+        stub.setCreator(ClientIdentities.admin("ProsumerMSP"));
+        execute(context -> contract.compactTotals(context, "PPA", "PPA001", 100));
+        execute(context -> contract.compactTotals(context, "PROSUMER", PROSUMER_1, 100));
+        // Folds the deltas written after the first compaction into a second one
+        generate(PROSUMER_1, "METER001", 1.25, "2025-06-03T10:00:00.000+0530", "UTILITY001");
+        execute(context -> contract.compactTotals(context, "PPA", "PPA001", 100));
+
+        int archived = execute(context -> contract.archiveGenerationEvents(context, PROSUMER_1, 100));
+        assertEquals(2, archived);
+    }
+
+    @Test
+    void replaysTheLedgerToTheStateTheContractReturns() throws Exception {
+        ProjectionStore store = new ProjectionStore();
+        Path checkpointFile = directory.resolve("indexer.checkpoint");
+
+        assertEquals(blocks.size(), replay(store, new Checkpoint(checkpointFile), recordBlocks(blocks), 0));
+
+        assertEquals(blocks.size() - 1, store.getLastBlock());
+        assertMatchesContract(store);
+        // The conflicting transaction's writes were skipped
+        assertNull(store.getProsumer("PROSUMER009"));
+        // Archiving deleted the spent credit with its event
+        assertNull(store.getCredit(oldCredit));
+        assertTrue(Files.exists(checkpointFile));
+    }
+
+    @Test
+    void reloadsACheckpointToTheSameState() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(directory.resolve("indexer.checkpoint"));
+        replay(new ProjectionStore(), checkpoint, recordBlocks(blocks), 0);
+
+        ProjectionStore restored = new ProjectionStore();
+        assertTrue(checkpoint.load(restored));
+
+        assertEquals(blocks.size() - 1, restored.getLastBlock());
+        assertMatchesContract(restored);
+    }
+
+    @Test
+    void resumesAfterTheCheckpointedBlock() throws Exception {
+        Checkpoint checkpoint = new Checkpoint(directory.resolve("indexer.checkpoint"));
+        int half = blocks.size() / 2;
+        replay(new ProjectionStore(), checkpoint, recordBlocks(blocks.subList(0, half)), 0);
+
+        ProjectionStore resumed = new ProjectionStore();
+        assertTrue(checkpoint.load(resumed));
+        assertEquals(half - 1, resumed.getLastBlock());
+        long applied = replay(resumed, checkpoint, recordBlocks(blocks), resumed.getLastBlock() + 1);
+
+        assertEquals(blocks.size() - half, applied);
+        assertMatchesContract(resumed);
+    }
+
+    @Test
+    void rejectsATruncatedCheckpoint() throws Exception {
+        Path checkpointFile = directory.resolve("indexer.checkpoint");
+        replay(new ProjectionStore(), new Checkpoint(checkpointFile), recordBlocks(blocks), 0);
+        byte[] saved = Files.readAllBytes(checkpointFile);
+        Files.write(checkpointFile, Arrays.copyOf(saved, saved.length - 3));
+
+        assertThrows(IOException.class, () -> new Checkpoint(checkpointFile).load(new ProjectionStore()));
+    }
+
+    private long replay(ProjectionStore store, Checkpoint checkpoint, Path blocksFile, long startBlock)
+            throws IOException {
+        BlockIndexer indexer = new BlockIndexer(store, new BlockDecoder(CHAINCODE_NAME), checkpoint,
+                CHECKPOINT_INTERVAL);
+        try (RecordedBlockSource source = new RecordedBlockSource(blocksFile, startBlock)) {
+            return indexer.run(source);
+        }
+    }
+
+    private void assertMatchesContract(ProjectionStore store) throws IOException {
+        for (String prosumerId : Arrays.asList(PROSUMER_1, PROSUMER_2)) {
+            Prosumer expected = query(context -> contract.getProsumer(context, prosumerId));
+            Prosumer actual = store.getProsumer(prosumerId);
+            assertNotNull(actual);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getOrganizationMSP(), actual.getOrganizationMSP());
+            assertEquals(expected.getTotalEnergyGenerated(), actual.getTotalEnergyGenerated());
+
+            String events = query(context -> contract.getGenerationEvents(context, prosumerId));
+            assertEquals(eventIds(objectMapper.readTree(events)), eventIds(store.getEventsByProsumer(prosumerId)));
+        }
+
+        int ppaCount = 0;
+        for (KeyValue result : stub.getStateByRange("PPA_", "PPA_~")) {
+            String agreementId = result.getKey().substring("PPA_".length());
+            SimplifiedPPA expected = query(context -> contract.getPPA(context, agreementId));
+            SimplifiedPPA actual = store.getPPA(agreementId);
+            assertNotNull(actual);
+            assertEquals(expected.getProsumerId(), actual.getProsumerId());
+            assertEquals(expected.getBuyerId(), actual.getBuyerId());
+            assertEquals(expected.getTotalEnergyGenerated(), actual.getTotalEnergyGenerated());
+            assertEquals(expected.getTotalTokensIssued(), actual.getTotalTokensIssued());
+            assertEquals(expected.getTotalInvoiceValue(), actual.getTotalInvoiceValue());
+            assertTrue(store.getPPAsByProsumer(expected.getProsumerId()).stream()
+                    .anyMatch(ppa -> ppa.getAgreementId().equals(agreementId)
+                            && ppa.getTotalEnergyGenerated() == expected.getTotalEnergyGenerated()));
+            ppaCount++;
+        }
+        // PPA001, LEGACY001 and the one created for PROSUMER002's first CORPORATE001 reading
+        assertEquals(3, ppaCount);
+
+        for (String ownerId : OWNERS) {
+            String page = query(context -> contract.getCreditsByOwner(context, ownerId, 100, ""));
+            assertEquals(credits(objectMapper.readTree(page).get("records")), credits(store.getCreditsByOwner(ownerId)));
+        }
+        assertEquals(credits(objectMapper.readTree(query(contract::getAvailableTokens))),
+                credits(store.getAvailableCredits(Integer.MAX_VALUE)));
+    }
+
+    // Runs one transaction as its own block
+    private <T> T execute(Function<Context, T> transaction) {
+        return execute(Collections.emptyMap(), transaction);
+    }
+
+    private <T> T execute(Map<String, byte[]> transientData, Function<Context, T> transaction) {
+        T result = run(transientData, transaction);
+        cutBlock();
+        return result;
+    }
+
+    private <T> T run(Function<Context, T> transaction) {
+        return run(Collections.emptyMap(), transaction);
+    }
+
+    // Runs one transaction through the hooks the contract router calls and queues its writes for the next block
+    private <T> T run(Map<String, byte[]> transientData, Function<Context, T> transaction) {
+        long tx = ++txCounter;
+        stub.beginTransaction("tx" + tx, Instant.ofEpochSecond(1_748_750_000L + tx), transientData);
+        Context context = contract.createContext(stub);
+        contract.beforeTransaction(context);
+        T result = transaction.apply(context);
+        contract.afterTransaction(context, result);
+        pendingWrites.add(stub.takeWrites());
+        pendingCodes.add(TxValidationCode.VALID_VALUE);
+        return result;
+    }
+
+    // Evaluates a query, which must not write
+    private <T> T query(Function<Context, T> query) {
+        stub.beginTransaction("query" + txCounter, Instant.ofEpochSecond(1_748_750_000L + txCounter),
+                Collections.emptyMap());
+        T result = query.apply(contract.createContext(stub));
+        assertTrue(stub.takeWrites().isEmpty());
+        return result;
+    }
+
+    // Returns the credit's token id
+    private String generate(String prosumerId, String meterId, double generatedKWh, String timestamp,
+                            String buyerId) throws IOException {
+        String result = execute(context -> contract.processElectricityGeneration(context, prosumerId, generatedKWh,
+                meterId, timestamp, buyerId));
+        return objectMapper.readTree(result).get("tokenId").asText();
+    }
+
+    // A raw write, as older contract versions made them
+    private Void write(String key, Object value) {
+        try {
+            stub.putState(key, objectMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return null;
+    }
+
+    private void cutBlock() {
+        Block.Builder block = Block.newBuilder()
+                .setHeader(BlockHeader.newBuilder().setNumber(blocks.size()));
+        BlockData.Builder data = BlockData.newBuilder();
+        byte[] filter = new byte[pendingWrites.size()];
+        for (int i = 0; i < pendingWrites.size(); i++) {
+            data.addData(envelope(pendingWrites.get(i)));
+            filter[i] = pendingCodes.get(i).byteValue();
+        }
+        // SIGNATURES, LAST_CONFIG, then TRANSACTIONS_FILTER
+        blocks.add(block.setData(data)
+                .setMetadata(BlockMetadata.newBuilder()
+                        .addMetadata(ByteString.EMPTY)
+                        .addMetadata(ByteString.EMPTY)
+                        .addMetadata(ByteString.copyFrom(filter)))
+                .build());
+        pendingWrites.clear();
+        pendingCodes.clear();
+    }
+
+    private static ByteString envelope(NavigableMap<String, byte[]> writes) {
+        KVRWSet.Builder writeSet = KVRWSet.newBuilder();
+        for (Map.Entry<String, byte[]> write : writes.entrySet()) {
+            KVWrite.Builder kvWrite = KVWrite.newBuilder().setKey(write.getKey());
+            if (write.getValue() == null) {
+                kvWrite.setIsDelete(true);
+            } else {
+                kvWrite.setValue(ByteString.copyFrom(write.getValue()));
+            }
+            writeSet.addWrites(kvWrite);
+        }
+        TxReadWriteSet readWriteSet = TxReadWriteSet.newBuilder()
+                .addNsRwset(NsReadWriteSet.newBuilder().setNamespace("_lifecycle").setRwset(ByteString.EMPTY))
+                .addNsRwset(NsReadWriteSet.newBuilder().setNamespace(CHAINCODE_NAME).setRwset(writeSet.build().toByteString()))
+                .build();
+        ProposalResponsePayload response = ProposalResponsePayload.newBuilder()
+                .setExtension(ChaincodeAction.newBuilder().setResults(readWriteSet.toByteString()).build().toByteString())
+                .build();
+        ChaincodeActionPayload actionPayload = ChaincodeActionPayload.newBuilder()
+                .setAction(ChaincodeEndorsedAction.newBuilder().setProposalResponsePayload(response.toByteString()))
+                .build();
+        Transaction transaction = Transaction.newBuilder()
+                .addActions(TransactionAction.newBuilder().setPayload(actionPayload.toByteString()))
+                .build();
+        ChannelHeader channelHeader = ChannelHeader.newBuilder()
+                .setType(HeaderType.ENDORSER_TRANSACTION_VALUE)
+                .build();
+        Payload payload = Payload.newBuilder()
+                .setHeader(Header.newBuilder().setChannelHeader(channelHeader.toByteString()))
+                .setData(transaction.toByteString())
+                .build();
+        return Envelope.newBuilder().setPayload(payload.toByteString()).build().toByteString();
+    }
+
+    // Length-delimited, as GatewayBlockSource records them
+    private Path recordBlocks(List<Block> recorded) throws IOException {
+        Path file = Files.createTempFile(directory, "recorded", ".blocks");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (Block block : recorded) {
+                block.writeDelimitedTo(out);
+            }
+        }
+        return file;
+    }
+
+    private static Map<String, Object> reading(String prosumerId, String meterId, double generatedKWh,
+                                               String timestamp, String buyerId) {
+        Map<String, Object> reading = new TreeMap<>();
+        reading.put("prosumerId", prosumerId);
+        reading.put("meterId", meterId);
+        reading.put("generatedKWh", generatedKWh);
+        reading.put("timestamp", timestamp);
+        reading.put("buyerId", buyerId);
+        return reading;
+    }
+
+    private static TreeSet<String> eventIds(JsonNode events) {
+        TreeSet<String> ids = new TreeSet<>();
+        for (JsonNode event : events) {
+            ids.add(event.get("eventId").asText());
+        }
+        return ids;
+    }
+
+    private static TreeSet<String> eventIds(List<GenerationEvent> events) {
+        TreeSet<String> ids = new TreeSet<>();
+        for (GenerationEvent event : events) {
+            ids.add(event.getEventId());
+        }
+        return ids;
+    }
+
+    // tokenId -> "ownerId energyAmount available", which is what moves as credits trade
+    private static Map<String, String> credits(JsonNode credits) {
+        Map<String, String> result = new TreeMap<>();
+        for (JsonNode credit : credits) {
+            result.put(credit.get("tokenId").asText(), credit.get("ownerId").asText() + " "
+                    + credit.get("energyAmount").asDouble() + " " + credit.get("available").asBoolean());
+        }
+        return result;
+    }
+
+    private static Map<String, String> credits(List<EnergyCredit> credits) {
+        Map<String, String> result = new TreeMap<>();
+        for (EnergyCredit credit : credits) {
+            result.put(credit.getTokenId(), credit.getOwnerId() + " " + credit.getEnergyAmount() + " "
+                    + credit.isAvailable());
+        }
+        return result;
+    }
+}
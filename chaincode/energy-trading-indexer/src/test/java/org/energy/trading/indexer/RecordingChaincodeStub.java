@@ -0,0 +1,36 @@
+package org.energy.trading.indexer;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.energy.trading.benchmarks.InMemoryChaincodeStub;
+
+// Keeps each transaction's writes as the peer's write set would: one entry per key, sorted, the last
+// write winning, and null for a delete
+final class RecordingChaincodeStub extends InMemoryChaincodeStub {
+
+    private NavigableMap<String, byte[]> writes = new TreeMap<>();
+
+    RecordingChaincodeStub(String mspId) {
+        super(mspId);
+    }
+
+    @Override
+    public void putState(String key, byte[] value) {
+        super.putState(key, value);
+        writes.put(key, value);
+    }
+
+    @Override
+    public void delState(String key) {
+        super.delState(key);
+        writes.put(key, null);
+    }
+
+    // The writes since the last call
+    NavigableMap<String, byte[]> takeWrites() {
+        NavigableMap<String, byte[]> taken = writes;
+        writes = new TreeMap<>();
+        return taken;
+    }
+}
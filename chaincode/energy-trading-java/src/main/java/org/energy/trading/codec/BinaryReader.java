@@ -0,0 +1,69 @@
+package org.energy.trading.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Reads from the buffer's position to its limit; the buffer may be a heap array or a mapped file
+final class BinaryReader {
+
+    private final ByteBuffer buffer;
+
+    BinaryReader(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    int readByte() {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    long readVarInt() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CodecException("Malformed varint at offset " + buffer.position());
+    }
+
+    long readZigZagLong() {
+        long raw = readVarInt();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    double readDouble() {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    String readString() {
+        long length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        int size = (int) (length - 1);
+        require(size);
+        if (buffer.hasArray()) {
+            int position = buffer.position();
+            buffer.position(position + size);
+            return new String(buffer.array(), buffer.arrayOffset() + position, size, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[size];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void require(int size) {
+        if (size < 0 || size > buffer.remaining()) {
+            throw new CodecException("Truncated value at offset " + buffer.position());
+        }
+    }
+}
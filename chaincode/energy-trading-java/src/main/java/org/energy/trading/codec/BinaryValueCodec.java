@@ -0,0 +1,448 @@
+package org.energy.trading.codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.energy.trading.models.ArchiveManifest;
+import org.energy.trading.models.AuctionResult;
+import org.energy.trading.models.CommercialDetail;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.EventArchive;
+import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.GenerationResult;
+import org.energy.trading.models.Order;
+import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.SimplifiedPPA;
+import org.energy.trading.models.TariffRate;
+import org.energy.trading.models.TariffSchedule;
+import org.energy.trading.models.TotalsDelta;
+import org.energy.trading.models.Trade;
+
+// Compact positional encoding: [format version][type tag][fields in declaration order], no field names.
+// A new field layout gets a new FORMAT_VERSION; decoders keep accepting the older ones.
+public class BinaryValueCodec implements ValueCodec {
+
+    // Never '{' or whitespace, so a leading byte tells binary and JSON values apart.
+    // Version 2 appends GenerationEvent.timestampMillis.
+    public static final int FORMAT_VERSION = 2;
+    private static final int MIN_FORMAT_VERSION = 1;
+
+    private static final int PROSUMER = 1;
+    private static final int PPA = 2;
+    private static final int GENERATION_EVENT = 3;
+    private static final int ENERGY_CREDIT = 4;
+    private static final int TOTALS_DELTA = 5;
+    private static final int ORDER = 6;
+    private static final int TRADE = 7;
+    private static final int AUCTION_RESULT = 8;
+    private static final int GENERATION_RESULT = 9;
+    private static final int COMMERCIAL_DETAIL = 10;
+    private static final int EVENT_ARCHIVE = 11;
+    private static final int ARCHIVE_MANIFEST = 12;
+    private static final int TARIFF_SCHEDULE = 13;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    // Each endorsement thread reuses one scratch buffer; only the exact-size result is allocated per value
+    private static final ThreadLocal<BinaryWriter> WRITER =
+            ThreadLocal.withInitial(() -> new BinaryWriter(INITIAL_BUFFER_SIZE));
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && isFormatVersion(bytes[0]);
+    }
+
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.hasRemaining() && isFormatVersion(buffer.get(buffer.position()));
+    }
+
+    private static boolean isFormatVersion(byte first) {
+        return first >= MIN_FORMAT_VERSION && first <= FORMAT_VERSION;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        BinaryWriter writer = WRITER.get();
+        writer.reset();
+        writer.writeByte(FORMAT_VERSION);
+
+        if (value instanceof Prosumer) {
+            writer.writeByte(PROSUMER);
+            writeProsumer(writer, (Prosumer) value);
+        } else if (value instanceof SimplifiedPPA) {
+            writer.writeByte(PPA);
+            writePPA(writer, (SimplifiedPPA) value);
+        } else if (value instanceof GenerationEvent) {
+            writer.writeByte(GENERATION_EVENT);
+            writeGenerationEvent(writer, (GenerationEvent) value);
+        } else if (value instanceof EnergyCredit) {
+            writer.writeByte(ENERGY_CREDIT);
+            writeEnergyCredit(writer, (EnergyCredit) value);
+        } else if (value instanceof TotalsDelta) {
+            writer.writeByte(TOTALS_DELTA);
+            writeTotalsDelta(writer, (TotalsDelta) value);
+        } else if (value instanceof Order) {
+            writer.writeByte(ORDER);
+            writeOrder(writer, (Order) value);
+        } else if (value instanceof Trade) {
+            writer.writeByte(TRADE);
+            writeTrade(writer, (Trade) value);
+        } else if (value instanceof AuctionResult) {
+            writer.writeByte(AUCTION_RESULT);
+            writeAuctionResult(writer, (AuctionResult) value);
+        } else if (value instanceof GenerationResult) {
+            writer.writeByte(GENERATION_RESULT);
+            writeGenerationResult(writer, (GenerationResult) value);
+        } else if (value instanceof CommercialDetail) {
+            writer.writeByte(COMMERCIAL_DETAIL);
+            writeCommercialDetail(writer, (CommercialDetail) value);
+        } else if (value instanceof EventArchive) {
+            writer.writeByte(EVENT_ARCHIVE);
+            writeEventArchive(writer, (EventArchive) value);
+        } else if (value instanceof ArchiveManifest) {
+            writer.writeByte(ARCHIVE_MANIFEST);
+            writeArchiveManifest(writer, (ArchiveManifest) value);
+        } else if (value instanceof TariffSchedule) {
+            writer.writeByte(TARIFF_SCHEDULE);
+            writeTariffSchedule(writer, (TariffSchedule) value);
+        } else {
+            throw new CodecException("No binary layout for " + value.getClass().getSimpleName());
+        }
+
+        byte[] bytes = writer.toByteArray();
+        if (writer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            WRITER.remove();
+        }
+        return bytes;
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        return decode(new BinaryReader(ByteBuffer.wrap(bytes)), type);
+    }
+
+    // Reads in place, without copying the value out of the buffer; the buffer's position is left as it was
+    @Override
+    public <T> T decode(ByteBuffer buffer, Class<T> type) {
+        return decode(new BinaryReader(buffer.duplicate()), type);
+    }
+
+    private <T> T decode(BinaryReader reader, Class<T> type) {
+        int version = reader.readByte();
+        if (version < MIN_FORMAT_VERSION || version > FORMAT_VERSION) {
+            throw new CodecException("Unsupported binary format version " + version);
+        }
+
+        int tag = reader.readByte();
+        if (tag != tagOf(type)) {
+            throw new CodecException("Stored value with tag " + tag + " is not a " + type.getSimpleName());
+        }
+
+        try {
+            switch (tag) {
+                case PROSUMER:
+                    return type.cast(readProsumer(reader));
+                case PPA:
+                    return type.cast(readPPA(reader));
+                case GENERATION_EVENT:
+                    return type.cast(readGenerationEvent(reader, version));
+                case ENERGY_CREDIT:
+                    return type.cast(readEnergyCredit(reader));
+                case ORDER:
+                    return type.cast(readOrder(reader));
+                case TRADE:
+                    return type.cast(readTrade(reader));
+                case AUCTION_RESULT:
+                    return type.cast(readAuctionResult(reader));
+                case GENERATION_RESULT:
+                    return type.cast(readGenerationResult(reader));
+                case COMMERCIAL_DETAIL:
+                    return type.cast(readCommercialDetail(reader));
+                case EVENT_ARCHIVE:
+                    return type.cast(readEventArchive(reader));
+                case ARCHIVE_MANIFEST:
+                    return type.cast(readArchiveManifest(reader));
+                case TARIFF_SCHEDULE:
+                    return type.cast(readTariffSchedule(reader));
+                default:
+                    return type.cast(readTotalsDelta(reader));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new CodecException("Invalid " + type.getSimpleName() + " value", e);
+        }
+    }
+
+    private static int tagOf(Class<?> type) {
+        if (type == Prosumer.class) {
+            return PROSUMER;
+        } else if (type == SimplifiedPPA.class) {
+            return PPA;
+        } else if (type == GenerationEvent.class) {
+            return GENERATION_EVENT;
+        } else if (type == EnergyCredit.class) {
+            return ENERGY_CREDIT;
+        } else if (type == TotalsDelta.class) {
+            return TOTALS_DELTA;
+        } else if (type == Order.class) {
+            return ORDER;
+        } else if (type == Trade.class) {
+            return TRADE;
+        } else if (type == AuctionResult.class) {
+            return AUCTION_RESULT;
+        } else if (type == GenerationResult.class) {
+            return GENERATION_RESULT;
+        } else if (type == CommercialDetail.class) {
+            return COMMERCIAL_DETAIL;
+        } else if (type == EventArchive.class) {
+            return EVENT_ARCHIVE;
+        } else if (type == ArchiveManifest.class) {
+            return ARCHIVE_MANIFEST;
+        } else if (type == TariffSchedule.class) {
+            return TARIFF_SCHEDULE;
+        }
+        throw new CodecException("No binary layout for " + type.getSimpleName());
+    }
+
+    private static void writeProsumer(BinaryWriter writer, Prosumer prosumer) {
+        writer.writeString(prosumer.getProsumerId());
+        writer.writeString(prosumer.getName());
+        writer.writeString(prosumer.getLocation());
+        writer.writeDouble(prosumer.getSolarCapacityKW());
+        writer.writeString(prosumer.getOrganizationMSP());
+        writer.writeDouble(prosumer.getTotalEnergyGenerated());
+    }
+
+    private static Prosumer readProsumer(BinaryReader reader) {
+        Prosumer prosumer = new Prosumer(reader.readString(), reader.readString(), reader.readString(),
+                reader.readDouble(), reader.readString());
+        prosumer.setTotalEnergyGenerated(reader.readDouble());
+        return prosumer;
+    }
+
+    private static void writePPA(BinaryWriter writer, SimplifiedPPA ppa) {
+        writer.writeString(ppa.getAgreementId());
+        writer.writeString(ppa.getProsumerId());
+        writer.writeString(ppa.getBuyerId());
+        writer.writeDouble(ppa.getTariffPerKWh());
+        writer.writeString(ppa.getStartDate());
+        writer.writeString(ppa.getEndDate());
+        writer.writeDouble(ppa.getTotalEnergyGenerated());
+        writer.writeDouble(ppa.getTotalTokensIssued());
+        writer.writeDouble(ppa.getTotalInvoiceValue());
+    }
+
+    private static SimplifiedPPA readPPA(BinaryReader reader) {
+        SimplifiedPPA ppa = new SimplifiedPPA(reader.readString(), reader.readString(), reader.readString(),
+                reader.readDouble(), reader.readString(), reader.readString());
+        ppa.setTotalEnergyGenerated(reader.readDouble());
+        ppa.setTotalTokensIssued(reader.readDouble());
+        ppa.setTotalInvoiceValue(reader.readDouble());
+        return ppa;
+    }
+
+    private static void writeGenerationEvent(BinaryWriter writer, GenerationEvent event) {
+        writer.writeString(event.getEventId());
+        writer.writeString(event.getProsumerId());
+        writer.writeString(event.getMeterId());
+        writer.writeDouble(event.getGeneratedKWh());
+        writer.writeString(event.getTimestamp());
+        writer.writeString(event.getAgreementId());
+        writer.writeDouble(event.getTokensIssued());
+        writer.writeDouble(event.getInvoiceValue());
+        writer.writeString(event.getStatus());
+        writer.writeZigZagLong(event.getTimestampMillis());
+    }
+
+    // Stored events were validated when written, so they are bound field by field without re-validation
+    private static GenerationEvent readGenerationEvent(BinaryReader reader, int version) {
+        GenerationEvent event = new GenerationEvent();
+        event.setEventId(reader.readString());
+        event.setProsumerId(reader.readString());
+        event.setMeterId(reader.readString());
+        event.setGeneratedKWh(reader.readDouble());
+        event.setTimestamp(reader.readString());
+        event.setAgreementId(reader.readString());
+        event.setTokensIssued(reader.readDouble());
+        event.setInvoiceValue(reader.readDouble());
+        event.setStatus(reader.readString());
+        if (version >= 2) {
+            event.setTimestampMillis(reader.readZigZagLong());
+        } else {
+            event.deriveMissingTimestampMillis();
+        }
+        return event;
+    }
+
+    private static void writeEnergyCredit(BinaryWriter writer, EnergyCredit credit) {
+        writer.writeString(credit.getTokenId());
+        writer.writeString(credit.getProsumerId());
+        writer.writeDouble(credit.getEnergyAmount());
+        writer.writeString(credit.getEnergyType());
+        writer.writeString(credit.getOwnerId());
+        writer.writeDouble(credit.getTariffPerKWh());
+        writer.writeString(credit.getLocation());
+        writer.writeBoolean(credit.isAvailable());
+    }
+
+    private static EnergyCredit readEnergyCredit(BinaryReader reader) {
+        return new EnergyCredit(reader.readString(), reader.readString(), reader.readDouble(),
+                reader.readString(), reader.readString(), reader.readDouble(),
+                reader.readString(), reader.readBoolean());
+    }
+
+    private static void writeTotalsDelta(BinaryWriter writer, TotalsDelta delta) {
+        writer.writeDouble(delta.getEnergyGenerated());
+        writer.writeDouble(delta.getTokensIssued());
+        writer.writeDouble(delta.getInvoiceValue());
+    }
+
+    private static TotalsDelta readTotalsDelta(BinaryReader reader) {
+        return new TotalsDelta(reader.readDouble(), reader.readDouble(), reader.readDouble());
+    }
+
+    private static void writeOrder(BinaryWriter writer, Order order) {
+        writer.writeString(order.getOrderId());
+        writer.writeString(order.getSide());
+        writer.writeString(order.getParticipantId());
+        writer.writeString(order.getTokenId());
+        writer.writeDouble(order.getPrice());
+        writer.writeDouble(order.getQuantity());
+        writer.writeDouble(order.getRemaining());
+        writer.writeString(order.getStatus());
+        writer.writeZigZagLong(order.getTimestampMillis());
+    }
+
+    private static Order readOrder(BinaryReader reader) {
+        return new Order(reader.readString(), reader.readString(), reader.readString(), reader.readString(),
+                reader.readDouble(), reader.readDouble(), reader.readDouble(), reader.readString(),
+                reader.readZigZagLong());
+    }
+
+    private static void writeTrade(BinaryWriter writer, Trade trade) {
+        writer.writeString(trade.getTradeId());
+        writer.writeString(trade.getBidOrderId());
+        writer.writeString(trade.getAskOrderId());
+        writer.writeString(trade.getBuyerId());
+        writer.writeString(trade.getSellerId());
+        writer.writeString(trade.getSourceTokenId());
+        writer.writeString(trade.getTokenId());
+        writer.writeDouble(trade.getPrice());
+        writer.writeDouble(trade.getQuantity());
+        writer.writeZigZagLong(trade.getTimestampMillis());
+    }
+
+    private static Trade readTrade(BinaryReader reader) {
+        return new Trade(reader.readString(), reader.readString(), reader.readString(), reader.readString(),
+                reader.readString(), reader.readString(), reader.readString(), reader.readDouble(),
+                reader.readDouble(), reader.readZigZagLong());
+    }
+
+    private static void writeAuctionResult(BinaryWriter writer, AuctionResult result) {
+        writer.writeString(result.getIntervalId());
+        writer.writeDouble(result.getClearingPrice());
+        writer.writeDouble(result.getClearedVolume());
+        writer.writeVarInt(result.getBidCount());
+        writer.writeVarInt(result.getOfferCount());
+        writer.writeVarInt(result.getTradeCount());
+        writer.writeString(result.getSettlementTxId());
+    }
+
+    private static AuctionResult readAuctionResult(BinaryReader reader) {
+        return new AuctionResult(reader.readString(), reader.readDouble(), reader.readDouble(),
+                (int) reader.readVarInt(), (int) reader.readVarInt(), (int) reader.readVarInt(),
+                reader.readString());
+    }
+
+    private static void writeGenerationResult(BinaryWriter writer, GenerationResult result) {
+        writer.writeString(result.getStatus());
+        writer.writeString(result.getEventId());
+        writer.writeString(result.getTokenId());
+        writer.writeDouble(result.getTokensIssued());
+        writer.writeDouble(result.getInvoiceValue());
+        writer.writeString(result.getAgreementId());
+    }
+
+    private static GenerationResult readGenerationResult(BinaryReader reader) {
+        return new GenerationResult(reader.readString(), reader.readString(), reader.readString(),
+                reader.readDouble(), reader.readDouble(), reader.readString());
+    }
+
+    private static void writeCommercialDetail(BinaryWriter writer, CommercialDetail detail) {
+        writer.writeDouble(detail.getTariffPerKWh());
+        writer.writeDouble(detail.getInvoiceValue());
+    }
+
+    private static CommercialDetail readCommercialDetail(BinaryReader reader) {
+        return new CommercialDetail(reader.readDouble(), reader.readDouble());
+    }
+
+    private static void writeEventArchive(BinaryWriter writer, EventArchive archive) {
+        writer.writeString(archive.getProsumerId());
+        writer.writeString(archive.getDay());
+        writer.writeVarInt(archive.getEventCount());
+        writer.writeVarInt(archive.getCreditCount());
+        writer.writeDouble(archive.getGeneratedKWh());
+        writer.writeDouble(archive.getTokensIssued());
+        writer.writeZigZagLong(archive.getFirstEventMillis());
+        writer.writeZigZagLong(archive.getLastEventMillis());
+        writer.writeVarInt(archive.getSliceCount());
+        writer.writeString(archive.getDigest());
+    }
+
+    private static EventArchive readEventArchive(BinaryReader reader) {
+        return new EventArchive(reader.readString(), reader.readString(), (int) reader.readVarInt(),
+                (int) reader.readVarInt(), reader.readDouble(), reader.readDouble(), reader.readZigZagLong(),
+                reader.readZigZagLong(), (int) reader.readVarInt(), reader.readString());
+    }
+
+    private static void writeArchiveManifest(BinaryWriter writer, ArchiveManifest manifest) {
+        writer.writeString(manifest.getProsumerId());
+        writer.writeString(manifest.getDay());
+        writer.writeString(manifest.getTxId());
+        writer.writeString(manifest.getDigest());
+        writer.writeVarInt(manifest.getKeys().size());
+        for (String key : manifest.getKeys()) {
+            writer.writeString(key);
+        }
+    }
+
+    private static ArchiveManifest readArchiveManifest(BinaryReader reader) {
+        String prosumerId = reader.readString();
+        String day = reader.readString();
+        String txId = reader.readString();
+        String digest = reader.readString();
+        int count = (int) reader.readVarInt();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(reader.readString());
+        }
+        return new ArchiveManifest(prosumerId, day, txId, digest, keys);
+    }
+
+    private static void writeTariffSchedule(BinaryWriter writer, TariffSchedule schedule) {
+        writer.writeString(schedule.getAgreementId());
+        writer.writeString(schedule.getUtcOffset());
+        writer.writeVarInt(schedule.getRates().size());
+        for (TariffRate rate : schedule.getRates()) {
+            writer.writeVarInt(rate.getFromMonth());
+            writer.writeVarInt(rate.getToMonth());
+            writer.writeString(rate.getStartTime());
+            writer.writeString(rate.getEndTime());
+            writer.writeDouble(rate.getMinKWh());
+            writer.writeDouble(rate.getTariffPerKWh());
+        }
+    }
+
+    private static TariffSchedule readTariffSchedule(BinaryReader reader) {
+        String agreementId = reader.readString();
+        String utcOffset = reader.readString();
+        int count = (int) reader.readVarInt();
+        List<TariffRate> rates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rates.add(new TariffRate((int) reader.readVarInt(), (int) reader.readVarInt(), reader.readString(),
+                    reader.readString(), reader.readDouble(), reader.readDouble()));
+        }
+        return new TariffSchedule(agreementId, utcOffset, rates);
+    }
+}
@@ -0,0 +1,7 @@
+package org.energy.trading.codec;
+
+// Format used for newly written ledger values; reads accept every format
+public enum CodecMode {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,62 @@
+package org.energy.trading.codec;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.energy.trading.models.GenerationEvent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// Uses one prebuilt ObjectReader/ObjectWriter per type, reading from and writing to byte arrays
+// so values never round-trip through an intermediate String
+public class JsonValueCodec implements ValueCodec {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonValueCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            return writers.computeIfAbsent(value.getClass(), objectMapper::writerFor).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new CodecException("Failed to encode " + value.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    // Goes through a tree, so it costs more than encode; decoding reads the missing properties as zero or null
+    @Override
+    public byte[] encode(Object value, Collection<String> omittedProperties) {
+        try {
+            ObjectNode tree = objectMapper.valueToTree(value);
+            tree.remove(omittedProperties);
+            return objectMapper.writeValueAsBytes(tree);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new CodecException("Failed to encode " + value.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    // Events stored before timestampMillis existed get it derived here, once per decode
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            T value = readers.computeIfAbsent(type, objectMapper::readerFor).readValue(bytes);
+            if (value instanceof GenerationEvent) {
+                ((GenerationEvent) value).deriveMissingTimestampMillis();
+            }
+            return value;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new CodecException("Failed to decode " + type.getSimpleName() + " from JSON", e);
+        }
+    }
+}
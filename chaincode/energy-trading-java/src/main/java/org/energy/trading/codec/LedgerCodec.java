@@ -0,0 +1,47 @@
+package org.energy.trading.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Reads values in any supported format and writes them in the requested one,
+// so a ledger migrates lazily as keys are rewritten
+public class LedgerCodec {
+
+    private final ValueCodec jsonCodec;
+    private final ValueCodec binaryCodec;
+
+    public LedgerCodec(ObjectMapper objectMapper) {
+        this(new JsonValueCodec(objectMapper), new BinaryValueCodec());
+    }
+
+    public LedgerCodec(ValueCodec jsonCodec, ValueCodec binaryCodec) {
+        this.jsonCodec = jsonCodec;
+        this.binaryCodec = binaryCodec;
+    }
+
+    public byte[] encode(Object value, CodecMode mode) {
+        return mode == CodecMode.BINARY ? binaryCodec.encode(value) : jsonCodec.encode(value);
+    }
+
+    public byte[] encode(Object value, CodecMode mode, Collection<String> omittedProperties) {
+        return mode == CodecMode.BINARY ? binaryCodec.encode(value, omittedProperties)
+                : jsonCodec.encode(value, omittedProperties);
+    }
+
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        if (bytes == null || bytes.length == 0) {
+            throw new CodecException("Empty value for " + type.getSimpleName());
+        }
+        return BinaryValueCodec.isBinary(bytes) ? binaryCodec.decode(bytes, type) : jsonCodec.decode(bytes, type);
+    }
+
+    // Decodes the buffer's remaining bytes, such as a value in a memory-mapped file, without moving its position
+    public <T> T decode(ByteBuffer buffer, Class<T> type) {
+        if (!buffer.hasRemaining()) {
+            throw new CodecException("Empty value for " + type.getSimpleName());
+        }
+        return BinaryValueCodec.isBinary(buffer) ? binaryCodec.decode(buffer, type) : jsonCodec.decode(buffer, type);
+    }
+}
@@ -0,0 +1,25 @@
+package org.energy.trading.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+// Serializes ledger values to and from their stored byte form
+public interface ValueCodec {
+
+    byte[] encode(Object value);
+
+    // Leaves the named properties out where the format allows it; positional formats keep every field
+    default byte[] encode(Object value, Collection<String> omittedProperties) {
+        return encode(value);
+    }
+
+    <T> T decode(byte[] bytes, Class<T> type);
+
+    // Decodes the buffer's remaining bytes and leaves its position unchanged; formats that can read
+    // in place override the copy
+    default <T> T decode(ByteBuffer buffer, Class<T> type) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return decode(bytes, type);
+    }
+}
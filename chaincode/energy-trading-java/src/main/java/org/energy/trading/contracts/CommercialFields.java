@@ -0,0 +1,109 @@
+package org.energy.trading.contracts;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.energy.trading.models.CommercialDetail;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.GenerationResult;
+import org.energy.trading.models.SimplifiedPPA;
+import org.energy.trading.models.TotalsDelta;
+
+// Which fields of each entity are commercial: tariffs on agreements and credits, invoice values on
+// events, recorded readings, agreements and totals deltas. In private mode they are left out of JSON public values,
+// zeroed in binary ones, and stored in the collection instead.
+final class CommercialFields {
+
+    private static final List<String> TARIFF = Collections.singletonList("tariffPerKWh");
+    private static final List<String> INVOICE = Collections.singletonList("invoiceValue");
+    private static final List<String> PPA = Arrays.asList("tariffPerKWh", "totalInvoiceValue");
+
+    private CommercialFields() {
+    }
+
+    static boolean applies(Object value) {
+        return value instanceof GenerationEvent || value instanceof GenerationResult || value instanceof EnergyCredit
+                || value instanceof SimplifiedPPA || value instanceof TotalsDelta;
+    }
+
+    // Whether a value written in private mode needs a private counterpart. Every private write adds a key and
+    // value hash to the block, about as much as the public value it hides, so a totals delta with no invoice
+    // value stays wholly public; its key is unique to the transaction, so no older private copy can remain.
+    static boolean split(Object value) {
+        return applies(value) && !(value instanceof TotalsDelta && ((TotalsDelta) value).getInvoiceValue() == 0.0);
+    }
+
+    // JSON property names of the fields extract takes
+    static List<String> names(Object value) {
+        if (value instanceof EnergyCredit) {
+            return TARIFF;
+        }
+        return value instanceof SimplifiedPPA ? PPA : INVOICE;
+    }
+
+    static CommercialDetail extract(Object value) {
+        if (value instanceof GenerationEvent) {
+            return new CommercialDetail(0.0, ((GenerationEvent) value).getInvoiceValue());
+        } else if (value instanceof GenerationResult) {
+            return new CommercialDetail(0.0, ((GenerationResult) value).getInvoiceValue());
+        } else if (value instanceof EnergyCredit) {
+            return new CommercialDetail(((EnergyCredit) value).getTariffPerKWh(), 0.0);
+        } else if (value instanceof SimplifiedPPA) {
+            SimplifiedPPA ppa = (SimplifiedPPA) value;
+            return new CommercialDetail(ppa.getTariffPerKWh(), ppa.getTotalInvoiceValue());
+        }
+        return new CommercialDetail(0.0, ((TotalsDelta) value).getInvoiceValue());
+    }
+
+    // Returns a copy; the caller's entity keeps its values for the rest of the transaction
+    static Object redact(Object value) {
+        if (value instanceof GenerationEvent) {
+            GenerationEvent event = (GenerationEvent) value;
+            GenerationEvent copy = new GenerationEvent();
+            copy.setEventId(event.getEventId());
+            copy.setProsumerId(event.getProsumerId());
+            copy.setMeterId(event.getMeterId());
+            copy.setGeneratedKWh(event.getGeneratedKWh());
+            copy.setTimestamp(event.getTimestamp());
+            copy.setTimestampMillis(event.getTimestampMillis());
+            copy.setAgreementId(event.getAgreementId());
+            copy.setTokensIssued(event.getTokensIssued());
+            copy.setStatus(event.getStatus());
+            return copy;
+        } else if (value instanceof GenerationResult) {
+            GenerationResult result = (GenerationResult) value;
+            return new GenerationResult(result.getStatus(), result.getEventId(), result.getTokenId(),
+                    result.getTokensIssued(), 0.0, result.getAgreementId());
+        } else if (value instanceof EnergyCredit) {
+            EnergyCredit credit = (EnergyCredit) value;
+            return new EnergyCredit(credit.getTokenId(), credit.getProsumerId(), credit.getEnergyAmount(),
+                    credit.getEnergyType(), credit.getOwnerId(), 0.0, credit.getLocation(), credit.isAvailable());
+        } else if (value instanceof SimplifiedPPA) {
+            SimplifiedPPA ppa = (SimplifiedPPA) value;
+            SimplifiedPPA copy = new SimplifiedPPA(ppa.getAgreementId(), ppa.getProsumerId(), ppa.getBuyerId(), 0.0,
+                    ppa.getStartDate(), ppa.getEndDate());
+            copy.setTotalEnergyGenerated(ppa.getTotalEnergyGenerated());
+            copy.setTotalTokensIssued(ppa.getTotalTokensIssued());
+            return copy;
+        }
+        TotalsDelta delta = (TotalsDelta) value;
+        return new TotalsDelta(delta.getEnergyGenerated(), delta.getTokensIssued(), 0.0);
+    }
+
+    static void restore(Object value, CommercialDetail detail) {
+        if (value instanceof GenerationEvent) {
+            ((GenerationEvent) value).setInvoiceValue(detail.getInvoiceValue());
+        } else if (value instanceof GenerationResult) {
+            ((GenerationResult) value).setInvoiceValue(detail.getInvoiceValue());
+        } else if (value instanceof EnergyCredit) {
+            ((EnergyCredit) value).setTariffPerKWh(detail.getTariffPerKWh());
+        } else if (value instanceof SimplifiedPPA) {
+            ((SimplifiedPPA) value).setTariffPerKWh(detail.getTariffPerKWh());
+            ((SimplifiedPPA) value).setTotalInvoiceValue(detail.getInvoiceValue());
+        } else if (value instanceof TotalsDelta) {
+            ((TotalsDelta) value).setInvoiceValue(detail.getInvoiceValue());
+        }
+    }
+}
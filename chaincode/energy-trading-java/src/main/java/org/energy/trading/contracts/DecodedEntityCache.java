@@ -0,0 +1,136 @@
+package org.energy.trading.contracts;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.energy.trading.codec.LedgerCodec;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.SimplifiedPPA;
+
+// Process-wide LRU of decoded prosumers, agreements and credits, and of compiled tariff schedules, bounded by
+// an estimate of the bytes held. An entry is the last value decoded at a key together with the bytes it was
+// decoded from, and is only used when the bytes just read from the ledger are identical, so a hit skips decoding
+// and nothing else: what is read is still whatever the ledger returned. Entities are handed out as copies, since
+// the context hands them out for mutation. Transactions run concurrently, so every access is synchronized.
+final class DecodedEntityCache {
+
+    // Rough cost of the entry, the decoded object and its strings on top of the raw bytes
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final LedgerCodec codec;
+    private final long capacityBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+
+    DecodedEntityCache(LedgerCodec codec, long capacityBytes) {
+        this.codec = codec;
+        this.capacityBytes = capacityBytes;
+    }
+
+    static boolean applies(Class<?> type) {
+        return type == Prosumer.class || type == SimplifiedPPA.class || type == EnergyCredit.class;
+    }
+
+    // Decodes like LedgerCodec.decode, reusing the previous result when the key still holds the same bytes
+    <T> T decode(String key, byte[] bytes, Class<T> type) {
+        if (capacityBytes <= 0 || !applies(type)) {
+            return codec.decode(bytes, type);
+        }
+        return type.cast(copy(lookup(key, bytes, type, value -> codec.decode(value, type))));
+    }
+
+    // Like decode, for a value the caller derives from the bytes and never mutates, so it is shared
+    // rather than copied
+    <T> T compile(String key, byte[] bytes, Class<T> type, Function<byte[], T> compiler) {
+        if (capacityBytes <= 0) {
+            return compiler.apply(bytes);
+        }
+        return lookup(key, bytes, type, compiler);
+    }
+
+    private <T> T lookup(String key, byte[] bytes, Class<T> type, Function<byte[], T> compute) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && type.isInstance(entry.value) && Arrays.equals(entry.bytes, bytes)) {
+                hits++;
+                return type.cast(entry.value);
+            }
+            misses++;
+        }
+
+        T value = compute.apply(bytes);
+        // The ledger's bytes are not ours to keep; a stub may reuse the array
+        Entry entry = new Entry(bytes.clone(), value, weigh(key, bytes));
+        if (entry.weight <= capacityBytes) {
+            synchronized (this) {
+                Entry previous = entries.put(key, entry);
+                sizeBytes += entry.weight - (previous == null ? 0 : previous.weight);
+                evict();
+            }
+        }
+        return value;
+    }
+
+    synchronized Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("entries", (long) entries.size());
+        stats.put("sizeBytes", sizeBytes);
+        stats.put("capacityBytes", capacityBytes);
+        return stats;
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (sizeBytes > capacityBytes && eldest.hasNext()) {
+            sizeBytes -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    private static long weigh(String key, byte[] bytes) {
+        // Raw bytes are held once as the comparison copy and roughly once more as decoded strings
+        return 2L * key.length() + 2L * bytes.length + ENTRY_OVERHEAD;
+    }
+
+    private static Object copy(Object value) {
+        if (value instanceof Prosumer) {
+            Prosumer prosumer = (Prosumer) value;
+            Prosumer copy = new Prosumer(prosumer.getProsumerId(), prosumer.getName(), prosumer.getLocation(),
+                    prosumer.getSolarCapacityKW(), prosumer.getOrganizationMSP());
+            copy.setTotalEnergyGenerated(prosumer.getTotalEnergyGenerated());
+            return copy;
+        } else if (value instanceof SimplifiedPPA) {
+            SimplifiedPPA ppa = (SimplifiedPPA) value;
+            SimplifiedPPA copy = new SimplifiedPPA(ppa.getAgreementId(), ppa.getProsumerId(), ppa.getBuyerId(),
+                    ppa.getTariffPerKWh(), ppa.getStartDate(), ppa.getEndDate());
+            copy.setTotalEnergyGenerated(ppa.getTotalEnergyGenerated());
+            copy.setTotalTokensIssued(ppa.getTotalTokensIssued());
+            copy.setTotalInvoiceValue(ppa.getTotalInvoiceValue());
+            return copy;
+        }
+        EnergyCredit credit = (EnergyCredit) value;
+        return new EnergyCredit(credit.getTokenId(), credit.getProsumerId(), credit.getEnergyAmount(),
+                credit.getEnergyType(), credit.getOwnerId(), credit.getTariffPerKWh(), credit.getLocation(),
+                credit.isAvailable());
+    }
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final Object value;
+        private final long weight;
+
+        private Entry(byte[] bytes, Object value, long weight) {
+            this.bytes = bytes;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
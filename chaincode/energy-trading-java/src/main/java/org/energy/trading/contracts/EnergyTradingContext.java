@@ -0,0 +1,244 @@
+package org.energy.trading.contracts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.energy.trading.codec.CodecException;
+import org.energy.trading.codec.CodecMode;
+import org.energy.trading.codec.LedgerCodec;
+import org.energy.trading.metrics.MeteredChaincodeStub;
+import org.energy.trading.metrics.TransactionTally;
+import org.energy.trading.models.CommercialDetail;
+import org.energy.trading.models.TradingEvent;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+
+// Per-transaction read-through cache of ledger entities. Each key is fetched and decoded at most once,
+// writes are buffered so later reads in the same transaction see them, and dirty entries are
+// encoded and written to the stub once, when the contract flushes the context after the transaction.
+// When a commercial collection is configured, the commercial fields of each entity are split off into
+// that private data collection on flush and merged back when a single entity is read; range query results
+// keep their public values, see CommercialFields. Prosumers, agreements
+// and credits are decoded through the process-wide DecodedEntityCache, which also holds compiled tariff
+// schedules. The stub is metered, and the tally of its calls is kept here until the contract reports it.
+public class EnergyTradingContext extends Context {
+
+    static final String CODEC_MODE_KEY = "CONFIG_CODEC_MODE"; // format for newly written values
+    static final String COMMERCIAL_COLLECTION_KEY = "CONFIG_COMMERCIAL_COLLECTION"; // empty keeps everything public
+
+    // Marks keys known to be absent, or deleted by this transaction
+    private static final Object ABSENT = new Object();
+
+    private final LedgerCodec codec;
+    private final DecodedEntityCache decodeCache;
+    private final TransactionTally tally;
+    // Decoded entity, raw bytes not decoded yet, or ABSENT
+    private final Map<String, Object> entries = new HashMap<>();
+    private final Map<String, Object> dirty = new HashMap<>();
+    // Deleted keys that may have a private counterpart to remove as well
+    private final Set<String> commercialDeletes = new HashSet<>();
+    // Values written whole to the commercial collection, whose public key is deleted in their place
+    private final Map<String, Object> privateWrites = new HashMap<>();
+    // Fabric keeps only the last setEvent of a transaction, so events are collected and emitted together
+    private final List<TradingEvent> events = new ArrayList<>();
+    private CodecMode codecMode;
+    private String commercialCollection;
+
+    EnergyTradingContext(ChaincodeStub stub, LedgerCodec codec, DecodedEntityCache decodeCache,
+                         TransactionTally tally) {
+        super(new MeteredChaincodeStub(stub, tally));
+        this.codec = codec;
+        this.decodeCache = decodeCache;
+        this.tally = tally;
+    }
+
+    public boolean exists(String key) {
+        return load(key) != ABSENT;
+    }
+
+    // Returns null when the key does not exist
+    public <T> T get(String key, Class<T> type) {
+        Object entry = load(key);
+        if (entry == ABSENT) {
+            return null;
+        }
+        if (entry instanceof byte[]) {
+            T value = restore(key, decodeCache.decode(key, (byte[]) entry, type));
+            entries.put(key, value);
+            return value;
+        }
+        if (!type.isInstance(entry)) {
+            throw new CodecException(String.format("Key holds a %s, not a %s",
+                    entry.getClass().getSimpleName(), type.getSimpleName()));
+        }
+        return type.cast(entry);
+    }
+
+    // Decodes a range query result as stored publicly: in private mode its commercial fields read as zero.
+    // Merging them here would cost a private read per row and fail on peers outside the collection.
+    public <T> T decode(KeyValue result, Class<T> type) {
+        return decodeCache.decode(result.getKey(), result.getValue(), type);
+    }
+
+    // The commercial fields of the entities under partialKey, by key, read with one private range query;
+    // empty when no collection is configured. For the few reads that fold a range into one entity's values.
+    public Map<String, CommercialDetail> getCommercialDetails(CompositeKey partialKey) {
+        String collection = getCommercialCollection();
+        if (collection.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, CommercialDetail> details = new HashMap<>();
+        for (KeyValue result : getStub().getPrivateDataByPartialCompositeKey(collection, partialKey)) {
+            try {
+                details.put(result.getKey(), codec.decode(result.getValue(), CommercialDetail.class));
+            } catch (CodecException e) {
+                // Skip invalid records
+            }
+        }
+        return details;
+    }
+
+    // Derives a value from the bytes at key, reusing the process-wide result while they stay the same.
+    // The private copy is read first when a commercial collection is configured. Returns null when neither exists.
+    <T> T getCompiled(String key, Class<T> type, Function<byte[], T> compiler) {
+        String collection = getCommercialCollection();
+        if (!collection.isEmpty()) {
+            Object written = privateWrites.get(key);
+            byte[] bytes = written != null ? encode(written) : getStub().getPrivateData(collection, key);
+            if (bytes != null && bytes.length > 0) {
+                return decodeCache.compile(collection + "/" + key, bytes, type, compiler);
+            }
+        }
+        Object entry = load(key);
+        if (entry == ABSENT) {
+            return null;
+        }
+        byte[] bytes = entry instanceof byte[] ? (byte[]) entry : encode(entry);
+        return decodeCache.compile(key, bytes, type, compiler);
+    }
+
+    // Entities returned by get are shared; mutate one only to put it back
+    public void put(String key, Object value) {
+        entries.put(key, value);
+        dirty.put(key, value);
+        commercialDeletes.remove(key);
+        privateWrites.remove(key);
+    }
+
+    // Writes the whole value to the commercial collection and deletes any public copy. A plain put when
+    // no collection is configured.
+    public void putPrivate(String key, Object value) {
+        if (getCommercialCollection().isEmpty()) {
+            put(key, value);
+            return;
+        }
+        if (exists(key)) {
+            entries.put(key, ABSENT);
+            dirty.put(key, ABSENT);
+        }
+        // The public delete must not take the private value with it
+        commercialDeletes.remove(key);
+        privateWrites.put(key, value);
+    }
+
+    public void delete(String key) {
+        Object previous = entries.put(key, ABSENT);
+        dirty.put(key, ABSENT);
+        boolean writtenPrivately = privateWrites.remove(key) != null;
+        if (writtenPrivately || previous == null || previous instanceof byte[] || CommercialFields.applies(previous)) {
+            commercialDeletes.add(key);
+        }
+    }
+
+    public void addEvent(TradingEvent event) {
+        events.add(event);
+    }
+
+    public List<TradingEvent> getEvents() {
+        return events;
+    }
+
+    public TransactionTally getTally() {
+        return tally;
+    }
+
+    public CodecMode getCodecMode() {
+        if (codecMode == null) {
+            String mode = getStub().getStringState(CODEC_MODE_KEY);
+            codecMode = mode.isEmpty() ? CodecMode.JSON : CodecMode.valueOf(mode);
+        }
+        return codecMode;
+    }
+
+    public String getCommercialCollection() {
+        if (commercialCollection == null) {
+            commercialCollection = getStub().getStringState(COMMERCIAL_COLLECTION_KEY);
+        }
+        return commercialCollection;
+    }
+
+    public byte[] encode(Object value) {
+        return codec.encode(value, getCodecMode());
+    }
+
+    // Writes every dirty entry to the stub; the write set is unordered, so map order does not matter.
+    // Private writes put only a hash of the commercial fields in the block, next to the public value;
+    // values put with putPrivate leave only the hash of the whole value.
+    public void flush() {
+        ChaincodeStub stub = getStub();
+        String collection = getCommercialCollection();
+        for (Map.Entry<String, Object> entry : dirty.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == ABSENT) {
+                stub.delState(key);
+                if (!collection.isEmpty() && commercialDeletes.contains(key)) {
+                    stub.delPrivateData(collection, key);
+                }
+            } else if (!collection.isEmpty() && CommercialFields.split(value)) {
+                stub.putPrivateData(collection, key, encode(CommercialFields.extract(value)));
+                stub.putState(key, codec.encode(CommercialFields.redact(value), getCodecMode(),
+                        CommercialFields.names(value)));
+            } else {
+                stub.putState(key, encode(value));
+            }
+        }
+        for (Map.Entry<String, Object> entry : privateWrites.entrySet()) {
+            stub.putPrivateData(collection, entry.getKey(), encode(entry.getValue()));
+        }
+        dirty.clear();
+        commercialDeletes.clear();
+        privateWrites.clear();
+    }
+
+    // Values written before private mode, or while it was off, carry their own commercial fields
+    private <T> T restore(String key, T value) {
+        String collection = getCommercialCollection();
+        if (collection.isEmpty() || !CommercialFields.applies(value)) {
+            return value;
+        }
+        byte[] bytes = getStub().getPrivateData(collection, key);
+        if (bytes != null && bytes.length > 0) {
+            CommercialFields.restore(value, codec.decode(bytes, CommercialDetail.class));
+        }
+        return value;
+    }
+
+    private Object load(String key) {
+        Object entry = entries.get(key);
+        if (entry == null) {
+            byte[] bytes = getStub().getState(key);
+            entry = bytes == null || bytes.length == 0 ? ABSENT : bytes;
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+}
@@ -1,12 +1,61 @@
 package org.energy.trading.contracts;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+
+import org.energy.trading.codec.CodecException;
+import org.energy.trading.codec.CodecMode;
+import org.energy.trading.codec.LedgerCodec;
+import org.energy.trading.metrics.MetricsServer;
+import org.energy.trading.metrics.TransactionMetrics;
+import org.energy.trading.metrics.TransactionTally;
+import org.energy.trading.models.ArchiveManifest;
+import org.energy.trading.models.AuctionResult;
+import org.energy.trading.models.CommercialDetail;
+import org.energy.trading.models.CreditTransfer;
 import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.EventArchive;
 import org.energy.trading.models.SimplifiedPPA;
 import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.GenerationResult;
+import org.energy.trading.models.MeterReading;
+import org.energy.trading.models.Order;
 import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.TariffRate;
+import org.energy.trading.models.TariffSchedule;
+import org.energy.trading.models.TotalsDelta;
+import org.energy.trading.models.Trade;
+import org.energy.trading.models.TradingEvent;
+import org.hyperledger.fabric.contract.ClientIdentity;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
@@ -16,15 +65,20 @@ import org.hyperledger.fabric.contract.annotation.License;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @Contract(
         name = "EnergyTradingContract",
@@ -41,6 +95,31 @@ import java.util.Date;
 public class EnergyTradingContract implements ContractInterface {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LedgerCodec codec = new LedgerCodec(objectMapper);
+    private final DecodedEntityCache decodeCache = new DecodedEntityCache(codec, decodeCacheCapacity());
+    private final TransactionMetrics metrics = new TransactionMetrics();
+    private final ObjectReader readingsReader = objectMapper.readerForListOf(MeterReading.class);
+    private final ObjectReader transfersReader = objectMapper.readerForListOf(CreditTransfer.class);
+    private final ObjectWriter eventsWriter = objectMapper.writerFor(new TypeReference<List<GenerationEvent>>() { });
+    private final ObjectWriter creditsWriter = objectMapper.writerFor(new TypeReference<List<EnergyCredit>>() { });
+    private final ObjectWriter ordersWriter = objectMapper.writerFor(new TypeReference<List<Order>>() { });
+
+    // Responses are streamed into a per-thread buffer that is reused across transactions
+    private static final int MAX_RETAINED_RESPONSE_SIZE = 64 * 1024;
+    private static final ThreadLocal<StringWriter> RESPONSE_BUFFER = ThreadLocal.withInitial(() -> new StringWriter(256));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnergyTradingContract.class);
+
+    private interface ResponseBody {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    // Bytes of decoded entities kept between transactions; 0 disables the cache
+    private static final String DECODE_CACHE_BYTES_ENV = "ENERGY_TRADING_DECODE_CACHE_BYTES";
+    private static final long DEFAULT_DECODE_CACHE_BYTES = 32L * 1024 * 1024;
+
+    // Flat tariff of agreements created by a prosumer's first reading for a buyer
+    public static final double DEFAULT_TARIFF = 4.5;
 
     // Constants
     private static final double MIN_TARIFF = 0.0;
@@ -48,20 +127,92 @@ public class EnergyTradingContract implements ContractInterface {
     private static final double MIN_ENERGY = 0.0;
     private static final double MAX_ENERGY = 1000000.0;
     private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd").withResolverStyle(ResolverStyle.STRICT);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final String READINGS_TRANSIENT_KEY = "readings";
+    private static final String TRANSFERS_TRANSIENT_KEY = "transfers";
+    private static final String TARIFF_TRANSIENT_KEY = "tariffSchedule";
+    private static final int MAX_TARIFF_RATES = 256;
     private static final double TOKEN_TO_KWH_RATIO = 1.0; // 1 token = 1 kWh
 
+    // Client identities. Participants are enrolled with participantId=<id> as an ecert attribute;
+    // admins carry the NodeOU admin role, as the network's Admin@ identities do.
+    private static final String PARTICIPANT_ATTRIBUTE = "participantId";
+    private static final String ADMIN_ROLE = "admin";
+
+    // One chaincode event per transaction: {"version":1,"events":[TradingEvent...]}.
+    // Fields are only ever added within a version; tariffs and invoice values are never included.
+    private static final String EVENT_NAME = "EnergyTradingEvents";
+    private static final int EVENT_SCHEMA_VERSION = 1;
+
+    // Composite key object types
+    private static final String PPA_INDEX = "prosumer~buyer"; // (prosumerId, buyerId) -> agreementId
+    private static final String EVENT_INDEX = "prosumer~day~event"; // (prosumerId, UTC day, epoch millis, eventId) -> event
+    private static final String AVAILABLE_CREDIT = "available~credit"; // (tokenId) -> available credit; spent ones live at CREDIT_
+    private static final String OWNER_CREDIT = "owner~credit"; // (ownerId, tokenId) -> tokenId, spent or not
+    private static final String EVENT_ARCHIVE = "prosumer~day~archive"; // (prosumerId, UTC day) -> EventArchive of archived events
+    private static final String ARCHIVE_MANIFEST = "prosumer~day~manifest"; // (prosumerId, UTC day, txId) -> ArchiveManifest
+    private static final String METER_READING = "meter~reading"; // (meterId, epoch millis) -> GenerationResult of the first submission
+    private static final String TOTALS_DELTA = "entity~totals~tx"; // (entity type, entity id, txId) -> TotalsDelta
+    private static final String ROLLUP_DELTA = "series~bucket~tx"; // (series, entity id, UTC bucket, txId) -> TotalsDelta
+    private static final String ORDER_BOOK = "side~price~time~order"; // (side, price key, epoch millis, orderId) -> open Order
+    private static final String TOKEN_ASK = "token~ask"; // (tokenId) -> orderId of the open ask selling it
+    private static final String AUCTION_ORDER = "interval~side~participant"; // (interval, side, participant[, tokenId]) -> Order
+
+    // Entity types with running totals
+    private static final String PPA_TOTALS = "PPA";
+    private static final String PROSUMER_TOTALS = "PROSUMER";
+
+    // Generation rollup series; hour buckets are yyyyMMddHH and day buckets yyyyMMdd, both UTC
+    private static final String PROSUMER_HOURLY = "PROSUMER_HOUR";
+    private static final String PROSUMER_DAILY = "PROSUMER_DAY";
+    private static final String PPA_DAILY = "PPA_DAY";
+    private static final DateTimeFormatter HOUR_BUCKET_FORMATTER = DateTimeFormatter.ofPattern("uuuuMMddHH");
+    private static final int MAX_SERIES_BUCKETS = 31 * 24;
+
+    // Order book. Prices are stored as fixed-width tick counts so keys sort by price; bid keys are
+    // inverted so both sides iterate best price first, then oldest first.
+    private static final String BID = "BID";
+    private static final String ASK = "ASK";
+    private static final String ORDER_OPEN = "OPEN";
+    private static final String ORDER_FILLED = "FILLED";
+    private static final String ORDER_CANCELLED = "CANCELLED";
+    private static final long PRICE_TICKS_PER_UNIT = 10_000L; // 0.0001 per kWh
+    private static final long MAX_PRICE_KEY = 9_999_999_999L;
+    private static final int MAX_BOOK_SCAN = 100; // resting orders one incoming order may visit
+    private static final double QUANTITY_EPSILON = 1e-9;
+
+    // Interval auctions. Intervals are named by their UTC start; bids and offers are accepted until
+    // the interval ends and cleared by one transaction after that.
+    // Generation events older than this many UTC days, counted from the archiving transaction, can be archived
+    private static final int EVENT_RETENTION_DAYS = 90;
+    private static final int AUCTION_INTERVAL_MINUTES = 15;
+    private static final DateTimeFormatter INTERVAL_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuuMMddHHmm").withResolverStyle(ResolverStyle.STRICT);
+
     // Error messages
     private enum EnergyTradingErrors {
         PROSUMER_NOT_FOUND("Prosumer not found"),
         PROSUMER_ALREADY_EXISTS("Prosumer already exists"),
         PPA_NOT_FOUND("PPA not found"),
         PPA_ALREADY_EXISTS("PPA already exists"),
+        CREDIT_NOT_FOUND("Energy credit not found"),
         GENERATION_EVENT_FAILED("Failed to process generation event"),
         JSON_PARSING_ERROR("Error parsing JSON"),
         INVALID_INPUT("Invalid input parameters"),
         INVALID_DATE_RANGE("End date must be after start date"),
         NEGATIVE_VALUE_NOT_ALLOWED("Negative values are not allowed"),
-        VALUE_OUT_OF_RANGE("Value out of valid range");
+        VALUE_OUT_OF_RANGE("Value out of valid range"),
+        ORDER_NOT_FOUND("Order not found"),
+        ORDER_NOT_OPEN("Order is no longer open"),
+        CREDIT_NOT_AVAILABLE("Energy credit is not available for sale"),
+        AUCTION_CLOSED("Auction interval is closed"),
+        AUCTION_NOT_CLOSED("Auction interval has not ended yet"),
+        ARCHIVE_NOT_FOUND("No archived events for that day"),
+        TARIFF_NOT_FOUND("Tariff schedule not found"),
+        ACCESS_DENIED("Caller is not allowed to act for that participant");
 
         private final String message;
 
@@ -74,6 +225,145 @@ public class EnergyTradingContract implements ContractInterface {
         }
     }
 
+    public EnergyTradingContract() {
+        metrics.addSource("decode_cache_hits_total", "counter", "Decodes answered by the decoded-entity cache",
+                () -> decodeCache.stats().get("hits"));
+        metrics.addSource("decode_cache_misses_total", "counter", "Decodes the decoded-entity cache had to run",
+                () -> decodeCache.stats().get("misses"));
+        metrics.addSource("decode_cache_size_bytes", "gauge", "Estimated bytes held by the decoded-entity cache",
+                () -> decodeCache.stats().get("sizeBytes"));
+        MetricsServer.startFromEnvironment(metrics);
+    }
+
+    @Override
+    public Context createContext(final ChaincodeStub stub) {
+        return new EnergyTradingContext(stub, codec, decodeCache, new TransactionTally());
+    }
+
+    @Override
+    public void beforeTransaction(final Context context) {
+        metrics.started(transactionName(context));
+    }
+
+    // Buffered entity writes and the transaction's events reach the stub here, once per transaction
+    @Override
+    public void afterTransaction(final Context context, final Object result) {
+        EnergyTradingContext ctx = tradingContext(context);
+        try {
+            try {
+                ctx.flush();
+            } catch (CodecException e) {
+                throw new ChaincodeException(e.getMessage(), EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+            }
+
+            List<TradingEvent> events = ctx.getEvents();
+            if (!events.isEmpty()) {
+                String payload = writeResponse(generator -> {
+                    generator.writeStartObject();
+                    generator.writeNumberField("version", EVENT_SCHEMA_VERSION);
+                    generator.writeFieldName("events");
+                    generator.writeObject(events);
+                    generator.writeEndObject();
+                });
+                ctx.getStub().setEvent(EVENT_NAME, payload.getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            report(ctx);
+        }
+    }
+
+    private void report(EnergyTradingContext ctx) {
+        String transaction = transactionName(ctx);
+        TransactionTally tally = ctx.getTally();
+        metrics.completed(transaction, tally);
+        LOGGER.atDebug()
+                .addKeyValue("transaction", transaction)
+                .addKeyValue("txId", ctx.getStub().getTxId())
+                .addKeyValue("micros", (System.nanoTime() - tally.getStartNanos()) / 1000)
+                .addKeyValue("pointReads", tally.getPointReads())
+                .addKeyValue("rangeScans", tally.getRangeScans())
+                .addKeyValue("rangeRows", tally.getRangeRows())
+                .addKeyValue("writes", tally.getWrites())
+                .addKeyValue("bytesRead", tally.getBytesRead())
+                .addKeyValue("bytesWritten", tally.getBytesWritten())
+                .addKeyValue("skippedRecords", tally.getSkippedRecords())
+                .log("Transaction completed");
+    }
+
+    // The peer passes the function qualified with the contract name unless it was routed to the default contract;
+    // stubs outside a peer may not pass one at all
+    private static String transactionName(Context context) {
+        String function = context.getStub().getFunction();
+        return function == null ? "unknown" : function.substring(function.lastIndexOf(':') + 1);
+    }
+
+    // A stored value that no longer decodes is left out of a query's result rather than failing it
+    private static void skipRecord(EnergyTradingContext ctx, String key, CodecException e) {
+        ctx.getTally().recordSkipped();
+        LOGGER.atWarn()
+                .addKeyValue("transaction", transactionName(ctx))
+                .addKeyValue("key", key)
+                .addKeyValue("error", e.getMessage())
+                .log("Skipped a record that failed to decode");
+    }
+
+    private EnergyTradingContext tradingContext(Context context) {
+        return (EnergyTradingContext) context;
+    }
+
+    // The caller must be enrolled as participantId. A registered prosumer can only act through its own
+    // organization, since every organization's CA can issue the attribute.
+    private static void requireParticipant(EnergyTradingContext ctx, String participantId) {
+        ClientIdentity identity = ctx.getClientIdentity();
+        if (participantId == null || !participantId.equals(identity.getAttributeValue(PARTICIPANT_ATTRIBUTE))) {
+            String errorMessage = String.format("Caller %s cannot act for participant %s", identity.getId(), participantId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.ACCESS_DENIED.toString());
+        }
+
+        Prosumer prosumer;
+        try {
+            prosumer = ctx.get("PROSUMER_" + participantId, Prosumer.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize prosumer", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+        if (prosumer != null && prosumer.getOrganizationMSP() != null
+                && !prosumer.getOrganizationMSP().equals(identity.getMSPID())) {
+            String errorMessage = String.format("Prosumer %s belongs to %s, not %s",
+                    participantId, prosumer.getOrganizationMSP(), identity.getMSPID());
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.ACCESS_DENIED.toString());
+        }
+    }
+
+    private static void requireAdmin(EnergyTradingContext ctx) {
+        ClientIdentity identity = ctx.getClientIdentity();
+        X509Certificate certificate = identity.getX509Certificate();
+        if (certificate != null) {
+            try {
+                for (Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+                    if ("OU".equalsIgnoreCase(rdn.getType()) && ADMIN_ROLE.equalsIgnoreCase(String.valueOf(rdn.getValue()))) {
+                        return;
+                    }
+                }
+            } catch (InvalidNameException e) {
+                // An unparseable subject carries no role
+            }
+        }
+        String errorMessage = String.format("Caller %s is not an organization admin", identity.getId());
+        throw new ChaincodeException(errorMessage, EnergyTradingErrors.ACCESS_DENIED.toString());
+    }
+
+    private static long decodeCacheCapacity() {
+        String bytes = System.getenv(DECODE_CACHE_BYTES_ENV);
+        if (bytes == null || bytes.trim().isEmpty()) {
+            return DEFAULT_DECODE_CACHE_BYTES;
+        }
+        try {
+            return Long.parseLong(bytes.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(DECODE_CACHE_BYTES_ENV + " must be a number of bytes: " + bytes, e);
+        }
+    }
+
     // Helper method to validate input parameters
     private void validateInput(String paramName, double value, double min, double max) {
         if (value < min) {
@@ -89,21 +379,101 @@ public class EnergyTradingContract implements ContractInterface {
     // Helper method to validate date format and range
     private void validateDateRange(String startDate, String endDate) {
         try {
-            SimpleDateFormat sdf = new SimpleDateFormat(DATE_FORMAT);
-            sdf.setLenient(false);
-            Date start = sdf.parse(startDate);
-            Date end = sdf.parse(endDate);
+            LocalDate start = LocalDate.parse(startDate, DATE_FORMATTER);
+            LocalDate end = LocalDate.parse(endDate, DATE_FORMATTER);
 
-            if (start.after(end)) {
+            if (start.isAfter(end)) {
                 throw new ChaincodeException(EnergyTradingErrors.INVALID_DATE_RANGE.getMessage(),
                         EnergyTradingErrors.INVALID_DATE_RANGE.toString());
             }
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             throw new ChaincodeException("Invalid date format. Expected format: " + DATE_FORMAT,
                     EnergyTradingErrors.INVALID_INPUT.toString());
         }
     }
 
+    // Helper method to parse a reading timestamp into epoch milliseconds
+    private long parseTimestamp(String timestamp) {
+        try {
+            return GenerationEvent.parseTimestamp(timestamp);
+        } catch (IllegalArgumentException e) {
+            throw new ChaincodeException(e.getMessage(), EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+    }
+
+    // Helper method to validate a single meter reading
+    private void validateReading(String prosumerId, double generatedKWh, String meterId,
+                                 String timestamp, String buyerId) {
+        if (prosumerId == null || prosumerId.trim().isEmpty() ||
+            meterId == null || meterId.trim().isEmpty() ||
+            timestamp == null || timestamp.trim().isEmpty() ||
+            buyerId == null || buyerId.trim().isEmpty()) {
+            throw new ChaincodeException("All parameters are required and cannot be empty",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        validateInput("generatedKWh", generatedKWh, MIN_ENERGY, MAX_ENERGY);
+        parseTimestamp(timestamp);
+    }
+
+    // Helper method to clamp a requested page size to the supported range
+    private int validatePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new ChaincodeException("pageSize must be greater than zero",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    // Selects the format (JSON or BINARY) for values written from now on; existing values stay readable.
+    // Organization admins only.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String setCodecMode(final Context context, final String mode) {
+        requireAdmin(tradingContext(context));
+        CodecMode codecMode;
+        try {
+            codecMode = CodecMode.valueOf(mode);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ChaincodeException("mode must be JSON or BINARY", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        context.getStub().putStringState(EnergyTradingContext.CODEC_MODE_KEY, codecMode.name());
+        return codecMode.name();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getCodecMode(final Context context) {
+        return tradingContext(context).getCodecMode().name();
+    }
+
+    // Names the private data collection that receives tariffs and invoice values from now on; an empty
+    // name switches back to public values. The collection must be defined in the chaincode definition
+    // and every endorsing peer must be a member of it. Organization admins only.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String setCommercialCollection(final Context context, final String collection) {
+        requireAdmin(tradingContext(context));
+        String name = collection == null ? "" : collection.trim();
+        context.getStub().putStringState(EnergyTradingContext.COMMERCIAL_COLLECTION_KEY, name);
+        return name;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getCommercialCollection(final Context context) {
+        return tradingContext(context).getCommercialCollection();
+    }
+
+    // Counters of the peer that answers, which differ between peers; for monitoring, never for endorsement
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getDecodeCacheStats(final Context context) {
+        Map<String, Long> stats = decodeCache.stats();
+        return writeResponse(generator -> {
+            generator.writeStartObject();
+            for (Map.Entry<String, Long> stat : stats.entrySet()) {
+                generator.writeNumberField(stat.getKey(), stat.getValue());
+            }
+            generator.writeEndObject();
+        });
+    }
+
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void initLedger(final Context context) {
         ChaincodeStub stub = context.getStub();
@@ -125,62 +495,115 @@ public class EnergyTradingContract implements ContractInterface {
                                                final String timestamp,
                                                final String buyerId) {
 
-        if (prosumerId == null || prosumerId.trim().isEmpty() ||
-            meterId == null || meterId.trim().isEmpty() ||
-            timestamp == null || timestamp.trim().isEmpty() ||
-            buyerId == null || buyerId.trim().isEmpty()) {
-            throw new ChaincodeException("All parameters are required and cannot be empty",
-                    EnergyTradingErrors.INVALID_INPUT.toString());
+        validateReading(prosumerId, generatedKWh, meterId, timestamp, buyerId);
+
+        EnergyTradingContext ctx = tradingContext(context);
+
+        // A retried reading returns what the first submission minted
+        GenerationResult recorded = readRecordedReading(ctx, prosumerId, meterId, timestamp);
+        if (recorded != null) {
+            return writeResponse(generator -> writeGenerationResult(generator, recorded));
         }
 
-        validateInput("generatedKWh", generatedKWh, MIN_ENERGY, MAX_ENERGY);
+        Prosumer prosumer = readProsumer(ctx, prosumerId);
+        SimplifiedPPA ppa = findOrCreatePPA(context, prosumerId, buyerId);
 
-        ChaincodeStub stub = context.getStub();
+        // Use the transaction ID to produce a deterministic eventId across endorsers
+        String eventId = prosumerId + "_" + ctx.getStub().getTxId();
+        TotalsDelta ppaDelta = new TotalsDelta();
+        TotalsDelta prosumerDelta = new TotalsDelta();
+        Map<String, TotalsDelta> rollupDeltas = new LinkedHashMap<>();
+        GenerationResult result = recordGeneration(ctx, prosumer, ppa, readTariffIndex(ctx, ppa.getAgreementId()),
+                meterId, generatedKWh, timestamp, eventId, ppaDelta, prosumerDelta, rollupDeltas);
 
-        try {
-            Prosumer prosumer = getProsumer(context, prosumerId);
-            String agreementId = findOrCreatePPA(context, prosumerId, buyerId);
-            SimplifiedPPA ppa = getPPA(context, agreementId);
+        putTotalsDelta(ctx, PPA_TOTALS, ppa.getAgreementId(), ppaDelta);
+        putTotalsDelta(ctx, PROSUMER_TOTALS, prosumerId, prosumerDelta);
+        putRollupDeltas(ctx, rollupDeltas);
 
-            double tokensToIssue = generatedKWh * TOKEN_TO_KWH_RATIO;
-            double invoiceValue = generatedKWh * ppa.getTariffPerKWh();
+        return writeResponse(generator -> writeGenerationResult(generator, result));
+    }
 
-            // Use the transaction ID to produce a deterministic eventId across endorsers
-            String txId = stub.getTxId();
-            String eventId = prosumerId + "_" + txId;
-            GenerationEvent event = new GenerationEvent(eventId, prosumerId, meterId,
-                    generatedKWh, timestamp, agreementId,
-                    tokensToIssue, invoiceValue);
+    // Processes the JSON array of MeterReading passed in the transient map under "readings".
+    // Every reading gets its own event and credit; one totals delta is written per touched PPA and prosumer.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String processElectricityGenerationBatch(final Context context) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
 
-            String tokenId = "TOKEN_" + eventId;
-            EnergyCredit energyToken = new EnergyCredit(tokenId, prosumerId, generatedKWh,
-                    "SOLAR", prosumerId, ppa.getTariffPerKWh(),
-                    prosumer.getLocation(), true);
+        byte[] readingsJSON = stub.getTransient().get(READINGS_TRANSIENT_KEY);
+        if (readingsJSON == null || readingsJSON.length == 0) {
+            throw new ChaincodeException("Transient field '" + READINGS_TRANSIENT_KEY + "' is required",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
 
-            ppa.setTotalEnergyGenerated(ppa.getTotalEnergyGenerated() + generatedKWh);
-            ppa.setTotalTokensIssued(ppa.getTotalTokensIssued() + tokensToIssue);
-            ppa.setTotalInvoiceValue(ppa.getTotalInvoiceValue() + invoiceValue);
+        List<MeterReading> readings;
+        try {
+            readings = readingsReader.readValue(readingsJSON);
+        } catch (IOException e) {
+            throw new ChaincodeException("Failed to parse meter readings", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
 
-            prosumer.setTotalEnergyGenerated(prosumer.getTotalEnergyGenerated() + generatedKWh);
+        if (readings == null || readings.isEmpty() || readings.size() > MAX_BATCH_SIZE) {
+            throw new ChaincodeException(String.format("A batch must contain between 1 and %d readings", MAX_BATCH_SIZE),
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
 
-            String eventJSON = objectMapper.writeValueAsString(event);
-            stub.putStringState("EVENT_" + eventId, eventJSON);
+        // Validate the whole batch before touching the ledger
+        for (int i = 0; i < readings.size(); i++) {
+            MeterReading reading = readings.get(i);
+            if (reading == null) {
+                throw new ChaincodeException("Reading " + i + " is empty", EnergyTradingErrors.INVALID_INPUT.toString());
+            }
+            validateReading(reading.getProsumerId(), reading.getGeneratedKWh(), reading.getMeterId(),
+                    reading.getTimestamp(), reading.getBuyerId());
+        }
 
-            String tokenJSON = objectMapper.writeValueAsString(energyToken);
-            stub.putStringState("CREDIT_" + tokenId, tokenJSON);
+        Map<String, SimplifiedPPA> ppas = new LinkedHashMap<>(); // keyed by prosumer~buyer index key
+        Map<String, TariffIndex> tariffs = new LinkedHashMap<>(); // keyed by agreement id
+        Map<String, TotalsDelta> prosumerDeltas = new LinkedHashMap<>();
+        Map<String, TotalsDelta> ppaDeltas = new LinkedHashMap<>();
+        Map<String, TotalsDelta> rollupDeltas = new LinkedHashMap<>();
+        List<GenerationResult> results = new ArrayList<>(readings.size());
+        String txId = stub.getTxId();
 
-            String ppaJSON = objectMapper.writeValueAsString(ppa);
-            stub.putStringState("PPA_" + agreementId, ppaJSON);
+        for (int i = 0; i < readings.size(); i++) {
+            MeterReading reading = readings.get(i);
+            // Also catches a reading repeated within the batch, as recordGeneration writes through the context
+            GenerationResult recorded = readRecordedReading(ctx, reading.getProsumerId(), reading.getMeterId(),
+                    reading.getTimestamp());
+            if (recorded != null) {
+                results.add(recorded);
+                continue;
+            }
 
-            String prosumerJSON = objectMapper.writeValueAsString(prosumer);
-            stub.putStringState("PROSUMER_" + prosumerId, prosumerJSON);
+            Prosumer prosumer = readProsumer(ctx, reading.getProsumerId());
+            SimplifiedPPA ppa = ppas.computeIfAbsent(ppaIndexKey(stub, reading.getProsumerId(), reading.getBuyerId()),
+                    indexKey -> findOrCreatePPA(context, reading.getProsumerId(), reading.getBuyerId()));
 
-            return String.format("{\"status\":\"SUCCESS\",\"eventId\":\"%s\",\"tokenId\":\"%s\",\"tokensIssued\":%.2f,\"invoiceValue\":%.2f,\"agreementId\":\"%s\"}",
-                    eventId, tokenId, tokensToIssue, invoiceValue, agreementId);
+            String eventId = reading.getProsumerId() + "_" + txId + "_" + i;
+            TariffIndex tariff = tariffs.computeIfAbsent(ppa.getAgreementId(), id -> readTariffIndex(ctx, id));
+            results.add(recordGeneration(ctx, prosumer, ppa, tariff, reading.getMeterId(),
+                    reading.getGeneratedKWh(), reading.getTimestamp(), eventId,
+                    ppaDeltas.computeIfAbsent(ppa.getAgreementId(), id -> new TotalsDelta()),
+                    prosumerDeltas.computeIfAbsent(prosumer.getProsumerId(), id -> new TotalsDelta()),
+                    rollupDeltas));
+        }
 
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to process electricity generation", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        for (Map.Entry<String, TotalsDelta> delta : ppaDeltas.entrySet()) {
+            putTotalsDelta(ctx, PPA_TOTALS, delta.getKey(), delta.getValue());
         }
+        for (Map.Entry<String, TotalsDelta> delta : prosumerDeltas.entrySet()) {
+            putTotalsDelta(ctx, PROSUMER_TOTALS, delta.getKey(), delta.getValue());
+        }
+        putRollupDeltas(ctx, rollupDeltas);
+
+        return writeResponse(generator -> {
+            generator.writeStartArray();
+            for (GenerationResult result : results) {
+                writeGenerationResult(generator, result);
+            }
+            generator.writeEndArray();
+        });
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -200,12 +623,11 @@ public class EnergyTradingContract implements ContractInterface {
         validateInput("tariffPerKWh", tariffPerKWh, MIN_TARIFF, MAX_TARIFF);
         validateDateRange(startDate, endDate);
 
-        ChaincodeStub stub = context.getStub();
+        EnergyTradingContext ctx = tradingContext(context);
 
         String ppaKey = "PPA_" + agreementId;
-        String ppaJSON = stub.getStringState(ppaKey);
 
-        if (!ppaJSON.isEmpty()) {
+        if (ctx.exists(ppaKey)) {
             String errorMessage = String.format("PPA %s already exists", agreementId);
             throw new ChaincodeException(errorMessage, EnergyTradingErrors.PPA_ALREADY_EXISTS.toString());
         }
@@ -213,164 +635,1726 @@ public class EnergyTradingContract implements ContractInterface {
         SimplifiedPPA ppa = new SimplifiedPPA(agreementId, prosumerId, buyerId,
                 tariffPerKWh, startDate, endDate);
 
-        try {
-            ppaJSON = objectMapper.writeValueAsString(ppa);
-            stub.putStringState(ppaKey, ppaJSON);
-            return ppa;
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to serialize PPA", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        ctx.put(ppaKey, ppa);
+        indexPPA(ctx.getStub(), ppa);
+        ctx.addEvent(new TradingEvent("PPA_CREATED", prosumerId, agreementId, buyerId,
+                null, null, null, null, null));
+        return ppa;
+    }
+
+    // Backfills the prosumer~buyer index for up to limit PPA_ keys written before the index existed, starting at
+    // startKey (empty for the first batch). Returns {"indexed", "bookmark"}; pass the bookmark back as startKey
+    // until it comes back empty. Fabric does not page range queries in a submit, so the batch is bounded here.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String migratePPAIndex(final Context context, final int limit, final String startKey) {
+        int batchSize = validatePageSize(limit);
+        String from = startKey == null || startKey.isEmpty() ? "PPA_" : startKey;
+        if (!from.startsWith("PPA_")) {
+            throw new ChaincodeException("startKey must be a PPA_ key", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        ChaincodeStub stub = ctx.getStub();
+        Set<String> indexedKeys = new HashSet<>();
+        int scanned = 0;
+        int indexed = 0;
+        String bookmark = "";
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByRange(from, "PPA_~");
+        for (KeyValue result : results) {
+            if (scanned >= batchSize) {
+                bookmark = result.getKey();
+                break;
+            }
+            scanned++;
+            try {
+                SimplifiedPPA ppa = codec.decode(result.getValue(), SimplifiedPPA.class);
+                String indexKey = ppaIndexKey(stub, ppa.getProsumerId(), ppa.getBuyerId());
+                // Writes are not visible to reads in the same transaction, so track this run's keys locally
+                if (indexedKeys.add(indexKey) && stub.getStringState(indexKey).isEmpty()) {
+                    stub.putStringState(indexKey, ppa.getAgreementId());
+                    indexed++;
+                }
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
         }
+
+        int indexedCount = indexed;
+        String nextKey = bookmark;
+        return writeResponse(generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("indexed", indexedCount);
+            generator.writeStringField("bookmark", nextKey);
+            generator.writeEndObject();
+        });
     }
 
+    // Running totals are the stored PPA totals plus every delta not yet compacted
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public SimplifiedPPA getPPA(final Context context, final String agreementId) {
-        ChaincodeStub stub = context.getStub();
-        String ppaKey = "PPA_" + agreementId;
-        String ppaJSON = stub.getStringState(ppaKey);
+        EnergyTradingContext ctx = tradingContext(context);
+        SimplifiedPPA ppa = readPPA(ctx, agreementId);
+        TotalsDelta totals = sumTotalsDeltas(ctx, PPA_TOTALS, agreementId);
+        ppa.setTotalEnergyGenerated(ppa.getTotalEnergyGenerated() + totals.getEnergyGenerated());
+        ppa.setTotalTokensIssued(ppa.getTotalTokensIssued() + totals.getTokensIssued());
+        ppa.setTotalInvoiceValue(ppa.getTotalInvoiceValue() + totals.getInvoiceValue());
+        return ppa;
+    }
 
-        if (ppaJSON.isEmpty()) {
-            String errorMessage = String.format("PPA %s does not exist", agreementId);
-            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PPA_NOT_FOUND.toString());
+    // Attaches the TariffSchedule passed in the transient map under "tariffSchedule" to an agreement, replacing
+    // any earlier one. Tariffs are commercial, so the schedule goes to the commercial collection when one is set.
+    // The schedule prices every later reading on the agreement, so only an organization admin may set it.
+    // Returns the number of rates stored.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int setTariffSchedule(final Context context, final String agreementId) {
+        if (agreementId == null || agreementId.trim().isEmpty()) {
+            throw new ChaincodeException("agreementId is required", EnergyTradingErrors.INVALID_INPUT.toString());
         }
 
-        try {
-            return objectMapper.readValue(ppaJSON, SimplifiedPPA.class);
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to deserialize PPA", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        ChaincodeStub stub = ctx.getStub();
+        readPPA(ctx, agreementId);
+
+        byte[] scheduleJSON = stub.getTransient().get(TARIFF_TRANSIENT_KEY);
+        if (scheduleJSON == null || scheduleJSON.length == 0) {
+            throw new ChaincodeException("Transient field '" + TARIFF_TRANSIENT_KEY + "' is required",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
         }
-    }
 
-    @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String getGenerationEvents(final Context context, final String prosumerId) {
-        ChaincodeStub stub = context.getStub();
-        List<GenerationEvent> events = new ArrayList<>();
+        TariffSchedule parsed;
+        try {
+            parsed = objectMapper.readValue(scheduleJSON, TariffSchedule.class);
+        } catch (IOException e) {
+            throw new ChaincodeException("Failed to parse tariff schedule", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
 
-        QueryResultsIterator<KeyValue> results = stub.getStateByRange("EVENT_", "EVENT_~");
-        for (KeyValue result : results) {
-            try {
-                GenerationEvent event = objectMapper.readValue(result.getStringValue(), GenerationEvent.class);
-                if (prosumerId.equals(event.getProsumerId())) {
-                    events.add(event);
-                }
-            } catch (JsonProcessingException e) {
-                // Skip invalid records
+        List<TariffRate> rates = parsed == null ? null : parsed.getRates();
+        if (rates == null || rates.isEmpty() || rates.size() > MAX_TARIFF_RATES) {
+            throw new ChaincodeException(String.format("A tariff schedule must contain between 1 and %d rates",
+                    MAX_TARIFF_RATES), EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        for (TariffRate rate : rates) {
+            if (rate != null) {
+                validateInput("tariffPerKWh", rate.getTariffPerKWh(), MIN_TARIFF, MAX_TARIFF);
             }
         }
 
+        // The agreement id comes from the argument, whatever the transient value says
+        TariffSchedule schedule = new TariffSchedule(agreementId, parsed.getUtcOffset(), rates);
         try {
-            return objectMapper.writeValueAsString(events);
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to serialize events", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+            TariffIndex.compile(schedule);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ChaincodeException(e.getMessage(), EnergyTradingErrors.INVALID_INPUT.toString());
         }
+
+        ctx.putPrivate(tariffKey(agreementId), schedule);
+        return rates.size();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String getAvailableTokens(final Context context) {
-        ChaincodeStub stub = context.getStub();
-        List<EnergyCredit> availableTokens = new ArrayList<>();
+    public TariffSchedule getTariffSchedule(final Context context, final String agreementId) {
+        EnergyTradingContext ctx = tradingContext(context);
+        String key = tariffKey(agreementId);
+        TariffSchedule schedule;
+        try {
+            String collection = ctx.getCommercialCollection();
+            byte[] bytes = collection.isEmpty() ? null : ctx.getStub().getPrivateData(collection, key);
+            schedule = bytes != null && bytes.length > 0
+                    ? codec.decode(bytes, TariffSchedule.class) : ctx.get(key, TariffSchedule.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize tariff schedule",
+                    EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
 
-        QueryResultsIterator<KeyValue> results = stub.getStateByRange("CREDIT_", "CREDIT_~");
-        for (KeyValue result : results) {
-            try {
-                EnergyCredit token = objectMapper.readValue(result.getStringValue(), EnergyCredit.class);
-                if (Boolean.TRUE.equals(token.isAvailable())) { // ✅ Null-safe boolean check
-                    availableTokens.add(token);
-                }
-            } catch (JsonProcessingException e) {
-                // Skip invalid records
-                System.err.println("Error parsing token data: " + e.getMessage());
-            }
+        if (schedule == null) {
+            String errorMessage = String.format("PPA %s has no tariff schedule", agreementId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.TARIFF_NOT_FOUND.toString());
         }
+        return schedule;
+    }
+
+    private String tariffKey(String agreementId) {
+        return "TARIFF_" + agreementId;
+    }
 
+    // The compiled schedule of an agreement, or TariffIndex.NONE when it has none. Compiled once per stored
+    // schedule and shared by every transaction that prices against it.
+    private TariffIndex readTariffIndex(EnergyTradingContext ctx, String agreementId) {
+        TariffIndex index;
         try {
-            return objectMapper.writeValueAsString(availableTokens);
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to serialize tokens", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+            index = ctx.getCompiled(tariffKey(agreementId), TariffIndex.class,
+                    bytes -> TariffIndex.compile(codec.decode(bytes, TariffSchedule.class)));
+        } catch (CodecException | IllegalArgumentException | DateTimeException e) {
+            throw new ChaincodeException("Failed to compile tariff schedule of PPA " + agreementId,
+                    EnergyTradingErrors.JSON_PARSING_ERROR.toString());
         }
+        return index == null ? TariffIndex.NONE : index;
     }
 
+    // Folds up to limit totals deltas of a PPA or prosumer into a single delta keyed by this transaction.
+    // Generation never reads the delta range, so a concurrent reading can only fail the compaction, not itself.
+    // Organization admins only, as for every maintenance transaction.
     @Transaction(intent = Transaction.TYPE.SUBMIT)
-    public Prosumer registerProsumer(final Context context, final String prosumerId,
-                                     final String name, final String location,
-                                     final double solarCapacityKW, final String organizationMSP) {
-        ChaincodeStub stub = context.getStub();
+    public int compactTotals(final Context context, final String entityType, final String entityId, final int limit) {
+        if (!PPA_TOTALS.equals(entityType) && !PROSUMER_TOTALS.equals(entityType)) {
+            throw new ChaincodeException(String.format("entityType must be %s or %s", PPA_TOTALS, PROSUMER_TOTALS),
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        if (entityId == null || entityId.trim().isEmpty()) {
+            throw new ChaincodeException("entityId is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
 
-        String prosumerKey = "PROSUMER_" + prosumerId;
-        String prosumerJSON = stub.getStringState(prosumerKey);
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        return foldDeltas(ctx, new CompositeKey(TOTALS_DELTA, entityType, entityId),
+                totalsDeltaKey(ctx.getStub(), entityType, entityId), validatePageSize(limit));
+    }
 
-        if (!prosumerJSON.isEmpty()) {
-            String errorMessage = String.format("Prosumer %s already exists", prosumerId);
-            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PROSUMER_ALREADY_EXISTS.toString());
+    // Folds up to limit deltas of one rollup bucket, like compactTotals; closed buckets no longer receive writes
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int compactRollup(final Context context, final String series, final String entityId,
+                             final String bucket, final int limit) {
+        if (!PROSUMER_HOURLY.equals(series) && !PROSUMER_DAILY.equals(series) && !PPA_DAILY.equals(series)) {
+            throw new ChaincodeException(String.format("series must be %s, %s or %s",
+                    PROSUMER_HOURLY, PROSUMER_DAILY, PPA_DAILY), EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        if (entityId == null || entityId.trim().isEmpty() || bucket == null || bucket.trim().isEmpty()) {
+            throw new ChaincodeException("entityId and bucket are required", EnergyTradingErrors.INVALID_INPUT.toString());
         }
 
-        Prosumer prosumer = new Prosumer(prosumerId, name, location, solarCapacityKW, organizationMSP);
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        return foldDeltas(ctx, new CompositeKey(ROLLUP_DELTA, series, entityId, bucket),
+                rollupDeltaKey(ctx.getStub(), series, entityId, bucket), validatePageSize(limit));
+    }
 
-        try {
-            prosumerJSON = objectMapper.writeValueAsString(prosumer);
-            stub.putStringState(prosumerKey, prosumerJSON);
-            return prosumer;
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to serialize prosumer", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+    // Generation per UTC hour between two reading timestamps, one entry per hour that has readings
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getProsumerHourlyGeneration(final Context context, final String prosumerId,
+                                              final String fromTs, final String toTs) {
+        if (prosumerId == null || prosumerId.trim().isEmpty() ||
+            fromTs == null || fromTs.trim().isEmpty() ||
+            toTs == null || toTs.trim().isEmpty()) {
+            throw new ChaincodeException("prosumerId, fromTs and toTs are required",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        long fromMillis = parseTimestamp(fromTs);
+        long toMillis = parseTimestamp(toTs);
+        if (fromMillis > toMillis) {
+            throw new ChaincodeException(EnergyTradingErrors.INVALID_DATE_RANGE.getMessage(),
+                    EnergyTradingErrors.INVALID_DATE_RANGE.toString());
         }
+
+        List<String> buckets = new ArrayList<>();
+        LocalDateTime hour = hourOf(fromMillis);
+        LocalDateTime lastHour = hourOf(toMillis);
+        while (!hour.isAfter(lastHour)) {
+            buckets.add(HOUR_BUCKET_FORMATTER.format(hour));
+            if (buckets.size() > MAX_SERIES_BUCKETS) {
+                throw new ChaincodeException(String.format("A series can span at most %d buckets", MAX_SERIES_BUCKETS),
+                        EnergyTradingErrors.INVALID_INPUT.toString());
+            }
+            hour = hour.plusHours(1);
+        }
+        return readSeries(tradingContext(context), PROSUMER_HOURLY, prosumerId, buckets);
     }
 
+    // Generation per UTC day between two dates (yyyy-MM-dd), one entry per day that has readings
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public Prosumer getProsumer(final Context context, final String prosumerId) {
-        ChaincodeStub stub = context.getStub();
-        String prosumerKey = "PROSUMER_" + prosumerId;
-        String prosumerJSON = stub.getStringState(prosumerKey);
+    public String getProsumerDailyGeneration(final Context context, final String prosumerId,
+                                             final String fromDate, final String toDate) {
+        return readSeries(tradingContext(context), PROSUMER_DAILY, prosumerId, dayBuckets(prosumerId, fromDate, toDate));
+    }
 
-        if (prosumerJSON.isEmpty()) {
-            String errorMessage = String.format("Prosumer %s does not exist", prosumerId);
-            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PROSUMER_NOT_FOUND.toString());
-        }
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPPADailyGeneration(final Context context, final String agreementId,
+                                        final String fromDate, final String toDate) {
+        return readSeries(tradingContext(context), PPA_DAILY, agreementId, dayBuckets(agreementId, fromDate, toDate));
+    }
 
+    private SimplifiedPPA readPPA(EnergyTradingContext ctx, String agreementId) {
+        SimplifiedPPA ppa;
         try {
-            return objectMapper.readValue(prosumerJSON, Prosumer.class);
-        } catch (JsonProcessingException e) {
-            throw new ChaincodeException("Failed to deserialize prosumer", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+            ppa = ctx.get("PPA_" + agreementId, SimplifiedPPA.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize PPA", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (ppa == null) {
+            String errorMessage = String.format("PPA %s does not exist", agreementId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PPA_NOT_FOUND.toString());
         }
+        return ppa;
     }
 
-    private String findOrCreatePPA(Context context, String prosumerId, String buyerId) {
-        ChaincodeStub stub = context.getStub();
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getGenerationEvents(final Context context, final String prosumerId) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        List<GenerationEvent> events = new ArrayList<>();
 
-        QueryResultsIterator<KeyValue> results = stub.getStateByRange("PPA_", "PPA_~");
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(EVENT_INDEX, prosumerId);
         for (KeyValue result : results) {
             try {
-                SimplifiedPPA ppa = objectMapper.readValue(result.getStringValue(), SimplifiedPPA.class);
-                if (prosumerId.equals(ppa.getProsumerId()) && buyerId.equals(ppa.getBuyerId())) {
-                    return ppa.getAgreementId();
-                }
-            } catch (JsonProcessingException e) {
+                events.add(ctx.decode(result, GenerationEvent.class));
+            } catch (CodecException e) {
                 // Skip invalid records
             }
         }
 
-    // Use the transaction ID to produce a deterministic agreement id
-    String txId = context.getStub().getTxId();
-    String newAgreementId = "PPA_" + prosumerId + "_" + buyerId + "_" + txId;
-    createPPA(context, newAgreementId, prosumerId, buyerId, 4.5, "2025-01-01", "2030-12-31");
-        return newAgreementId;
+        try {
+            return eventsWriter.writeValueAsString(events);
+        } catch (JsonProcessingException e) {
+            throw new ChaincodeException("Failed to serialize events", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
     }
 
-    private void createSampleProsumer(Context context, String id, String name, String location,
-                                      double capacity, String msp) {
-        try {
-            registerProsumer(context, id, name, location, capacity, msp);
-            System.out.println("Successfully created sample prosumer: " + id);
-        } catch (ChaincodeException e) {
-            System.out.println("Sample prosumer already exists: " + e.getMessage());
+    // Returns one page of a prosumer's events with fromTs <= timestamp <= toTs, oldest first.
+    // The bookmark is the UTC day being read (yyyyMMdd) followed by the peer bookmark within that day.
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getGenerationEventsPage(final Context context, final String prosumerId,
+                                          final String fromTs, final String toTs,
+                                          final int pageSize, final String bookmark) {
+
+        if (prosumerId == null || prosumerId.trim().isEmpty() ||
+            fromTs == null || fromTs.trim().isEmpty() ||
+            toTs == null || toTs.trim().isEmpty()) {
+            throw new ChaincodeException("prosumerId, fromTs and toTs are required",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        int limit = validatePageSize(pageSize);
+        long fromMillis = parseTimestamp(fromTs);
+        long toMillis = parseTimestamp(toTs);
+        if (fromMillis > toMillis) {
+            throw new ChaincodeException(EnergyTradingErrors.INVALID_DATE_RANGE.getMessage(),
+                    EnergyTradingErrors.INVALID_DATE_RANGE.toString());
+        }
+
+        LocalDate day = dayOf(fromMillis);
+        LocalDate lastDay = dayOf(toMillis);
+        String dayBookmark = "";
+        if (bookmark != null && !bookmark.isEmpty()) {
+            try {
+                day = LocalDate.parse(bookmark.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+                dayBookmark = bookmark.substring(8);
+            } catch (IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new ChaincodeException("Invalid bookmark", EnergyTradingErrors.INVALID_INPUT.toString());
+            }
+        }
+
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        List<GenerationEvent> events = new ArrayList<>();
+        int fetched = 0;
+        String nextBookmark = "";
+
+        while (!day.isAfter(lastDay)) {
+            String dayKey = DateTimeFormatter.BASIC_ISO_DATE.format(day);
+            QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                    new CompositeKey(EVENT_INDEX, prosumerId, dayKey), limit - fetched, dayBookmark);
+
+            for (KeyValue result : results) {
+                fetched++;
+                // Only the first and last day can hold events outside the window; filter on the key, not the value
+                long eventMillis = Long.parseLong(stub.splitCompositeKey(result.getKey()).getAttributes().get(2));
+                if (eventMillis < fromMillis || eventMillis > toMillis) {
+                    continue;
+                }
+                try {
+                    events.add(ctx.decode(result, GenerationEvent.class));
+                } catch (CodecException e) {
+                    // Skip invalid records
+                }
+            }
+
+            String peerBookmark = results.getMetadata().getBookmark();
+            if (!peerBookmark.isEmpty()) {
+                nextBookmark = dayKey + peerBookmark;
+                break;
+            }
+            day = day.plusDays(1);
+            dayBookmark = "";
+            if (fetched >= limit) {
+                nextBookmark = day.isAfter(lastDay) ? "" : DateTimeFormatter.BASIC_ISO_DATE.format(day);
+                break;
+            }
         }
+
+        return toPageJSON(events, fetched, nextBookmark);
     }
 
-    private void createSamplePPA(Context context, String agreementId, String prosumerId,
+    // Moves up to limit legacy EVENT_ records into the prosumer~day~event keyspace; call until it returns 0
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int migrateGenerationEvents(final Context context, final int limit) {
+        requireAdmin(tradingContext(context));
+        int batchSize = validatePageSize(limit);
+        ChaincodeStub stub = context.getStub();
+        int migrated = 0;
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByRange("EVENT_", "EVENT_~");
+        for (KeyValue result : results) {
+            if (migrated >= batchSize) {
+                break;
+            }
+            try {
+                GenerationEvent event = codec.decode(result.getValue(), GenerationEvent.class);
+                stub.putState(eventKey(stub, event), result.getValue());
+                stub.delState(result.getKey());
+                migrated++;
+            } catch (CodecException e) {
+                // Skip invalid records
+            }
+        }
+        return migrated;
+    }
+
+    // Folds up to limit of a prosumer's events older than EVENT_RETENTION_DAYS into per-day EventArchive
+    // summaries and deletes them, together with the spent credits they minted and their meter~reading keys;
+    // call until it returns 0. Every day touched gets an ArchiveManifest listing the deleted keys, whose values
+    // stay in key history, and the rollup deltas of its buckets are folded to one per bucket.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int archiveGenerationEvents(final Context context, final String prosumerId, final int limit) {
+        if (prosumerId == null || prosumerId.trim().isEmpty()) {
+            throw new ChaincodeException("prosumerId is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        int batchSize = validatePageSize(limit);
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        ChaincodeStub stub = ctx.getStub();
+        String cutoffDay = DateTimeFormatter.BASIC_ISO_DATE.format(
+                dayOf(stub.getTxTimestamp().toEpochMilli()).minusDays(EVENT_RETENTION_DAYS));
+
+        ArchiveSlice slice = null;
+        int archived = 0;
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(EVENT_INDEX, prosumerId);
+        for (KeyValue result : results) {
+            // Keys are ordered by day, so the first one inside the retention window ends the slice
+            String day = stub.splitCompositeKey(result.getKey()).getAttributes().get(1);
+            if (archived >= batchSize || day.compareTo(cutoffDay) >= 0) {
+                break;
+            }
+            GenerationEvent event;
+            try {
+                event = codec.decode(result.getValue(), GenerationEvent.class);
+            } catch (CodecException e) {
+                continue; // Skip invalid records
+            }
+
+            if (slice == null || !slice.day.equals(day)) {
+                if (slice != null) {
+                    writeArchiveSlice(ctx, slice);
+                }
+                slice = new ArchiveSlice(prosumerId, day);
+            }
+            slice.addEvent(result.getKey(), result.getValue(), event);
+            ctx.delete(result.getKey());
+            archiveSpentCredit(ctx, slice, "TOKEN_" + event.getEventId());
+            archiveRecordedReading(ctx, slice, event);
+            archived++;
+        }
+        if (slice != null) {
+            writeArchiveSlice(ctx, slice);
+        }
+        return archived;
+    }
+
+    // day is yyyy-MM-dd, UTC
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public EventArchive getEventArchive(final Context context, final String prosumerId, final String day) {
+        EnergyTradingContext ctx = tradingContext(context);
+        EventArchive archive;
+        try {
+            archive = ctx.get(ctx.getStub().createCompositeKey(EVENT_ARCHIVE, prosumerId, archiveDay(day)).toString(),
+                    EventArchive.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize event archive", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (archive == null) {
+            String errorMessage = String.format("No archived events for prosumer %s on %s", prosumerId, day);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.ARCHIVE_NOT_FOUND.toString());
+        }
+        return archive;
+    }
+
+    // The manifests of every slice archived for a prosumer and day (yyyy-MM-dd, UTC), in no particular order
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getArchiveManifests(final Context context, final String prosumerId, final String day) {
+        EnergyTradingContext ctx = tradingContext(context);
+        List<ArchiveManifest> manifests = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(ARCHIVE_MANIFEST,
+                prosumerId, archiveDay(day));
+        for (KeyValue result : results) {
+            try {
+                manifests.add(ctx.decode(result, ArchiveManifest.class));
+            } catch (CodecException e) {
+                // Skip invalid records
+            }
+        }
+        return writeResponse(generator -> generator.writeObject(manifests));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAvailableTokens(final Context context) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        List<EnergyCredit> availableTokens = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(AVAILABLE_CREDIT);
+        for (KeyValue result : results) {
+            try {
+                availableTokens.add(ctx.decode(result, EnergyCredit.class));
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+
+        try {
+            return creditsWriter.writeValueAsString(availableTokens);
+        } catch (JsonProcessingException e) {
+            throw new ChaincodeException("Failed to serialize tokens", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAvailableTokensPage(final Context context, final int pageSize, final String bookmark) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        List<EnergyCredit> availableTokens = new ArrayList<>();
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                new CompositeKey(AVAILABLE_CREDIT), validatePageSize(pageSize), bookmark == null ? "" : bookmark);
+        for (KeyValue result : results) {
+            try {
+                availableTokens.add(ctx.decode(result, EnergyCredit.class));
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+
+        return toPageJSON(availableTokens, results.getMetadata().getFetchedRecordsCount(),
+                results.getMetadata().getBookmark());
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public EnergyCredit getEnergyCredit(final Context context, final String tokenId) {
+        return readCredit(tradingContext(context), tokenId);
+    }
+
+    // Moves up to limit available legacy CREDIT_ records into the available~credit keyspace; call until it returns 0
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int migrateAvailableTokens(final Context context, final int limit) {
+        int batchSize = validatePageSize(limit);
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        int migrated = 0;
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByRange("CREDIT_", "CREDIT_~");
+        for (KeyValue result : results) {
+            if (migrated >= batchSize) {
+                break;
+            }
+            try {
+                // Read as a single entity, so the tariff it is written back with is not the public zero
+                EnergyCredit token = ctx.get(result.getKey(), EnergyCredit.class);
+                if (token.isAvailable()) {
+                    putCredit(ctx, token);
+                    migrated++;
+                }
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+        return migrated;
+    }
+
+    // Places a bid for quantity kWh at up to price per kWh; it fills against the best asks
+    // and any remainder rests in the book. The caller must be enrolled as the bidder.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String placeBid(final Context context, final String bidderId, final double price, final double quantity) {
+        if (bidderId == null || bidderId.trim().isEmpty()) {
+            throw new ChaincodeException("bidderId is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        validateInput("price", price, MIN_TARIFF, MAX_TARIFF);
+        validateInput("quantity", quantity, MIN_ENERGY, MAX_ENERGY);
+        if (quantity <= QUANTITY_EPSILON) {
+            throw new ChaincodeException("quantity must be greater than zero", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        EnergyTradingContext ctx = tradingContext(context);
+        requireParticipant(ctx, bidderId);
+        Order bid = newOrder(ctx.getStub(), BID, bidderId, null, price, quantity);
+        return writeOrderResult(bid, matchOrder(ctx, bid));
+    }
+
+    // Offers a whole available credit at price per kWh; only its owner may. Buyers may take part of it.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String placeAsk(final Context context, final String tokenId, final double price) {
+        validateInput("price", price, MIN_TARIFF, MAX_TARIFF);
+
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        EnergyCredit credit = readCredit(ctx, tokenId);
+        requireParticipant(ctx, credit.getOwnerId());
+        if (!credit.isAvailable() || !stub.getStringState(tokenAskKey(stub, tokenId)).isEmpty()) {
+            String errorMessage = String.format("Energy credit %s is spent or already offered", tokenId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.CREDIT_NOT_AVAILABLE.toString());
+        }
+
+        Order ask = newOrder(stub, ASK, credit.getOwnerId(), tokenId, price, credit.getEnergyAmount());
+        List<Trade> trades = matchOrder(ctx, ask);
+        if (ORDER_OPEN.equals(ask.getStatus())) {
+            stub.putStringState(tokenAskKey(stub, tokenId), ask.getOrderId());
+        }
+        return writeOrderResult(ask, trades);
+    }
+
+    // Only the participant who placed the order may cancel it
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Order cancelOrder(final Context context, final String orderId) {
+        EnergyTradingContext ctx = tradingContext(context);
+        Order order = readOrder(ctx, orderId);
+        requireParticipant(ctx, order.getParticipantId());
+        if (!ORDER_OPEN.equals(order.getStatus())) {
+            String errorMessage = String.format("Order %s is %s", orderId, order.getStatus());
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.ORDER_NOT_OPEN.toString());
+        }
+
+        order.setStatus(ORDER_CANCELLED);
+        closeOrder(ctx, order);
+        return order;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public Order getOrder(final Context context, final String orderId) {
+        return readOrder(tradingContext(context), orderId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public Trade getTrade(final Context context, final String tradeId) {
+        Trade trade;
+        try {
+            trade = tradingContext(context).get("TRADE_" + tradeId, Trade.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize trade", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (trade == null) {
+            String errorMessage = String.format("Trade %s does not exist", tradeId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        return trade;
+    }
+
+    // Returns up to depth open orders on one side, best price first
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getOrderBook(final Context context, final String side, final int depth) {
+        if (!BID.equals(side) && !ASK.equals(side)) {
+            throw new ChaincodeException("side must be BID or ASK", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        EnergyTradingContext ctx = tradingContext(context);
+        int limit = validatePageSize(depth);
+        List<Order> orders = new ArrayList<>();
+
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(ORDER_BOOK, side);
+        for (KeyValue result : results) {
+            if (orders.size() >= limit) {
+                break;
+            }
+            try {
+                orders.add(codec.decode(result.getValue(), Order.class));
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+
+        try {
+            return ordersWriter.writeValueAsString(orders);
+        } catch (JsonProcessingException e) {
+            throw new ChaincodeException("Failed to serialize orders", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+    }
+
+    // Submits, or replaces, the bidder's single bid for an auction interval; the caller must be enrolled
+    // as the bidder. The key is unique to the bidder and interval and written blind, so concurrent
+    // submissions never conflict.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Order submitAuctionBid(final Context context, final String intervalId, final String bidderId,
+                                  final double price, final double quantity) {
+        if (bidderId == null || bidderId.trim().isEmpty()) {
+            throw new ChaincodeException("bidderId is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        validateInput("price", price, MIN_TARIFF, MAX_TARIFF);
+        validateInput("quantity", quantity, MIN_ENERGY, MAX_ENERGY);
+        if (quantity <= QUANTITY_EPSILON) {
+            throw new ChaincodeException("quantity must be greater than zero", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        requireParticipant(ctx, bidderId);
+        requireOpenInterval(ctx, intervalId);
+
+        Order bid = new Order("AUC_" + stub.getTxId(), BID, bidderId, null, price, quantity, quantity,
+                ORDER_OPEN, stub.getTxTimestamp().toEpochMilli());
+        ctx.put(stub.createCompositeKey(AUCTION_ORDER, intervalId, BID, bidderId).toString(), bid);
+        return bid;
+    }
+
+    // Offers a whole available credit into an auction interval; only its owner may. Offering the
+    // same credit again replaces the earlier price.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Order submitAuctionOffer(final Context context, final String intervalId, final String tokenId,
+                                    final double price) {
+        validateInput("price", price, MIN_TARIFF, MAX_TARIFF);
+
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        requireOpenInterval(ctx, intervalId);
+
+        EnergyCredit credit = readCredit(ctx, tokenId);
+        requireParticipant(ctx, credit.getOwnerId());
+        if (!credit.isAvailable()) {
+            String errorMessage = String.format("Energy credit %s is spent", tokenId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.CREDIT_NOT_AVAILABLE.toString());
+        }
+
+        Order offer = new Order("AUC_" + stub.getTxId(), ASK, credit.getOwnerId(), tokenId, price,
+                credit.getEnergyAmount(), credit.getEnergyAmount(), ORDER_OPEN, stub.getTxTimestamp().toEpochMilli());
+        ctx.put(stub.createCompositeKey(AUCTION_ORDER, intervalId, ASK, credit.getOwnerId(), tokenId).toString(), offer);
+        return offer;
+    }
+
+    // Clears an ended interval at the single price that maximises traded volume. Every bid at or above
+    // it and every offer at or below it trades at that price; the side with more volume is scaled
+    // down pro rata. Credits are split and settled as TRADE_ records, and the interval's bids and
+    // offers are replaced by its AuctionResult.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public AuctionResult clearAuction(final Context context, final String intervalId) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        LocalDateTime intervalStart = parseInterval(intervalId);
+        if (stub.getTxTimestamp().isBefore(intervalStart.plusMinutes(AUCTION_INTERVAL_MINUTES).toInstant(ZoneOffset.UTC))) {
+            String errorMessage = String.format("Auction interval %s has not ended", intervalId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.AUCTION_NOT_CLOSED.toString());
+        }
+        if (ctx.exists("AUCTION_" + intervalId)) {
+            String errorMessage = String.format("Auction interval %s is already cleared", intervalId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.AUCTION_CLOSED.toString());
+        }
+
+        List<Order> bids = readAuctionOrders(ctx, intervalId, BID);
+        List<Order> offers = readAuctionOrders(ctx, intervalId, ASK);
+        int bidCount = bids.size();
+        int offerCount = offers.size();
+
+        // Offers whose credit was spent, shrunk or put on the continuous book since submission drop out
+        offers.removeIf(offer -> {
+            EnergyCredit credit = readCredit(ctx, offer.getTokenId());
+            if (!credit.isAvailable() || !credit.getOwnerId().equals(offer.getParticipantId())
+                    || !stub.getStringState(tokenAskKey(stub, offer.getTokenId())).isEmpty()) {
+                return true;
+            }
+            offer.setRemaining(Math.min(offer.getRemaining(), credit.getEnergyAmount()));
+            return false;
+        });
+
+        double clearingTicks = clearingPriceTicks(bids, offers);
+        double clearingPrice = 0.0;
+        double clearedVolume = 0.0;
+        int tradeCount = 0;
+        if (clearingTicks >= 0) {
+            clearingPrice = clearingTicks / PRICE_TICKS_PER_UNIT;
+            bids.removeIf(bid -> priceTicks(bid.getPrice()) < clearingTicks);
+            offers.removeIf(offer -> priceTicks(offer.getPrice()) > clearingTicks);
+            double demand = bids.stream().mapToDouble(Order::getRemaining).sum();
+            double supply = offers.stream().mapToDouble(Order::getRemaining).sum();
+            clearedVolume = Math.min(demand, supply);
+            allocateProRata(demand > supply ? bids : offers, clearedVolume / Math.max(demand, supply));
+            tradeCount = settleAuction(ctx, bids, offers, clearingPrice);
+        }
+
+        AuctionResult result = new AuctionResult(intervalId, clearingPrice, clearedVolume, bidCount, offerCount,
+                tradeCount, stub.getTxId());
+        ctx.put("AUCTION_" + intervalId, result);
+        return result;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public AuctionResult getAuctionResult(final Context context, final String intervalId) {
+        AuctionResult result;
+        try {
+            result = tradingContext(context).get("AUCTION_" + intervalId, AuctionResult.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize auction result", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (result == null) {
+            String errorMessage = String.format("Auction interval %s is not cleared", intervalId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.AUCTION_NOT_CLOSED.toString());
+        }
+        return result;
+    }
+
+    // Hands amount kWh of the caller's credit to another owner; less than the whole credit splits a new
+    // credit off it, which keeps the original's tariff and availability
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public EnergyCredit transferCredit(final Context context, final String tokenId, final String toOwnerId,
+                                       final double amount) {
+        EnergyTradingContext ctx = tradingContext(context);
+        return applyTransfer(ctx, new CreditTransfer(tokenId, toOwnerId, amount), tokenId + "_" + ctx.getStub().getTxId());
+    }
+
+    // Applies the transfers in transient field 'transfers' in order, all or none; a token may appear
+    // more than once to split it between several owners. The caller must own every credit.
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String transferCredits(final Context context) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+
+        byte[] transfersJSON = stub.getTransient().get(TRANSFERS_TRANSIENT_KEY);
+        if (transfersJSON == null || transfersJSON.length == 0) {
+            throw new ChaincodeException("Transient field '" + TRANSFERS_TRANSIENT_KEY + "' is required",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        List<CreditTransfer> transfers;
+        try {
+            transfers = transfersReader.readValue(transfersJSON);
+        } catch (IOException e) {
+            throw new ChaincodeException("Failed to parse credit transfers", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (transfers == null || transfers.isEmpty() || transfers.size() > MAX_BATCH_SIZE) {
+            throw new ChaincodeException(String.format("A batch must contain between 1 and %d transfers", MAX_BATCH_SIZE),
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+
+        List<EnergyCredit> received = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            CreditTransfer transfer = transfers.get(i);
+            if (transfer == null) {
+                throw new ChaincodeException("Transfer " + i + " is empty", EnergyTradingErrors.INVALID_INPUT.toString());
+            }
+            received.add(applyTransfer(ctx, transfer, transfer.getTokenId() + "_" + stub.getTxId() + "_" + i));
+        }
+
+        try {
+            return creditsWriter.writeValueAsString(received);
+        } catch (JsonProcessingException e) {
+            throw new ChaincodeException("Failed to serialize tokens", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+    }
+
+    // One page of an owner's credits, spent or not, in token id order; reads that owner's index entries
+    // and resolves each through the credit's own key
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getCreditsByOwner(final Context context, final String ownerId, final int pageSize,
+                                    final String bookmark) {
+        EnergyTradingContext ctx = tradingContext(context);
+        ChaincodeStub stub = ctx.getStub();
+        List<EnergyCredit> credits = new ArrayList<>();
+
+        QueryResultsIteratorWithMetadata<KeyValue> results = stub.getStateByPartialCompositeKeyWithPagination(
+                new CompositeKey(OWNER_CREDIT, ownerId), validatePageSize(pageSize), bookmark == null ? "" : bookmark);
+        for (KeyValue result : results) {
+            // Taken from the key, since entries written before the index held ids carry a copy of the credit
+            String tokenId = stub.splitCompositeKey(result.getKey()).getAttributes().get(1);
+            try {
+                EnergyCredit credit = findCredit(ctx, tokenId);
+                if (credit != null) {
+                    credits.add(credit);
+                }
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+
+        return toPageJSON(credits, results.getMetadata().getFetchedRecordsCount(),
+                results.getMetadata().getBookmark());
+    }
+
+    // Indexes up to limit credits minted before the owner~credit index existed, or whose entry still holds
+    // a copy of the credit; call until it returns 0
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public int migrateOwnerIndex(final Context context, final int limit) {
+        int batchSize = validatePageSize(limit);
+        EnergyTradingContext ctx = tradingContext(context);
+        requireAdmin(ctx);
+        ChaincodeStub stub = ctx.getStub();
+        int migrated = indexCreditOwners(ctx, stub.getStateByPartialCompositeKey(AVAILABLE_CREDIT), batchSize);
+        if (migrated < batchSize) {
+            migrated += indexCreditOwners(ctx, stub.getStateByRange("CREDIT_", "CREDIT_~"), batchSize - migrated);
+        }
+        return migrated;
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Prosumer registerProsumer(final Context context, final String prosumerId,
+                                     final String name, final String location,
+                                     final double solarCapacityKW, final String organizationMSP) {
+        EnergyTradingContext ctx = tradingContext(context);
+
+        String prosumerKey = "PROSUMER_" + prosumerId;
+
+        if (ctx.exists(prosumerKey)) {
+            String errorMessage = String.format("Prosumer %s already exists", prosumerId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PROSUMER_ALREADY_EXISTS.toString());
+        }
+
+        Prosumer prosumer = new Prosumer(prosumerId, name, location, solarCapacityKW, organizationMSP);
+
+        ctx.put(prosumerKey, prosumer);
+        ctx.addEvent(new TradingEvent("PROSUMER_REGISTERED", prosumerId, null, null,
+                null, null, null, null, null));
+        return prosumer;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public Prosumer getProsumer(final Context context, final String prosumerId) {
+        EnergyTradingContext ctx = tradingContext(context);
+        Prosumer prosumer = readProsumer(ctx, prosumerId);
+        TotalsDelta totals = sumTotalsDeltas(ctx, PROSUMER_TOTALS, prosumerId);
+        prosumer.setTotalEnergyGenerated(prosumer.getTotalEnergyGenerated() + totals.getEnergyGenerated());
+        return prosumer;
+    }
+
+    private Prosumer readProsumer(EnergyTradingContext ctx, String prosumerId) {
+        Prosumer prosumer;
+        try {
+            prosumer = ctx.get("PROSUMER_" + prosumerId, Prosumer.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize prosumer", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (prosumer == null) {
+            String errorMessage = String.format("Prosumer %s does not exist", prosumerId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.PROSUMER_NOT_FOUND.toString());
+        }
+        return prosumer;
+    }
+
+    // Returns the created PPA directly on the auto-create path, since the ledger
+    // does not expose a transaction's own writes to its reads
+    private SimplifiedPPA findOrCreatePPA(Context context, String prosumerId, String buyerId) {
+        ChaincodeStub stub = context.getStub();
+
+        String agreementId = stub.getStringState(ppaIndexKey(stub, prosumerId, buyerId));
+        if (!agreementId.isEmpty()) {
+            return readPPA(tradingContext(context), agreementId);
+        }
+
+        // Use the transaction ID to produce a deterministic agreement id
+        String txId = stub.getTxId();
+        String newAgreementId = "PPA_" + prosumerId + "_" + buyerId + "_" + txId;
+        return createPPA(context, newAgreementId, prosumerId, buyerId, DEFAULT_TARIFF, "2025-01-01", "2030-12-31");
+    }
+
+    // Writes the event and credit for one reading and adds it to the PPA, prosumer and rollup deltas;
+    // the caller persists the deltas once all readings are applied
+    private GenerationResult recordGeneration(EnergyTradingContext ctx, Prosumer prosumer, SimplifiedPPA ppa,
+                                              TariffIndex tariffIndex, String meterId, double generatedKWh,
+                                              String timestamp, String eventId, TotalsDelta ppaDelta,
+                                              TotalsDelta prosumerDelta, Map<String, TotalsDelta> rollupDeltas) {
+        String prosumerId = prosumer.getProsumerId();
+        String agreementId = ppa.getAgreementId();
+        double tokensToIssue = generatedKWh * TOKEN_TO_KWH_RATIO;
+        // Priced by the band covering the reading's local time and size, else the agreement's flat tariff
+        double tariff = tariffIndex.resolve(parseTimestamp(timestamp), generatedKWh, ppa.getTariffPerKWh());
+        double invoiceValue = generatedKWh * tariff;
+
+        GenerationEvent event = new GenerationEvent(eventId, prosumerId, meterId,
+                generatedKWh, timestamp, agreementId,
+                tokensToIssue, invoiceValue);
+
+        String tokenId = "TOKEN_" + eventId;
+        EnergyCredit energyToken = new EnergyCredit(tokenId, prosumerId, generatedKWh,
+                "SOLAR", prosumerId, tariff,
+                prosumer.getLocation(), true);
+
+        ppaDelta.add(generatedKWh, tokensToIssue, invoiceValue);
+        prosumerDelta.add(generatedKWh, 0.0, 0.0);
+
+        ChaincodeStub stub = ctx.getStub();
+        long epochMillis = event.getTimestampMillis();
+        String day = DateTimeFormatter.BASIC_ISO_DATE.format(dayOf(epochMillis));
+        String hour = HOUR_BUCKET_FORMATTER.format(hourOf(epochMillis));
+        rollupDeltas.computeIfAbsent(rollupDeltaKey(stub, PROSUMER_HOURLY, prosumerId, hour), key -> new TotalsDelta())
+                .add(generatedKWh, tokensToIssue, invoiceValue);
+        rollupDeltas.computeIfAbsent(rollupDeltaKey(stub, PROSUMER_DAILY, prosumerId, day), key -> new TotalsDelta())
+                .add(generatedKWh, tokensToIssue, invoiceValue);
+        rollupDeltas.computeIfAbsent(rollupDeltaKey(stub, PPA_DAILY, agreementId, day), key -> new TotalsDelta())
+                .add(generatedKWh, tokensToIssue, invoiceValue);
+
+        ctx.put(eventKey(ctx.getStub(), event), event);
+        putCredit(ctx, energyToken);
+        addCreditEvent(ctx, "CREDIT_MINTED", energyToken, eventId);
+
+        GenerationResult result = new GenerationResult("SUCCESS", eventId, tokenId, tokensToIssue, invoiceValue, agreementId);
+        ctx.put(meterReadingKey(stub, meterId, epochMillis), result);
+        return result;
+    }
+
+    private String meterReadingKey(ChaincodeStub stub, String meterId, long epochMillis) {
+        return stub.createCompositeKey(METER_READING, meterId, String.format("%013d", epochMillis)).toString();
+    }
+
+    // One point read; the key is on the instant, so offsets that name the same moment are the same reading.
+    // Returns the original result marked DUPLICATE, or null for a new reading. Archiving deletes the keys of the
+    // readings it archives, so a reading for a day that is already archived is rejected; only readings older
+    // than the retention window pay the extra read of the day's archive.
+    private GenerationResult readRecordedReading(EnergyTradingContext ctx, String prosumerId, String meterId,
+                                                 String timestamp) {
+        ChaincodeStub stub = ctx.getStub();
+        long epochMillis = parseTimestamp(timestamp);
+        GenerationResult recorded;
+        try {
+            recorded = ctx.get(meterReadingKey(stub, meterId, epochMillis), GenerationResult.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize recorded reading", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+        if (recorded == null) {
+            LocalDate day = dayOf(epochMillis);
+            if (day.isBefore(dayOf(stub.getTxTimestamp().toEpochMilli()).minusDays(EVENT_RETENTION_DAYS))
+                    && ctx.exists(stub.createCompositeKey(EVENT_ARCHIVE, prosumerId,
+                            DateTimeFormatter.BASIC_ISO_DATE.format(day)).toString())) {
+                String errorMessage = String.format("Readings of prosumer %s on %s are archived", prosumerId, day);
+                throw new ChaincodeException(errorMessage, EnergyTradingErrors.VALUE_OUT_OF_RANGE.toString());
+            }
+            return null;
+        }
+        return new GenerationResult("DUPLICATE", recorded.getEventId(), recorded.getTokenId(),
+                recorded.getTokensIssued(), recorded.getInvoiceValue(), recorded.getAgreementId());
+    }
+
+    private String totalsDeltaKey(ChaincodeStub stub, String entityType, String entityId) {
+        return stub.createCompositeKey(TOTALS_DELTA, entityType, entityId, stub.getTxId()).toString();
+    }
+
+    // Blind write: the key is unique to this transaction, so no read of the current totals is needed
+    private void putTotalsDelta(EnergyTradingContext ctx, String entityType, String entityId, TotalsDelta delta) {
+        ctx.put(totalsDeltaKey(ctx.getStub(), entityType, entityId), delta);
+    }
+
+    // Prosumer deltas carry no invoice value, so only agreement totals read the commercial collection
+    private TotalsDelta sumTotalsDeltas(EnergyTradingContext ctx, String entityType, String entityId) {
+        TotalsDelta sum = new TotalsDelta();
+        CompositeKey partialKey = new CompositeKey(TOTALS_DELTA, entityType, entityId);
+        Map<String, CommercialDetail> details = PPA_TOTALS.equals(entityType)
+                ? ctx.getCommercialDetails(partialKey) : Collections.emptyMap();
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(partialKey);
+        for (KeyValue result : results) {
+            try {
+                sum.add(restoreDelta(ctx.decode(result, TotalsDelta.class), details.get(result.getKey())));
+            } catch (CodecException e) {
+                // Skip invalid records
+            }
+        }
+        return sum;
+    }
+
+    // Replaces up to batchSize deltas under partialKey with their sum stored at foldedKey;
+    // returns 0 and writes nothing when there are fewer than two deltas to fold
+    private int foldDeltas(EnergyTradingContext ctx, CompositeKey partialKey, String foldedKey, int batchSize) {
+        TotalsDelta folded = new TotalsDelta();
+        List<String> foldedKeys = new ArrayList<>();
+
+        // The folded delta replaces the private invoice values too, so they are read with one range query
+        Map<String, CommercialDetail> details = ctx.getCommercialDetails(partialKey);
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(partialKey);
+        for (KeyValue result : results) {
+            if (foldedKeys.size() >= batchSize) {
+                break;
+            }
+            try {
+                folded.add(restoreDelta(ctx.decode(result, TotalsDelta.class), details.get(result.getKey())));
+                foldedKeys.add(result.getKey());
+            } catch (CodecException e) {
+                // Skip invalid records
+            }
+        }
+
+        if (foldedKeys.size() < 2) {
+            return 0;
+        }
+        for (String key : foldedKeys) {
+            ctx.delete(key);
+        }
+        ctx.put(foldedKey, folded);
+        return foldedKeys.size();
+    }
+
+    private static TotalsDelta restoreDelta(TotalsDelta delta, CommercialDetail detail) {
+        if (detail != null) {
+            CommercialFields.restore(delta, detail);
+        }
+        return delta;
+    }
+
+    private String rollupDeltaKey(ChaincodeStub stub, String series, String entityId, String bucket) {
+        return stub.createCompositeKey(ROLLUP_DELTA, series, entityId, bucket, stub.getTxId()).toString();
+    }
+
+    // Blind writes, like the totals deltas: one key per touched bucket and transaction
+    private void putRollupDeltas(EnergyTradingContext ctx, Map<String, TotalsDelta> rollupDeltas) {
+        for (Map.Entry<String, TotalsDelta> delta : rollupDeltas.entrySet()) {
+            ctx.put(delta.getKey(), delta.getValue());
+        }
+    }
+
+    private List<String> dayBuckets(String entityId, String fromDate, String toDate) {
+        if (entityId == null || entityId.trim().isEmpty() ||
+            fromDate == null || fromDate.trim().isEmpty() ||
+            toDate == null || toDate.trim().isEmpty()) {
+            throw new ChaincodeException("All parameters are required and cannot be empty",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        validateDateRange(fromDate, toDate);
+
+        List<String> buckets = new ArrayList<>();
+        LocalDate day = LocalDate.parse(fromDate, DATE_FORMATTER);
+        LocalDate lastDay = LocalDate.parse(toDate, DATE_FORMATTER);
+        while (!day.isAfter(lastDay)) {
+            buckets.add(DateTimeFormatter.BASIC_ISO_DATE.format(day));
+            if (buckets.size() > MAX_SERIES_BUCKETS) {
+                throw new ChaincodeException(String.format("A series can span at most %d buckets", MAX_SERIES_BUCKETS),
+                        EnergyTradingErrors.INVALID_INPUT.toString());
+            }
+            day = day.plusDays(1);
+        }
+        return buckets;
+    }
+
+    // Reads each bucket's deltas with one partial-key query, so cost follows the number of buckets, not events.
+    // Like other queries it reports public values, so invoice values read as zero in private mode.
+    private String readSeries(EnergyTradingContext ctx, String series, String entityId, List<String> buckets) {
+        Map<String, TotalsDelta> points = new LinkedHashMap<>();
+        for (String bucket : buckets) {
+            QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(ROLLUP_DELTA, series, entityId, bucket);
+            for (KeyValue result : results) {
+                try {
+                    points.computeIfAbsent(bucket, b -> new TotalsDelta())
+                            .add(ctx.decode(result, TotalsDelta.class));
+                } catch (CodecException e) {
+                    // Skip invalid records
+                }
+            }
+        }
+
+        return writeResponse(generator -> {
+            generator.writeStartArray();
+            for (Map.Entry<String, TotalsDelta> point : points.entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("bucket", point.getKey());
+                generator.writeNumberField("energyGenerated", point.getValue().getEnergyGenerated());
+                generator.writeNumberField("tokensIssued", point.getValue().getTokensIssued());
+                generator.writeNumberField("invoiceValue", point.getValue().getInvoiceValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        });
+    }
+
+    private String eventKey(ChaincodeStub stub, GenerationEvent event) {
+        long epochMillis = event.getTimestampMillis();
+        return stub.createCompositeKey(EVENT_INDEX, event.getProsumerId(),
+                DateTimeFormatter.BASIC_ISO_DATE.format(dayOf(epochMillis)),
+                String.format("%013d", epochMillis), event.getEventId()).toString();
+    }
+
+    private String archiveDay(String day) {
+        if (day == null || day.trim().isEmpty()) {
+            throw new ChaincodeException("day is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        try {
+            return DateTimeFormatter.BASIC_ISO_DATE.format(LocalDate.parse(day, DATE_FORMATTER));
+        } catch (DateTimeParseException e) {
+            throw new ChaincodeException("day must be " + DATE_FORMAT, EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+    }
+
+    // A spent credit leaves with the event that minted it; an available one is still live and stays.
+    // The value is hashed as stored, which is what key history returns for it.
+    private void archiveSpentCredit(EnergyTradingContext ctx, ArchiveSlice slice, String tokenId) {
+        String spentKey = "CREDIT_" + tokenId;
+        byte[] value = ctx.getStub().getState(spentKey);
+        if (value == null || value.length == 0) {
+            return;
+        }
+        EnergyCredit credit;
+        try {
+            credit = codec.decode(value, EnergyCredit.class);
+        } catch (CodecException e) {
+            return; // Skip invalid records
+        }
+        slice.addCredit(spentKey, value);
+        ctx.delete(spentKey);
+        ctx.getStub().delState(ownerCreditKey(ctx.getStub(), credit.getOwnerId(), tokenId));
+    }
+
+    // The reading's replay key; readRecordedReading rejects the day's readings once it is archived
+    private void archiveRecordedReading(EnergyTradingContext ctx, ArchiveSlice slice, GenerationEvent event) {
+        String readingKey = meterReadingKey(ctx.getStub(), event.getMeterId(), event.getTimestampMillis());
+        byte[] value = ctx.getStub().getState(readingKey);
+        if (value != null && value.length > 0) {
+            slice.add(readingKey, value);
+            ctx.delete(readingKey);
+        }
+    }
+
+    // Adds a slice to the day's EventArchive, chaining its digest as SHA-256(previous digest + slice digest),
+    // both as hex text, and records the slice's manifest under this transaction
+    private void writeArchiveSlice(EnergyTradingContext ctx, ArchiveSlice slice) {
+        ChaincodeStub stub = ctx.getStub();
+        String archiveKey = stub.createCompositeKey(EVENT_ARCHIVE, slice.prosumerId, slice.day).toString();
+        EventArchive archive = ctx.get(archiveKey, EventArchive.class);
+        if (archive == null) {
+            archive = new EventArchive(slice.prosumerId, slice.day, 0, 0, 0.0, 0.0,
+                    slice.firstEventMillis, slice.lastEventMillis, 0, "");
+        }
+
+        String sliceDigest = toHex(slice.digest.digest());
+        MessageDigest chain = ArchiveSlice.sha256();
+        chain.update(archive.getDigest().getBytes(StandardCharsets.UTF_8));
+        chain.update(sliceDigest.getBytes(StandardCharsets.UTF_8));
+
+        archive.setEventCount(archive.getEventCount() + slice.eventCount);
+        archive.setCreditCount(archive.getCreditCount() + slice.creditCount);
+        archive.setGeneratedKWh(archive.getGeneratedKWh() + slice.generatedKWh);
+        archive.setTokensIssued(archive.getTokensIssued() + slice.tokensIssued);
+        archive.setFirstEventMillis(Math.min(archive.getFirstEventMillis(), slice.firstEventMillis));
+        archive.setLastEventMillis(Math.max(archive.getLastEventMillis(), slice.lastEventMillis));
+        archive.setSliceCount(archive.getSliceCount() + 1);
+        archive.setDigest(toHex(chain.digest()));
+        ctx.put(archiveKey, archive);
+
+        ctx.put(stub.createCompositeKey(ARCHIVE_MANIFEST, slice.prosumerId, slice.day, stub.getTxId()).toString(),
+                new ArchiveManifest(slice.prosumerId, slice.day, stub.getTxId(), sliceDigest, slice.keys));
+
+        // Readings for an archived day are rejected, so its buckets are closed and folding cannot conflict
+        foldDeltas(ctx, new CompositeKey(ROLLUP_DELTA, PROSUMER_DAILY, slice.prosumerId, slice.day),
+                rollupDeltaKey(stub, PROSUMER_DAILY, slice.prosumerId, slice.day), MAX_PAGE_SIZE);
+        for (String hour : slice.hours) {
+            foldDeltas(ctx, new CompositeKey(ROLLUP_DELTA, PROSUMER_HOURLY, slice.prosumerId, hour),
+                    rollupDeltaKey(stub, PROSUMER_HOURLY, slice.prosumerId, hour), MAX_PAGE_SIZE);
+        }
+        for (String agreementId : slice.agreementIds) {
+            foldDeltas(ctx, new CompositeKey(ROLLUP_DELTA, PPA_DAILY, agreementId, slice.day),
+                    rollupDeltaKey(stub, PPA_DAILY, agreementId, slice.day), MAX_PAGE_SIZE);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private LocalDateTime hourOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private String toPageJSON(List<?> records, int fetchedRecordsCount, String bookmark) {
+        return writeResponse(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName("records");
+            generator.writeObject(records);
+            generator.writeNumberField("fetchedRecordsCount", fetchedRecordsCount);
+            generator.writeStringField("bookmark", bookmark);
+            generator.writeEndObject();
+        });
+    }
+
+    private String writeResponse(ResponseBody body) {
+        StringWriter buffer = RESPONSE_BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+            body.write(generator);
+        } catch (IOException e) {
+            throw new ChaincodeException("Failed to serialize response", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        String response = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_RESPONSE_SIZE) {
+            RESPONSE_BUFFER.remove();
+        }
+        return response;
+    }
+
+    // Amounts keep the two-decimal form of the original response, independent of the default locale.
+    // valueOf rounds the shortest decimal form, as %.2f did, not the exact binary value.
+    private void writeGenerationResult(JsonGenerator generator, GenerationResult result) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("status", result.getStatus());
+        generator.writeStringField("eventId", result.getEventId());
+        generator.writeStringField("tokenId", result.getTokenId());
+        generator.writeNumberField("tokensIssued", BigDecimal.valueOf(result.getTokensIssued()).setScale(2, RoundingMode.HALF_UP));
+        generator.writeNumberField("invoiceValue", BigDecimal.valueOf(result.getInvoiceValue()).setScale(2, RoundingMode.HALF_UP));
+        generator.writeStringField("agreementId", result.getAgreementId());
+        generator.writeEndObject();
+    }
+
+    private String availableCreditKey(ChaincodeStub stub, String tokenId) {
+        return stub.createCompositeKey(AVAILABLE_CREDIT, tokenId).toString();
+    }
+
+    private String ownerCreditKey(ChaincodeStub stub, String ownerId, String tokenId) {
+        return stub.createCompositeKey(OWNER_CREDIT, ownerId, tokenId).toString();
+    }
+
+    // Stores a credit in the keyspace matching its availability and blindly clears the other one,
+    // so consuming a token moves it out of available~credit without an extra read.
+    // The owner index entry is written with it; changing the owner goes through moveCredit.
+    private void putCredit(EnergyTradingContext ctx, EnergyCredit credit) {
+        String availableKey = availableCreditKey(ctx.getStub(), credit.getTokenId());
+        String spentKey = "CREDIT_" + credit.getTokenId();
+        if (credit.isAvailable()) {
+            ctx.put(availableKey, credit);
+            ctx.delete(spentKey);
+        } else {
+            ctx.put(spentKey, credit);
+            ctx.delete(availableKey);
+        }
+        ctx.getStub().putStringState(ownerCreditKey(ctx.getStub(), credit.getOwnerId(), credit.getTokenId()),
+                credit.getTokenId());
+    }
+
+    // Gives quantity kWh of credit to newOwnerId with the given tariff and availability: the credit itself
+    // when quantity covers it, otherwise a new credit splitTokenId split off it. Returns the recipient's credit.
+    private EnergyCredit moveCredit(EnergyTradingContext ctx, EnergyCredit credit, double quantity, String newOwnerId,
+                                    double tariffPerKWh, boolean available, String splitTokenId) {
+        if (credit.getEnergyAmount() - quantity <= QUANTITY_EPSILON) {
+            ctx.getStub().delState(ownerCreditKey(ctx.getStub(), credit.getOwnerId(), credit.getTokenId()));
+            credit.setOwnerId(newOwnerId);
+            credit.setTariffPerKWh(tariffPerKWh);
+            credit.setAvailable(available);
+            putCredit(ctx, credit);
+            addCreditEvent(ctx, "CREDIT_UPDATED", credit, null);
+            return credit;
+        }
+
+        credit.setEnergyAmount(credit.getEnergyAmount() - quantity);
+        putCredit(ctx, credit);
+        addCreditEvent(ctx, "CREDIT_UPDATED", credit, null);
+        EnergyCredit split = new EnergyCredit(splitTokenId, credit.getProsumerId(), quantity, credit.getEnergyType(),
+                newOwnerId, tariffPerKWh, credit.getLocation(), available);
+        putCredit(ctx, split);
+        addCreditEvent(ctx, "CREDIT_MINTED", split, null);
+        return split;
+    }
+
+    // Carries what a client needs to track available credits without querying them
+    private void addCreditEvent(EnergyTradingContext ctx, String type, EnergyCredit credit, String eventId) {
+        ctx.addEvent(new TradingEvent(type, credit.getProsumerId(), null, null, credit.getTokenId(),
+                credit.getOwnerId(), eventId, credit.getEnergyAmount(), credit.isAvailable()));
+    }
+
+    private EnergyCredit applyTransfer(EnergyTradingContext ctx, CreditTransfer transfer, String splitTokenId) {
+        String toOwnerId = transfer.getToOwnerId();
+        if (toOwnerId == null || toOwnerId.trim().isEmpty()) {
+            throw new ChaincodeException("toOwnerId is required", EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        validateInput("amount", transfer.getAmount(), MIN_ENERGY, MAX_ENERGY);
+
+        ChaincodeStub stub = ctx.getStub();
+        EnergyCredit credit = readCredit(ctx, transfer.getTokenId());
+        requireParticipant(ctx, credit.getOwnerId());
+        if (toOwnerId.equals(credit.getOwnerId())) {
+            String errorMessage = String.format("Energy credit %s is already owned by %s", credit.getTokenId(), toOwnerId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        if (transfer.getAmount() <= QUANTITY_EPSILON || transfer.getAmount() - credit.getEnergyAmount() > QUANTITY_EPSILON) {
+            String errorMessage = String.format("amount must be greater than zero and at most %.2f",
+                    credit.getEnergyAmount());
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.VALUE_OUT_OF_RANGE.toString());
+        }
+        // A credit offered on the order book stays with its seller until the ask fills or is cancelled
+        if (!stub.getStringState(tokenAskKey(stub, credit.getTokenId())).isEmpty()) {
+            String errorMessage = String.format("Energy credit %s is offered in the order book", credit.getTokenId());
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.CREDIT_NOT_AVAILABLE.toString());
+        }
+
+        return moveCredit(ctx, credit, transfer.getAmount(), toOwnerId, credit.getTariffPerKWh(),
+                credit.isAvailable(), splitTokenId);
+    }
+
+    // Also rewrites entries that still hold a copy of the credit rather than its id
+    private int indexCreditOwners(EnergyTradingContext ctx, QueryResultsIterator<KeyValue> results, int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        int indexed = 0;
+        for (KeyValue result : results) {
+            if (indexed >= limit) {
+                break;
+            }
+            try {
+                EnergyCredit credit = ctx.decode(result, EnergyCredit.class);
+                String ownerKey = ownerCreditKey(stub, credit.getOwnerId(), credit.getTokenId());
+                if (!credit.getTokenId().equals(stub.getStringState(ownerKey))) {
+                    stub.putStringState(ownerKey, credit.getTokenId());
+                    indexed++;
+                }
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+        }
+        return indexed;
+    }
+
+    // The credit in whichever keyspace holds it, or null
+    private EnergyCredit findCredit(EnergyTradingContext ctx, String tokenId) {
+        EnergyCredit credit = ctx.get(availableCreditKey(ctx.getStub(), tokenId), EnergyCredit.class);
+        return credit != null ? credit : ctx.get("CREDIT_" + tokenId, EnergyCredit.class);
+    }
+
+    private EnergyCredit readCredit(EnergyTradingContext ctx, String tokenId) {
+        EnergyCredit credit;
+        try {
+            credit = findCredit(ctx, tokenId);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize energy credit", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (credit == null) {
+            String errorMessage = String.format("Energy credit %s does not exist", tokenId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.CREDIT_NOT_FOUND.toString());
+        }
+        return credit;
+    }
+
+    private Order newOrder(ChaincodeStub stub, String side, String participantId, String tokenId,
+                           double price, double quantity) {
+        return new Order("ORD_" + stub.getTxId(), side, participantId, tokenId, price, quantity, quantity,
+                ORDER_OPEN, stub.getTxTimestamp().toEpochMilli());
+    }
+
+    private Order readOrder(EnergyTradingContext ctx, String orderId) {
+        Order order;
+        try {
+            order = ctx.get("ORDER_" + orderId, Order.class);
+        } catch (CodecException e) {
+            throw new ChaincodeException("Failed to deserialize order", EnergyTradingErrors.JSON_PARSING_ERROR.toString());
+        }
+
+        if (order == null) {
+            String errorMessage = String.format("Order %s does not exist", orderId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.ORDER_NOT_FOUND.toString());
+        }
+        return order;
+    }
+
+    private long priceTicks(double price) {
+        return Math.round(price * PRICE_TICKS_PER_UNIT);
+    }
+
+    // Fixed-width keys sort numerically; bids count down from the top so the highest bid sorts first
+    private String orderBookKey(ChaincodeStub stub, Order order) {
+        long ticks = priceTicks(order.getPrice());
+        long priceKey = BID.equals(order.getSide()) ? MAX_PRICE_KEY - ticks : ticks;
+        return stub.createCompositeKey(ORDER_BOOK, order.getSide(), String.format("%010d", priceKey),
+                String.format("%013d", order.getTimestampMillis()), order.getOrderId()).toString();
+    }
+
+    private String tokenAskKey(ChaincodeStub stub, String tokenId) {
+        return stub.createCompositeKey(TOKEN_ASK, tokenId).toString();
+    }
+
+    // Fills the incoming order against the opposite side at the resting orders' prices, then rests
+    // any remainder. The scan stops at the first price that does not cross, so its cost is bounded
+    // by the levels crossed and capped at MAX_BOOK_SCAN resting orders.
+    private List<Trade> matchOrder(EnergyTradingContext ctx, Order taker) {
+        ChaincodeStub stub = ctx.getStub();
+        boolean isBid = BID.equals(taker.getSide());
+        long takerTicks = priceTicks(taker.getPrice());
+        List<Trade> trades = new ArrayList<>();
+        int scanned = 0;
+
+        QueryResultsIterator<KeyValue> results = stub.getStateByPartialCompositeKey(ORDER_BOOK, isBid ? ASK : BID);
+        for (KeyValue result : results) {
+            if (taker.getRemaining() <= QUANTITY_EPSILON || scanned++ >= MAX_BOOK_SCAN) {
+                break;
+            }
+            Order maker;
+            try {
+                maker = codec.decode(result.getValue(), Order.class);
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+                continue;
+            }
+
+            long makerTicks = priceTicks(maker.getPrice());
+            if (isBid ? makerTicks > takerTicks : makerTicks < takerTicks) {
+                break;
+            }
+            if (maker.getParticipantId().equals(taker.getParticipantId())) {
+                continue;
+            }
+
+            Order bid = isBid ? taker : maker;
+            Order ask = isBid ? maker : taker;
+            double quantity = Math.min(taker.getRemaining(), maker.getRemaining());
+            trades.add(settleTrade(ctx, bid, ask, maker.getPrice(), quantity, trades.size()));
+
+            if (maker.getRemaining() <= QUANTITY_EPSILON) {
+                maker.setStatus(ORDER_FILLED);
+                closeOrder(ctx, maker);
+            } else {
+                ctx.put(result.getKey(), maker);
+                ctx.put("ORDER_" + maker.getOrderId(), maker);
+            }
+        }
+
+        if (taker.getRemaining() <= QUANTITY_EPSILON) {
+            taker.setStatus(ORDER_FILLED);
+        } else {
+            ctx.put(orderBookKey(stub, taker), taker);
+        }
+        ctx.put("ORDER_" + taker.getOrderId(), taker);
+        return trades;
+    }
+
+    // Moves quantity kWh of the ask's credit to the bidder as spent; after a partial fill the rest
+    // stays on sale with the seller
+    private Trade settleTrade(EnergyTradingContext ctx, Order bid, Order ask, double price, double quantity,
+                              int sequence) {
+        String tradeId = ctx.getStub().getTxId() + "_" + sequence;
+        EnergyCredit credit = readCredit(ctx, ask.getTokenId());
+
+        String tokenId = moveCredit(ctx, credit, quantity, bid.getParticipantId(), price, false,
+                credit.getTokenId() + "_" + tradeId).getTokenId();
+
+        bid.setRemaining(bid.getRemaining() - quantity);
+        ask.setRemaining(ask.getRemaining() - quantity);
+
+        Trade trade = new Trade(tradeId, bid.getOrderId(), ask.getOrderId(), bid.getParticipantId(),
+                ask.getParticipantId(), ask.getTokenId(), tokenId, price, quantity,
+                ctx.getStub().getTxTimestamp().toEpochMilli());
+        ctx.put("TRADE_" + tradeId, trade);
+        return trade;
+    }
+
+    // Takes a filled or cancelled order out of the book and releases the credit an ask was holding
+    private void closeOrder(EnergyTradingContext ctx, Order order) {
+        ChaincodeStub stub = ctx.getStub();
+        ctx.delete(orderBookKey(stub, order));
+        ctx.put("ORDER_" + order.getOrderId(), order);
+        if (ASK.equals(order.getSide())) {
+            stub.delState(tokenAskKey(stub, order.getTokenId()));
+        }
+    }
+
+    private LocalDateTime parseInterval(String intervalId) {
+        LocalDateTime start;
+        try {
+            start = LocalDateTime.parse(intervalId, INTERVAL_FORMATTER);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new ChaincodeException("intervalId must be a UTC start time in yyyyMMddHHmm format",
+                    EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        if (start.getMinute() % AUCTION_INTERVAL_MINUTES != 0) {
+            String errorMessage = String.format("intervalId must start on a %d minute boundary", AUCTION_INTERVAL_MINUTES);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.INVALID_INPUT.toString());
+        }
+        return start;
+    }
+
+    // Submissions read the interval's result key, so one endorsed before clearing but committed after
+    // it fails MVCC validation instead of landing in a cleared interval
+    private void requireOpenInterval(EnergyTradingContext ctx, String intervalId) {
+        LocalDateTime intervalEnd = parseInterval(intervalId).plusMinutes(AUCTION_INTERVAL_MINUTES);
+        if (!ctx.getStub().getTxTimestamp().isBefore(intervalEnd.toInstant(ZoneOffset.UTC))
+                || ctx.exists("AUCTION_" + intervalId)) {
+            String errorMessage = String.format("Auction interval %s is closed", intervalId);
+            throw new ChaincodeException(errorMessage, EnergyTradingErrors.AUCTION_CLOSED.toString());
+        }
+    }
+
+    // Reads one side of an interval and deletes it; the trades and AuctionResult are what remain
+    private List<Order> readAuctionOrders(EnergyTradingContext ctx, String intervalId, String side) {
+        List<Order> orders = new ArrayList<>();
+        QueryResultsIterator<KeyValue> results = ctx.getStub().getStateByPartialCompositeKey(AUCTION_ORDER, intervalId, side);
+        for (KeyValue result : results) {
+            try {
+                orders.add(codec.decode(result.getValue(), Order.class));
+            } catch (CodecException e) {
+                skipRecord(ctx, result.getKey(), e);
+            }
+            ctx.delete(result.getKey());
+        }
+        return orders;
+    }
+
+    // Demand and supply are step functions of price that only change at submitted prices, so the
+    // volume-maximising range is found among those. Sorts both sides by price and returns the
+    // midpoint of that range in ticks, or -1 when no bid crosses any offer.
+    private double clearingPriceTicks(List<Order> bids, List<Order> offers) {
+        bids.sort(Comparator.comparingLong(bid -> priceTicks(bid.getPrice())));
+        offers.sort(Comparator.comparingLong(offer -> priceTicks(offer.getPrice())));
+        List<Long> candidates = new ArrayList<>();
+        bids.forEach(bid -> candidates.add(priceTicks(bid.getPrice())));
+        offers.forEach(offer -> candidates.add(priceTicks(offer.getPrice())));
+        candidates.sort(null);
+
+        double demand = bids.stream().mapToDouble(Order::getRemaining).sum();
+        double supply = 0.0;
+        double bestVolume = QUANTITY_EPSILON;
+        long low = -1;
+        long high = -1;
+        int bidIndex = 0;
+        int offerIndex = 0;
+        for (long ticks : candidates) {
+            // demand at ticks: bids priced at or above it; supply: offers priced at or below it
+            while (bidIndex < bids.size() && priceTicks(bids.get(bidIndex).getPrice()) < ticks) {
+                demand -= bids.get(bidIndex++).getRemaining();
+            }
+            while (offerIndex < offers.size() && priceTicks(offers.get(offerIndex).getPrice()) <= ticks) {
+                supply += offers.get(offerIndex++).getRemaining();
+            }
+            double volume = Math.min(demand, supply);
+            if (volume > bestVolume + QUANTITY_EPSILON) {
+                bestVolume = volume;
+                low = ticks;
+                high = ticks;
+            } else if (low >= 0 && volume >= bestVolume - QUANTITY_EPSILON) {
+                high = ticks;
+            }
+        }
+        return low < 0 ? -1 : (low + high) / 2.0;
+    }
+
+    private void allocateProRata(List<Order> orders, double ratio) {
+        for (Order order : orders) {
+            order.setRemaining(order.getRemaining() * ratio);
+        }
+    }
+
+    // Pairs bids with offers in price order until the allocated volume on one side runs out
+    private int settleAuction(EnergyTradingContext ctx, List<Order> bids, List<Order> offers, double price) {
+        int tradeCount = 0;
+        int offerIndex = 0;
+        for (Order bid : bids) {
+            while (bid.getRemaining() > QUANTITY_EPSILON && offerIndex < offers.size()) {
+                Order offer = offers.get(offerIndex);
+                double quantity = Math.min(bid.getRemaining(), offer.getRemaining());
+                settleTrade(ctx, bid, offer, price, quantity, tradeCount++);
+                if (offer.getRemaining() <= QUANTITY_EPSILON) {
+                    offerIndex++;
+                }
+            }
+        }
+        return tradeCount;
+    }
+
+    private String writeOrderResult(Order order, List<Trade> trades) {
+        return writeResponse(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName("order");
+            generator.writeObject(order);
+            generator.writeFieldName("trades");
+            generator.writeObject(trades);
+            generator.writeEndObject();
+        });
+    }
+
+    private String ppaIndexKey(ChaincodeStub stub, String prosumerId, String buyerId) {
+        return stub.createCompositeKey(PPA_INDEX, prosumerId, buyerId).toString();
+    }
+
+    // The first agreement registered for a (prosumer, buyer) pair stays the one used for generation
+    private void indexPPA(ChaincodeStub stub, SimplifiedPPA ppa) {
+        String indexKey = ppaIndexKey(stub, ppa.getProsumerId(), ppa.getBuyerId());
+        if (stub.getStringState(indexKey).isEmpty()) {
+            stub.putStringState(indexKey, ppa.getAgreementId());
+        }
+    }
+
+    private void createSampleProsumer(Context context, String id, String name, String location,
+                                      double capacity, String msp) {
+        try {
+            registerProsumer(context, id, name, location, capacity, msp);
+            LOGGER.atInfo().addKeyValue("prosumerId", id).log("Created sample prosumer");
+        } catch (ChaincodeException e) {
+            LOGGER.atInfo().addKeyValue("prosumerId", id).addKeyValue("error", e.getMessage())
+                    .log("Sample prosumer already exists");
+        }
+    }
+
+    private void createSamplePPA(Context context, String agreementId, String prosumerId,
                                  String buyerId, double tariff, String startDate, String endDate) {
         try {
             createPPA(context, agreementId, prosumerId, buyerId, tariff, startDate, endDate);
-            System.out.println("Successfully created sample PPA: " + agreementId);
+            LOGGER.atInfo().addKeyValue("agreementId", agreementId).log("Created sample PPA");
         } catch (ChaincodeException e) {
-            System.out.println("Sample PPA already exists: " + e.getMessage());
+            LOGGER.atInfo().addKeyValue("agreementId", agreementId).addKeyValue("error", e.getMessage())
+                    .log("Sample PPA already exists");
+        }
+    }
+
+    // Events and credits archived for one prosumer and day within a transaction. The digest covers each
+    // archived key and its stored value, both length-prefixed, in the order the keys are listed.
+    private static final class ArchiveSlice {
+
+        private final String prosumerId;
+        private final String day;
+        private final MessageDigest digest = sha256();
+        private final List<String> keys = new ArrayList<>();
+        private final Set<String> hours = new LinkedHashSet<>(); // rollup buckets of the archived events
+        private final Set<String> agreementIds = new LinkedHashSet<>();
+        private int eventCount;
+        private int creditCount;
+        private double generatedKWh;
+        private double tokensIssued;
+        private long firstEventMillis = Long.MAX_VALUE;
+        private long lastEventMillis = Long.MIN_VALUE;
+
+        private ArchiveSlice(String prosumerId, String day) {
+            this.prosumerId = prosumerId;
+            this.day = day;
+        }
+
+        private void addEvent(String key, byte[] value, GenerationEvent event) {
+            add(key, value);
+            eventCount++;
+            generatedKWh += event.getGeneratedKWh();
+            tokensIssued += event.getTokensIssued();
+            firstEventMillis = Math.min(firstEventMillis, event.getTimestampMillis());
+            lastEventMillis = Math.max(lastEventMillis, event.getTimestampMillis());
+            hours.add(HOUR_BUCKET_FORMATTER.format(
+                    Instant.ofEpochMilli(event.getTimestampMillis()).atOffset(ZoneOffset.UTC)));
+            agreementIds.add(event.getAgreementId());
+        }
+
+        private void addCredit(String key, byte[] value) {
+            add(key, value);
+            creditCount++;
+        }
+
+        private void add(String key, byte[] value) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(keyBytes.length).array());
+            digest.update(keyBytes);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value.length).array());
+            digest.update(value);
+            keys.add(key);
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
         }
     }
 }
@@ -0,0 +1,146 @@
+package org.energy.trading.contracts;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.energy.trading.models.TariffRate;
+import org.energy.trading.models.TariffSchedule;
+
+// A TariffSchedule compiled for lookup. Each month's day is cut into segments at every band boundary, and each
+// segment holds the minKWh tiers of the bands covering it, so pricing a reading is two binary searches:
+// the segment holding its local minute, then the highest tier at or below its size. Immutable once built,
+// and shared between transactions through the DecodedEntityCache.
+final class TariffIndex {
+
+    // A schedule with no bands; every reading falls back to the agreement's flat tariff
+    static final TariffIndex NONE = new TariffIndex(ZoneOffset.UTC, new int[12][], new double[12][][], new double[12][][]);
+
+    private static final Pattern TIME = Pattern.compile("([01]\\d|2[0-3]):[0-5]\\d");
+
+    private final ZoneOffset offset;
+    private final int[][] segmentStarts;  // [month - 1][segment], minutes from local midnight, ascending from 0
+    private final double[][][] tierMins;  // [month - 1][segment][tier], ascending
+    private final double[][][] tierRates; // [month - 1][segment][tier]
+
+    private TariffIndex(ZoneOffset offset, int[][] segmentStarts, double[][][] tierMins, double[][][] tierRates) {
+        this.offset = offset;
+        this.segmentStarts = segmentStarts;
+        this.tierMins = tierMins;
+        this.tierRates = tierRates;
+    }
+
+    // Throws IllegalArgumentException, or DateTimeException for the offset, when the schedule is malformed
+    // or two bands claim the same month, minute and minKWh
+    static TariffIndex compile(TariffSchedule schedule) {
+        if (schedule.getUtcOffset() == null) {
+            throw new IllegalArgumentException("A tariff schedule needs a utcOffset");
+        }
+        ZoneOffset offset = ZoneOffset.of(schedule.getUtcOffset());
+        List<TariffRate> rates = schedule.getRates();
+        if (rates == null || rates.isEmpty()) {
+            throw new IllegalArgumentException("A tariff schedule needs at least one rate");
+        }
+        for (TariffRate rate : rates) {
+            if (rate == null) {
+                throw new IllegalArgumentException("Tariff rates cannot be empty");
+            }
+            if (rate.getFromMonth() < 1 || rate.getFromMonth() > 12 || rate.getToMonth() < 1 || rate.getToMonth() > 12) {
+                throw new IllegalArgumentException("Tariff months must be between 1 and 12");
+            }
+            minuteOf(rate.getStartTime());
+            minuteOf(rate.getEndTime());
+            if (!(rate.getMinKWh() >= 0.0)) {
+                throw new IllegalArgumentException("minKWh cannot be negative");
+            }
+        }
+
+        int[][] segmentStarts = new int[12][];
+        double[][][] tierMins = new double[12][][];
+        double[][][] tierRates = new double[12][][];
+        for (int month = 1; month <= 12; month++) {
+            List<TariffRate> monthRates = new ArrayList<>();
+            TreeSet<Integer> boundaries = new TreeSet<>();
+            boundaries.add(0);
+            for (TariffRate rate : rates) {
+                if (coversMonth(rate, month)) {
+                    monthRates.add(rate);
+                    boundaries.add(minuteOf(rate.getStartTime()));
+                    boundaries.add(minuteOf(rate.getEndTime()));
+                }
+            }
+
+            int[] starts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+            double[][] mins = new double[starts.length][];
+            double[][] tariffs = new double[starts.length][];
+            for (int segment = 0; segment < starts.length; segment++) {
+                List<TariffRate> tiers = new ArrayList<>();
+                for (TariffRate rate : monthRates) {
+                    if (coversMinute(rate, starts[segment])) {
+                        tiers.add(rate);
+                    }
+                }
+                tiers.sort((a, b) -> Double.compare(a.getMinKWh(), b.getMinKWh()));
+                mins[segment] = new double[tiers.size()];
+                tariffs[segment] = new double[tiers.size()];
+                for (int tier = 0; tier < tiers.size(); tier++) {
+                    mins[segment][tier] = tiers.get(tier).getMinKWh();
+                    tariffs[segment][tier] = tiers.get(tier).getTariffPerKWh();
+                    if (tier > 0 && mins[segment][tier] == mins[segment][tier - 1]) {
+                        throw new IllegalArgumentException(String.format(
+                                "Tariff bands overlap in month %d at %02d:%02d from %s kWh",
+                                month, starts[segment] / 60, starts[segment] % 60, mins[segment][tier]));
+                    }
+                }
+            }
+            segmentStarts[month - 1] = starts;
+            tierMins[month - 1] = mins;
+            tierRates[month - 1] = tariffs;
+        }
+        return new TariffIndex(offset, segmentStarts, tierMins, tierRates);
+    }
+
+    // The tariff for a reading of kWh at epochMillis, or fallback when no band covers it
+    double resolve(long epochMillis, double kWh, double fallback) {
+        LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L), 0, offset);
+        int month = local.getMonthValue() - 1;
+        int[] starts = segmentStarts[month];
+        if (starts == null) {
+            return fallback;
+        }
+
+        int segment = Arrays.binarySearch(starts, local.getHour() * 60 + local.getMinute());
+        if (segment < 0) {
+            segment = -segment - 2; // starts[0] is 0, so every minute lands in a segment
+        }
+        double[] mins = tierMins[month][segment];
+        int tier = Arrays.binarySearch(mins, kWh);
+        if (tier < 0) {
+            tier = -tier - 2;
+        }
+        return tier < 0 ? fallback : tierRates[month][segment][tier];
+    }
+
+    private static boolean coversMonth(TariffRate rate, int month) {
+        int from = rate.getFromMonth();
+        int to = rate.getToMonth();
+        return from <= to ? month >= from && month <= to : month >= from || month <= to;
+    }
+
+    private static boolean coversMinute(TariffRate rate, int minute) {
+        int start = minuteOf(rate.getStartTime());
+        int end = minuteOf(rate.getEndTime());
+        return start < end ? minute >= start && minute < end : minute >= start || minute < end;
+    }
+
+    private static int minuteOf(String time) {
+        if (time == null || !TIME.matcher(time).matches()) {
+            throw new IllegalArgumentException("Tariff times must be HH:mm, got " + time);
+        }
+        return Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(3));
+    }
+}
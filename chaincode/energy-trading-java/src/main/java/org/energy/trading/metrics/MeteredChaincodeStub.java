@@ -0,0 +1,356 @@
+package org.energy.trading.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode.Response;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+// Passes every call through to the peer's stub and counts the ledger work in a TransactionTally. Range rows are
+// counted as the contract iterates them, so a scan that stops early is charged only for the rows it pulled.
+public final class MeteredChaincodeStub implements ChaincodeStub {
+
+    private final ChaincodeStub stub;
+    private final TransactionTally tally;
+
+    public MeteredChaincodeStub(ChaincodeStub stub, TransactionTally tally) {
+        this.stub = stub;
+        this.tally = tally;
+    }
+
+    // --- Ledger reads and writes ---
+
+    @Override
+    public byte[] getState(String key) {
+        return read(stub.getState(key));
+    }
+
+    @Override
+    public void putState(String key, byte[] value) {
+        write(value);
+        stub.putState(key, value);
+    }
+
+    @Override
+    public void delState(String key) {
+        tally.writes++;
+        stub.delState(key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(String startKey, String endKey) {
+        return scan(stub.getStateByRange(startKey, endKey));
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(String startKey, String endKey,
+                                                                                    int pageSize, String bookmark) {
+        return scan(stub.getStateByRangeWithPagination(startKey, endKey, pageSize, bookmark));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String compositeKey) {
+        return scan(stub.getStateByPartialCompositeKey(compositeKey));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String objectType, String... attributes) {
+        return scan(stub.getStateByPartialCompositeKey(objectType, attributes));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(CompositeKey compositeKey) {
+        return scan(stub.getStateByPartialCompositeKey(compositeKey));
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            CompositeKey compositeKey, int pageSize, String bookmark) {
+        return scan(stub.getStateByPartialCompositeKeyWithPagination(compositeKey, pageSize, bookmark));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(String query) {
+        return scan(stub.getQueryResult(query));
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(String query, int pageSize,
+                                                                                   String bookmark) {
+        return scan(stub.getQueryResultWithPagination(query, pageSize, bookmark));
+    }
+
+    @Override
+    public byte[] getPrivateData(String collection, String key) {
+        return read(stub.getPrivateData(collection, key));
+    }
+
+    @Override
+    public void putPrivateData(String collection, String key, byte[] value) {
+        write(value);
+        stub.putPrivateData(collection, key, value);
+    }
+
+    @Override
+    public void delPrivateData(String collection, String key) {
+        tally.writes++;
+        stub.delPrivateData(collection, key);
+    }
+
+    @Override
+    public void purgePrivateData(String collection, String key) {
+        tally.writes++;
+        stub.purgePrivateData(collection, key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(String collection, String startKey, String endKey) {
+        return scan(stub.getPrivateDataByRange(collection, startKey, endKey));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String compositeKey) {
+        return scan(stub.getPrivateDataByPartialCompositeKey(collection, compositeKey));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection,
+                                                                              CompositeKey compositeKey) {
+        return scan(stub.getPrivateDataByPartialCompositeKey(collection, compositeKey));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String objectType,
+                                                                              String... attributes) {
+        return scan(stub.getPrivateDataByPartialCompositeKey(collection, objectType, attributes));
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(String collection, String query) {
+        return scan(stub.getPrivateDataQueryResult(collection, query));
+    }
+
+    // --- Passed through uncounted ---
+
+    @Override
+    public List<byte[]> getArgs() {
+        return stub.getArgs();
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return stub.getStringArgs();
+    }
+
+    @Override
+    public String getFunction() {
+        return stub.getFunction();
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return stub.getParameters();
+    }
+
+    @Override
+    public String getTxId() {
+        return stub.getTxId();
+    }
+
+    @Override
+    public String getChannelId() {
+        return stub.getChannelId();
+    }
+
+    @Override
+    public Response invokeChaincode(String chaincodeName, List<byte[]> args, String channel) {
+        return stub.invokeChaincode(chaincodeName, args, channel);
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(String key) {
+        return stub.getStateValidationParameter(key);
+    }
+
+    @Override
+    public void setStateValidationParameter(String key, byte[] value) {
+        stub.setStateValidationParameter(key, value);
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(String objectType, String... attributes) {
+        return stub.createCompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(String compositeKey) {
+        return stub.splitCompositeKey(compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(String key) {
+        return stub.getHistoryForKey(key);
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(String collection, String key) {
+        return stub.getPrivateDataHash(collection, key);
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(String collection, String key) {
+        return stub.getPrivateDataValidationParameter(collection, key);
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(String collection, String key, byte[] value) {
+        stub.setPrivateDataValidationParameter(collection, key, value);
+    }
+
+    @Override
+    public void setEvent(String name, byte[] payload) {
+        stub.setEvent(name, payload);
+    }
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return stub.getEvent();
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        return stub.getSignedProposal();
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return stub.getTxTimestamp();
+    }
+
+    @Override
+    public byte[] getCreator() {
+        return stub.getCreator();
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return stub.getTransient();
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return stub.getBinding();
+    }
+
+    @Override
+    public String getMspId() {
+        return stub.getMspId();
+    }
+
+    private byte[] read(byte[] value) {
+        tally.pointReads++;
+        if (value != null) {
+            tally.bytesRead += value.length;
+        }
+        return value;
+    }
+
+    private void write(byte[] value) {
+        tally.writes++;
+        if (value != null) {
+            tally.bytesWritten += value.length;
+        }
+    }
+
+    private QueryResultsIterator<KeyValue> scan(QueryResultsIterator<KeyValue> results) {
+        tally.rangeScans++;
+        return new CountingResults(results);
+    }
+
+    private QueryResultsIteratorWithMetadata<KeyValue> scan(QueryResultsIteratorWithMetadata<KeyValue> results) {
+        tally.rangeScans++;
+        return new CountingResults(results);
+    }
+
+    private final class CountingResults implements QueryResultsIteratorWithMetadata<KeyValue> {
+
+        private final QueryResultsIterator<KeyValue> results;
+
+        private CountingResults(QueryResultsIterator<KeyValue> results) {
+            this.results = results;
+        }
+
+        @Override
+        public Iterator<KeyValue> iterator() {
+            Iterator<KeyValue> rows = results.iterator();
+            return new Iterator<KeyValue>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public KeyValue next() {
+                    tally.rangeRows++;
+                    return new CountingRow(rows.next());
+                }
+            };
+        }
+
+        // Only reached for the paginated queries, which were opened as QueryResultsIteratorWithMetadata
+        @Override
+        public QueryResponseMetadata getMetadata() {
+            return ((QueryResultsIteratorWithMetadata<KeyValue>) results).getMetadata();
+        }
+
+        @Override
+        public void close() throws Exception {
+            results.close();
+        }
+    }
+
+    // The shim copies the value out of its protobuf on every getValue, so the value is fetched once, when the
+    // contract first asks for it, and counted then
+    private final class CountingRow implements KeyValue {
+
+        private final KeyValue row;
+        private byte[] value;
+
+        private CountingRow(KeyValue row) {
+            this.row = row;
+        }
+
+        @Override
+        public String getKey() {
+            return row.getKey();
+        }
+
+        @Override
+        public byte[] getValue() {
+            if (value == null) {
+                value = row.getValue();
+                if (value != null) {
+                    tally.bytesRead += value.length;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public String getStringValue() {
+            byte[] bytes = getValue();
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.energy.trading.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Serves GET /metrics in the Prometheus text format. Started only when ENERGY_TRADING_METRICS_PORT is set,
+// which deployCCAAS.sh does for the chaincode containers; a peer-launched chaincode has nowhere to expose it.
+public final class MetricsServer {
+
+    public static final String PORT_ENV = "ENERGY_TRADING_METRICS_PORT";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsServer.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server;
+
+    private MetricsServer() {
+    }
+
+    // One server per process; a second contract instance keeps using the first one's endpoint
+    public static synchronized void startFromEnvironment(TransactionMetrics metrics) {
+        String port = System.getenv(PORT_ENV);
+        if (server != null || port == null || port.trim().isEmpty()) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(Integer.parseInt(port.trim())), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the metrics port " + port, e);
+        }
+        server.createContext("/metrics", exchange -> respond(exchange, metrics));
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        LOGGER.atInfo().addKeyValue("port", port.trim()).log("Serving Prometheus metrics on /metrics");
+    }
+
+    private static void respond(HttpExchange exchange, TransactionMetrics metrics) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
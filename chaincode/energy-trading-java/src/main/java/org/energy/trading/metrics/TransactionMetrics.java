@@ -0,0 +1,174 @@
+package org.energy.trading.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Process-wide totals per transaction function, rendered in the Prometheus text format. Latency runs from the
+// context being created to the end of afterTransaction, so it includes the buffered writes being flushed.
+// The contract API has no hook for a transaction that throws, so those are only counted as started:
+// started minus completed is the failure count.
+public final class TransactionMetrics {
+
+    private static final String PREFIX = "energy_trading_";
+    private static final double[] BUCKET_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5
+    };
+    private static final String[] BUCKET_LABELS = new String[BUCKET_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKET_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private final Map<String, FunctionTotals> functions = new ConcurrentHashMap<>();
+    private final List<Source> sources = new ArrayList<>();
+
+    // Adds a value that lives elsewhere, read each time the metrics are rendered
+    public synchronized void addSource(String name, String type, String help, LongSupplier value) {
+        sources.add(new Source(PREFIX + name, type, help, value));
+    }
+
+    public void started(String function) {
+        totals(function).started.increment();
+    }
+
+    public void completed(String function, TransactionTally tally) {
+        FunctionTotals totals = totals(function);
+        long nanos = System.nanoTime() - tally.getStartNanos();
+        double seconds = nanos / 1e9;
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            if (seconds <= BUCKET_SECONDS[i]) {
+                totals.buckets[i].increment();
+                break;
+            }
+        }
+        totals.durationNanos.add(nanos);
+        totals.completed.increment();
+        totals.pointReads.add(tally.pointReads);
+        totals.rangeScans.add(tally.rangeScans);
+        totals.rangeRows.add(tally.rangeRows);
+        totals.writes.add(tally.writes);
+        totals.bytesRead.add(tally.bytesRead);
+        totals.bytesWritten.add(tally.bytesWritten);
+        totals.skippedRecords.add(tally.skippedRecords);
+    }
+
+    public String render() {
+        Map<String, FunctionTotals> sorted = new TreeMap<>(functions);
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "transaction_duration_seconds", "histogram",
+                "Time from context creation to the end of afterTransaction");
+        for (Map.Entry<String, FunctionTotals> entry : sorted.entrySet()) {
+            FunctionTotals totals = entry.getValue();
+            String label = "transaction=\"" + escape(entry.getKey()) + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+                cumulative += totals.buckets[i].sum();
+                sample(out, "transaction_duration_seconds_bucket",
+                        label + ",le=\"" + BUCKET_LABELS[i] + "\"", cumulative);
+            }
+            long count = totals.completed.sum();
+            sample(out, "transaction_duration_seconds_bucket", label + ",le=\"+Inf\"", count);
+            out.append(PREFIX).append("transaction_duration_seconds_sum{").append(label).append("} ")
+                    .append(String.format(Locale.ROOT, "%.9f", totals.durationNanos.sum() / 1e9)).append('\n');
+            sample(out, "transaction_duration_seconds_count", label, count);
+        }
+
+        counter(out, sorted, "transactions_started_total", "Transactions that reached beforeTransaction",
+                totals -> totals.started);
+        counter(out, sorted, "stub_point_reads_total", "getState and getPrivateData calls",
+                totals -> totals.pointReads);
+        counter(out, sorted, "stub_range_scans_total", "Range, partial composite key and rich queries opened",
+                totals -> totals.rangeScans);
+        counter(out, sorted, "stub_range_rows_total", "Rows iterated from those queries",
+                totals -> totals.rangeRows);
+        counter(out, sorted, "stub_writes_total", "Puts and deletes, public and private",
+                totals -> totals.writes);
+        counter(out, sorted, "bytes_deserialized_total", "Value bytes read from the ledger for decoding",
+                totals -> totals.bytesRead);
+        counter(out, sorted, "bytes_serialized_total", "Encoded value bytes written to the ledger",
+                totals -> totals.bytesWritten);
+        counter(out, sorted, "records_skipped_total", "Rows left out of a result because they failed to decode",
+                totals -> totals.skippedRecords);
+
+        synchronized (this) {
+            for (Source source : sources) {
+                header(out, source.name.substring(PREFIX.length()), source.type, source.help);
+                out.append(source.name).append(' ').append(source.value.getAsLong()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private FunctionTotals totals(String function) {
+        return functions.computeIfAbsent(function, name -> new FunctionTotals());
+    }
+
+    private interface Field {
+        LongAdder of(FunctionTotals totals);
+    }
+
+    private static void counter(StringBuilder out, Map<String, FunctionTotals> sorted, String name, String help,
+                                Field field) {
+        header(out, name, "counter", help);
+        for (Map.Entry<String, FunctionTotals> entry : sorted.entrySet()) {
+            sample(out, name, "transaction=\"" + escape(entry.getKey()) + "\"", field.of(entry.getValue()).sum());
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(PREFIX).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class FunctionTotals {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_SECONDS.length];
+        private final LongAdder durationNanos = new LongAdder();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder pointReads = new LongAdder();
+        private final LongAdder rangeScans = new LongAdder();
+        private final LongAdder rangeRows = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final LongAdder skippedRecords = new LongAdder();
+
+        private FunctionTotals() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+    }
+
+    private static final class Source {
+        private final String name;
+        private final String type;
+        private final String help;
+        private final LongSupplier value;
+
+        private Source(String name, String type, String help, LongSupplier value) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.energy.trading.metrics;
+
+// What one transaction asked of the ledger. A transaction runs on one thread, so the counters are plain fields;
+// TransactionMetrics folds them into the process-wide totals when the transaction completes.
+public final class TransactionTally {
+
+    private final long startNanos = System.nanoTime();
+    long pointReads;     // getState and getPrivateData
+    long rangeScans;     // range, partial composite key and rich queries opened
+    long rangeRows;      // rows those queries returned to the contract
+    long writes;         // puts and deletes, public and private
+    long bytesRead;      // value bytes handed to the contract for decoding
+    long bytesWritten;   // encoded value bytes handed to the stub
+    long skippedRecords; // rows the contract could not decode and left out of its result
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public void recordSkipped() {
+        skippedRecords++;
+    }
+
+    public long getPointReads() {
+        return pointReads;
+    }
+
+    public long getRangeScans() {
+        return rangeScans;
+    }
+
+    public long getRangeRows() {
+        return rangeRows;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+}
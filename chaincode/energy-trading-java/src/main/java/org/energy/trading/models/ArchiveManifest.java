@@ -0,0 +1,64 @@
+package org.energy.trading.models;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// The keys one archiving transaction deleted for a prosumer and day, so their values can be
+// recovered from key history and checked against the digest
+@DataType
+public class ArchiveManifest {
+
+    @Property
+    private String prosumerId;
+
+    @Property
+    private String day; // UTC day, yyyyMMdd
+
+    @Property
+    private String txId; // the archiving transaction; key history shows each value just before it
+
+    @Property
+    private String digest; // hex SHA-256 over the archived keys and values, in the order listed
+
+    @Property
+    private List<String> keys;
+
+    @JsonCreator
+    public ArchiveManifest(
+            @JsonProperty("prosumerId") String prosumerId,
+            @JsonProperty("day") String day,
+            @JsonProperty("txId") String txId,
+            @JsonProperty("digest") String digest,
+            @JsonProperty("keys") List<String> keys) {
+        this.prosumerId = prosumerId;
+        this.day = day;
+        this.txId = txId;
+        this.digest = digest;
+        this.keys = keys;
+    }
+
+    // --- Getters ---
+    public String getProsumerId() {
+        return prosumerId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public String getTxId() {
+        return txId;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+}
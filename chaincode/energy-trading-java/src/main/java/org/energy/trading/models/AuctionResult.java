@@ -0,0 +1,79 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Outcome of clearing one auction interval
+@DataType
+public class AuctionResult {
+
+    @Property
+    private String intervalId; // UTC interval start, yyyyMMddHHmm
+
+    @Property
+    private double clearingPrice; // uniform price per kWh; 0 when nothing cleared
+
+    @Property
+    private double clearedVolume; // in kWh
+
+    @Property
+    private int bidCount;
+
+    @Property
+    private int offerCount;
+
+    @Property
+    private int tradeCount;
+
+    @Property
+    private String settlementTxId; // trades are TRADE_<settlementTxId>_<n> for n below tradeCount
+
+    @JsonCreator
+    public AuctionResult(
+            @JsonProperty("intervalId") String intervalId,
+            @JsonProperty("clearingPrice") double clearingPrice,
+            @JsonProperty("clearedVolume") double clearedVolume,
+            @JsonProperty("bidCount") int bidCount,
+            @JsonProperty("offerCount") int offerCount,
+            @JsonProperty("tradeCount") int tradeCount,
+            @JsonProperty("settlementTxId") String settlementTxId) {
+        this.intervalId = intervalId;
+        this.clearingPrice = clearingPrice;
+        this.clearedVolume = clearedVolume;
+        this.bidCount = bidCount;
+        this.offerCount = offerCount;
+        this.tradeCount = tradeCount;
+        this.settlementTxId = settlementTxId;
+    }
+
+    // --- Getters ---
+    public String getIntervalId() {
+        return intervalId;
+    }
+
+    public double getClearingPrice() {
+        return clearingPrice;
+    }
+
+    public double getClearedVolume() {
+        return clearedVolume;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public int getOfferCount() {
+        return offerCount;
+    }
+
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    public String getSettlementTxId() {
+        return settlementTxId;
+    }
+}
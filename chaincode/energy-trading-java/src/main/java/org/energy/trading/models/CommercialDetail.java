@@ -0,0 +1,34 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Commercial fields of a ledger entity, kept in the private collection under the entity's own key
+@DataType
+public class CommercialDetail {
+
+    @Property
+    private double tariffPerKWh;
+
+    @Property
+    private double invoiceValue;
+
+    @JsonCreator
+    public CommercialDetail(
+            @JsonProperty("tariffPerKWh") double tariffPerKWh,
+            @JsonProperty("invoiceValue") double invoiceValue) {
+        this.tariffPerKWh = tariffPerKWh;
+        this.invoiceValue = invoiceValue;
+    }
+
+    // --- Getters ---
+    public double getTariffPerKWh() {
+        return tariffPerKWh;
+    }
+
+    public double getInvoiceValue() {
+        return invoiceValue;
+    }
+}
@@ -0,0 +1,55 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@DataType
+public class CreditTransfer {
+
+    @Property
+    private String tokenId;
+
+    @Property
+    private String toOwnerId;
+
+    @Property
+    private double amount; // in kWh; less than the credit amount splits it
+
+    @JsonCreator
+    public CreditTransfer(
+            @JsonProperty("tokenId") String tokenId,
+            @JsonProperty("toOwnerId") String toOwnerId,
+            @JsonProperty("amount") double amount) {
+        this.tokenId = tokenId;
+        this.toOwnerId = toOwnerId;
+        this.amount = amount;
+    }
+
+    // --- Getters ---
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getToOwnerId() {
+        return toOwnerId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    // --- Setters ---
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public void setToOwnerId(String toOwnerId) {
+        this.toOwnerId = toOwnerId;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,139 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Summary left in place of one prosumer's generation events for one UTC day once they are archived
+@DataType
+public class EventArchive {
+
+    @Property
+    private String prosumerId;
+
+    @Property
+    private String day; // UTC day, yyyyMMdd
+
+    @Property
+    private int eventCount;
+
+    @Property
+    private int creditCount; // spent credits archived with their events
+
+    @Property
+    private double generatedKWh;
+
+    @Property
+    private double tokensIssued;
+
+    @Property
+    private long firstEventMillis;
+
+    @Property
+    private long lastEventMillis;
+
+    @Property
+    private int sliceCount; // one ArchiveManifest per slice
+
+    @Property
+    private String digest; // hex SHA-256 chained over the slice digests in order
+
+    @JsonCreator
+    public EventArchive(
+            @JsonProperty("prosumerId") String prosumerId,
+            @JsonProperty("day") String day,
+            @JsonProperty("eventCount") int eventCount,
+            @JsonProperty("creditCount") int creditCount,
+            @JsonProperty("generatedKWh") double generatedKWh,
+            @JsonProperty("tokensIssued") double tokensIssued,
+            @JsonProperty("firstEventMillis") long firstEventMillis,
+            @JsonProperty("lastEventMillis") long lastEventMillis,
+            @JsonProperty("sliceCount") int sliceCount,
+            @JsonProperty("digest") String digest) {
+        this.prosumerId = prosumerId;
+        this.day = day;
+        this.eventCount = eventCount;
+        this.creditCount = creditCount;
+        this.generatedKWh = generatedKWh;
+        this.tokensIssued = tokensIssued;
+        this.firstEventMillis = firstEventMillis;
+        this.lastEventMillis = lastEventMillis;
+        this.sliceCount = sliceCount;
+        this.digest = digest;
+    }
+
+    // --- Getters ---
+    public String getProsumerId() {
+        return prosumerId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getCreditCount() {
+        return creditCount;
+    }
+
+    public double getGeneratedKWh() {
+        return generatedKWh;
+    }
+
+    public double getTokensIssued() {
+        return tokensIssued;
+    }
+
+    public long getFirstEventMillis() {
+        return firstEventMillis;
+    }
+
+    public long getLastEventMillis() {
+        return lastEventMillis;
+    }
+
+    public int getSliceCount() {
+        return sliceCount;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    // --- Setters ---
+    public void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public void setCreditCount(int creditCount) {
+        this.creditCount = creditCount;
+    }
+
+    public void setGeneratedKWh(double generatedKWh) {
+        this.generatedKWh = generatedKWh;
+    }
+
+    public void setTokensIssued(double tokensIssued) {
+        this.tokensIssued = tokensIssued;
+    }
+
+    public void setFirstEventMillis(long firstEventMillis) {
+        this.firstEventMillis = firstEventMillis;
+    }
+
+    public void setLastEventMillis(long lastEventMillis) {
+        this.lastEventMillis = lastEventMillis;
+    }
+
+    public void setSliceCount(int sliceCount) {
+        this.sliceCount = sliceCount;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+}
@@ -4,9 +4,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.hyperledger.fabric.contract.annotation.DataType;
 import org.hyperledger.fabric.contract.annotation.Property;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Objects;
 
 @DataType
@@ -16,6 +17,9 @@ public class GenerationEvent {
     private static final double MIN_ENERGY = 0.0;
     private static final double MAX_ENERGY = 1_000_000.0; // 1 GWh per event
     private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+    // Immutable and thread-safe, so one instance serves every parse; 'uuuu' keeps STRICT resolution era-free
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSZ").withResolverStyle(ResolverStyle.STRICT);
     private static final String[] ALLOWED_STATUSES = {"PROCESSED", "PENDING", "FAILED"};
 
     @Property
@@ -33,6 +37,12 @@ public class GenerationEvent {
     @Property
     private String timestamp;
 
+    @Property
+    private long timestampMillis; // timestamp as epoch millis, so comparisons never re-parse it
+
+    // Whether timestampMillis was bound or derived; events stored before it existed arrive without it
+    private transient boolean timestampMillisKnown;
+
     @Property
     private String agreementId;
 
@@ -46,24 +56,61 @@ public class GenerationEvent {
     private String status; // "PROCESSED", "PENDING", "FAILED"
 
     // Constructors
+    // Binds trusted ledger data without validation; used when decoding stored events
     public GenerationEvent() {}
 
+    // Builds and validates a new event at write time
     public GenerationEvent(String eventId, String prosumerId, String meterId,
                           double generatedKWh, String timestamp, String agreementId,
                           double tokensIssued, double invoiceValue) {
         
-        setEventId(eventId);
-        setProsumerId(prosumerId);
-        setMeterId(meterId);
-        setGeneratedKWh(generatedKWh);
-        setTimestamp(timestamp);
-        setAgreementId(agreementId);
-        setTokensIssued(tokensIssued);
-        setInvoiceValue(invoiceValue);
+        this.eventId = eventId;
+        this.prosumerId = prosumerId;
+        this.meterId = meterId;
+        this.generatedKWh = generatedKWh;
+        this.timestamp = timestamp;
+        this.agreementId = agreementId;
+        this.tokensIssued = tokensIssued;
+        this.invoiceValue = invoiceValue;
         this.status = "PENDING"; // Default status
+        validate();
+    }
+
+    public static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("timestamp cannot be null");
+        }
+        try {
+            return OffsetDateTime.parse(timestamp, TIMESTAMP_FORMATTER).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp format. Expected format: " + TIMESTAMP_FORMAT, e);
+        }
+    }
+
+    // Validates every field and derives timestampMillis; setters bind values as-is so deserialization stays cheap
+    public void validate() {
+        requireNonEmpty("eventId", eventId);
+        requireNonEmpty("prosumerId", prosumerId);
+        requireNonEmpty("meterId", meterId);
+        requireNonEmpty("agreementId", agreementId);
+        validateEnergy(generatedKWh);
+        setTimestampMillis(parseTimestamp(timestamp));
+        if (tokensIssued < 0) {
+            throw new IllegalArgumentException("Tokens issued cannot be negative: " + tokensIssued);
+        }
+        if (invoiceValue < 0) {
+            throw new IllegalArgumentException("Invoice value cannot be negative: " + invoiceValue);
+        }
+        validateStatus(status);
     }
 
     // Validation methods
+    private void requireNonEmpty(String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(name + " cannot be null or empty");
+        }
+    }
+
     private void validateEnergy(double energy) {
         if (energy < MIN_ENERGY) {
             throw new IllegalArgumentException("Energy cannot be negative: " + energy);
@@ -73,16 +120,6 @@ public class GenerationEvent {
         }
     }
 
-    private void validateTimestamp(String timestamp) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat(TIMESTAMP_FORMAT);
-            sdf.setLenient(false);
-            sdf.parse(timestamp);
-        } catch (ParseException e) {
-            throw new IllegalArgumentException("Invalid timestamp format. Expected format: " + TIMESTAMP_FORMAT, e);
-        }
-    }
-
     private void validateStatus(String status) {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
@@ -95,16 +132,13 @@ public class GenerationEvent {
         throw new IllegalArgumentException("Invalid status: " + status + ". Must be one of: " + String.join(", ", ALLOWED_STATUSES));
     }
 
-    // Getters and Setters with validation
+    // Getters and Setters; timestampMillis is derived from timestamp, so equality leaves it out
     @JsonProperty("eventId")
     public String getEventId() {
         return eventId;
     }
 
     public void setEventId(String eventId) {
-        if (eventId == null || eventId.trim().isEmpty()) {
-            throw new IllegalArgumentException("eventId cannot be null or empty");
-        }
         this.eventId = eventId;
     }
 
@@ -114,9 +148,6 @@ public class GenerationEvent {
     }
 
     public void setProsumerId(String prosumerId) {
-        if (prosumerId == null || prosumerId.trim().isEmpty()) {
-            throw new IllegalArgumentException("prosumerId cannot be null or empty");
-        }
         this.prosumerId = prosumerId;
     }
 
@@ -126,9 +157,6 @@ public class GenerationEvent {
     }
 
     public void setMeterId(String meterId) {
-        if (meterId == null || meterId.trim().isEmpty()) {
-            throw new IllegalArgumentException("meterId cannot be null or empty");
-        }
         this.meterId = meterId;
     }
 
@@ -138,7 +166,6 @@ public class GenerationEvent {
     }
 
     public void setGeneratedKWh(double generatedKWh) {
-        validateEnergy(generatedKWh);
         this.generatedKWh = generatedKWh;
     }
 
@@ -148,19 +175,33 @@ public class GenerationEvent {
     }
 
     public void setTimestamp(String timestamp) {
-        validateTimestamp(timestamp);
         this.timestamp = timestamp;
     }
 
+    @JsonProperty("timestampMillis")
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public void setTimestampMillis(long timestampMillis) {
+        this.timestampMillis = timestampMillis;
+        this.timestampMillisKnown = true;
+    }
+
+    // Called by the codecs once a stored event is bound: events written before timestampMillis existed
+    // derive it from the string form. Throws IllegalArgumentException when that does not parse.
+    public void deriveMissingTimestampMillis() {
+        if (!timestampMillisKnown) {
+            setTimestampMillis(parseTimestamp(timestamp));
+        }
+    }
+
     @JsonProperty("agreementId")
     public String getAgreementId() {
         return agreementId;
     }
 
     public void setAgreementId(String agreementId) {
-        if (agreementId == null || agreementId.trim().isEmpty()) {
-            throw new IllegalArgumentException("agreementId cannot be null or empty");
-        }
         this.agreementId = agreementId;
     }
 
@@ -170,9 +211,6 @@ public class GenerationEvent {
     }
 
     public void setTokensIssued(double tokensIssued) {
-        if (tokensIssued < 0) {
-            throw new IllegalArgumentException("Tokens issued cannot be negative: " + tokensIssued);
-        }
         this.tokensIssued = tokensIssued;
     }
 
@@ -182,9 +220,6 @@ public class GenerationEvent {
     }
 
     public void setInvoiceValue(double invoiceValue) {
-        if (invoiceValue < 0) {
-            throw new IllegalArgumentException("Invoice value cannot be negative: " + invoiceValue);
-        }
         this.invoiceValue = invoiceValue;
     }
 
@@ -194,7 +229,6 @@ public class GenerationEvent {
     }
 
     public void setStatus(String status) {
-        validateStatus(status);
         this.status = status;
     }
 
@@ -216,7 +250,7 @@ public class GenerationEvent {
 
     @Override
     public int hashCode() {
-        return Objects.hash(eventId, prosumerId, meterId, generatedKWh, timestamp, 
+        return Objects.hash(eventId, prosumerId, meterId, generatedKWh, timestamp,
                           agreementId, tokensIssued, invoiceValue, status);
     }
 
@@ -228,6 +262,7 @@ public class GenerationEvent {
                 ", meterId='" + meterId + '\'' +
                 ", generatedKWh=" + generatedKWh +
                 ", timestamp='" + timestamp + '\'' +
+                ", timestampMillis=" + timestampMillis +
                 ", agreementId='" + agreementId + '\'' +
                 ", tokensIssued=" + tokensIssued +
                 ", invoiceValue=" + invoiceValue +
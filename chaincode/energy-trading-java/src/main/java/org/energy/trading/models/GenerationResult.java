@@ -0,0 +1,96 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@DataType
+@JsonPropertyOrder({"status", "eventId", "tokenId", "tokensIssued", "invoiceValue", "agreementId"})
+public class GenerationResult {
+
+    @Property
+    private String status;
+
+    @Property
+    private String eventId;
+
+    @Property
+    private String tokenId;
+
+    @Property
+    private double tokensIssued;
+
+    @Property
+    private double invoiceValue;
+
+    @Property
+    private String agreementId;
+
+    @JsonCreator
+    public GenerationResult(
+            @JsonProperty("status") String status,
+            @JsonProperty("eventId") String eventId,
+            @JsonProperty("tokenId") String tokenId,
+            @JsonProperty("tokensIssued") double tokensIssued,
+            @JsonProperty("invoiceValue") double invoiceValue,
+            @JsonProperty("agreementId") String agreementId) {
+        this.status = status;
+        this.eventId = eventId;
+        this.tokenId = tokenId;
+        this.tokensIssued = tokensIssued;
+        this.invoiceValue = invoiceValue;
+        this.agreementId = agreementId;
+    }
+
+    // --- Getters ---
+    public String getStatus() {
+        return status;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public double getTokensIssued() {
+        return tokensIssued;
+    }
+
+    public double getInvoiceValue() {
+        return invoiceValue;
+    }
+
+    public String getAgreementId() {
+        return agreementId;
+    }
+
+    // --- Setters ---
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public void setTokensIssued(double tokensIssued) {
+        this.tokensIssued = tokensIssued;
+    }
+
+    public void setInvoiceValue(double invoiceValue) {
+        this.invoiceValue = invoiceValue;
+    }
+
+    public void setAgreementId(String agreementId) {
+        this.agreementId = agreementId;
+    }
+}
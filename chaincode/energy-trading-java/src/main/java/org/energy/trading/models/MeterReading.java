@@ -0,0 +1,81 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@DataType
+public class MeterReading {
+
+    @Property
+    private String prosumerId;
+
+    @Property
+    private double generatedKWh;
+
+    @Property
+    private String meterId;
+
+    @Property
+    private String timestamp;
+
+    @Property
+    private String buyerId;
+
+    @JsonCreator
+    public MeterReading(
+            @JsonProperty("prosumerId") String prosumerId,
+            @JsonProperty("generatedKWh") double generatedKWh,
+            @JsonProperty("meterId") String meterId,
+            @JsonProperty("timestamp") String timestamp,
+            @JsonProperty("buyerId") String buyerId) {
+        this.prosumerId = prosumerId;
+        this.generatedKWh = generatedKWh;
+        this.meterId = meterId;
+        this.timestamp = timestamp;
+        this.buyerId = buyerId;
+    }
+
+    // --- Getters ---
+    public String getProsumerId() {
+        return prosumerId;
+    }
+
+    public double getGeneratedKWh() {
+        return generatedKWh;
+    }
+
+    public String getMeterId() {
+        return meterId;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBuyerId() {
+        return buyerId;
+    }
+
+    // --- Setters ---
+    public void setProsumerId(String prosumerId) {
+        this.prosumerId = prosumerId;
+    }
+
+    public void setGeneratedKWh(double generatedKWh) {
+        this.generatedKWh = generatedKWh;
+    }
+
+    public void setMeterId(String meterId) {
+        this.meterId = meterId;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public void setBuyerId(String buyerId) {
+        this.buyerId = buyerId;
+    }
+}
@@ -0,0 +1,106 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Limit order in the EnergyCredit order book
+@DataType
+public class Order {
+
+    @Property
+    private String orderId;
+
+    @Property
+    private String side; // BID or ASK
+
+    @Property
+    private String participantId; // bidder, or the seller owning the credit
+
+    @Property
+    private String tokenId; // credit offered by an ask; null for bids
+
+    @Property
+    private double price; // per kWh
+
+    @Property
+    private double quantity; // in kWh
+
+    @Property
+    private double remaining; // in kWh, still to be filled
+
+    @Property
+    private String status; // OPEN, FILLED or CANCELLED
+
+    @Property
+    private long timestampMillis; // transaction time of placement
+
+    @JsonCreator
+    public Order(
+            @JsonProperty("orderId") String orderId,
+            @JsonProperty("side") String side,
+            @JsonProperty("participantId") String participantId,
+            @JsonProperty("tokenId") String tokenId,
+            @JsonProperty("price") double price,
+            @JsonProperty("quantity") double quantity,
+            @JsonProperty("remaining") double remaining,
+            @JsonProperty("status") String status,
+            @JsonProperty("timestampMillis") long timestampMillis) {
+        this.orderId = orderId;
+        this.side = side;
+        this.participantId = participantId;
+        this.tokenId = tokenId;
+        this.price = price;
+        this.quantity = quantity;
+        this.remaining = remaining;
+        this.status = status;
+        this.timestampMillis = timestampMillis;
+    }
+
+    // --- Getters ---
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public String getParticipantId() {
+        return participantId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public double getRemaining() {
+        return remaining;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    // --- Setters ---
+    public void setRemaining(double remaining) {
+        this.remaining = remaining;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,71 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// One band of a tariff schedule: the price per kWh for readings in a range of months and a window of the day,
+// from a reading size upward. Within a window, the band with the highest minKWh not above the reading applies.
+@DataType
+public class TariffRate {
+
+    @Property
+    private int fromMonth; // 1-12, inclusive
+
+    @Property
+    private int toMonth; // 1-12, inclusive; before fromMonth wraps past December
+
+    @Property
+    private String startTime; // HH:mm local time, inclusive
+
+    @Property
+    private String endTime; // HH:mm local time, exclusive; 00:00 is midnight, at or before startTime wraps past it
+
+    @Property
+    private double minKWh; // the reading size from which this rate applies
+
+    @Property
+    private double tariffPerKWh;
+
+    @JsonCreator
+    public TariffRate(
+            @JsonProperty("fromMonth") int fromMonth,
+            @JsonProperty("toMonth") int toMonth,
+            @JsonProperty("startTime") String startTime,
+            @JsonProperty("endTime") String endTime,
+            @JsonProperty("minKWh") double minKWh,
+            @JsonProperty("tariffPerKWh") double tariffPerKWh) {
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.minKWh = minKWh;
+        this.tariffPerKWh = tariffPerKWh;
+    }
+
+    // --- Getters ---
+    public int getFromMonth() {
+        return fromMonth;
+    }
+
+    public int getToMonth() {
+        return toMonth;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public double getMinKWh() {
+        return minKWh;
+    }
+
+    public double getTariffPerKWh() {
+        return tariffPerKWh;
+    }
+}
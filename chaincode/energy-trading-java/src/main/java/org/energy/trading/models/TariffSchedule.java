@@ -0,0 +1,46 @@
+package org.energy.trading.models;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Time-of-use pricing for one agreement, stored once under TARIFF_<agreementId>. A reading no band covers
+// is priced at the agreement's flat tariffPerKWh.
+@DataType
+public class TariffSchedule {
+
+    @Property
+    private String agreementId;
+
+    @Property
+    private String utcOffset; // offset of the local time the bands use, e.g. +05:30
+
+    @Property
+    private List<TariffRate> rates;
+
+    @JsonCreator
+    public TariffSchedule(
+            @JsonProperty("agreementId") String agreementId,
+            @JsonProperty("utcOffset") String utcOffset,
+            @JsonProperty("rates") List<TariffRate> rates) {
+        this.agreementId = agreementId;
+        this.utcOffset = utcOffset;
+        this.rates = rates;
+    }
+
+    // --- Getters ---
+    public String getAgreementId() {
+        return agreementId;
+    }
+
+    public String getUtcOffset() {
+        return utcOffset;
+    }
+
+    public List<TariffRate> getRates() {
+        return rates;
+    }
+}
@@ -0,0 +1,71 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// Increment to a PPA's or prosumer's running totals or to a generation rollup bucket,
+// stored under its own key per transaction
+@DataType
+public class TotalsDelta {
+
+    @Property
+    private double energyGenerated;
+
+    @Property
+    private double tokensIssued;
+
+    @Property
+    private double invoiceValue;
+
+    public TotalsDelta() {
+        this(0.0, 0.0, 0.0);
+    }
+
+    @JsonCreator
+    public TotalsDelta(
+            @JsonProperty("energyGenerated") double energyGenerated,
+            @JsonProperty("tokensIssued") double tokensIssued,
+            @JsonProperty("invoiceValue") double invoiceValue) {
+        this.energyGenerated = energyGenerated;
+        this.tokensIssued = tokensIssued;
+        this.invoiceValue = invoiceValue;
+    }
+
+    public void add(double energy, double tokens, double invoice) {
+        this.energyGenerated += energy;
+        this.tokensIssued += tokens;
+        this.invoiceValue += invoice;
+    }
+
+    public void add(TotalsDelta other) {
+        add(other.energyGenerated, other.tokensIssued, other.invoiceValue);
+    }
+
+    // --- Getters ---
+    public double getEnergyGenerated() {
+        return energyGenerated;
+    }
+
+    public double getTokensIssued() {
+        return tokensIssued;
+    }
+
+    public double getInvoiceValue() {
+        return invoiceValue;
+    }
+
+    // --- Setters ---
+    public void setEnergyGenerated(double energyGenerated) {
+        this.energyGenerated = energyGenerated;
+    }
+
+    public void setTokensIssued(double tokensIssued) {
+        this.tokensIssued = tokensIssued;
+    }
+
+    public void setInvoiceValue(double invoiceValue) {
+        this.invoiceValue = invoiceValue;
+    }
+}
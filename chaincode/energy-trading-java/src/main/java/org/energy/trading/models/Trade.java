@@ -0,0 +1,106 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// One fill between a bid and an ask
+@DataType
+public class Trade {
+
+    @Property
+    private String tradeId;
+
+    @Property
+    private String bidOrderId;
+
+    @Property
+    private String askOrderId;
+
+    @Property
+    private String buyerId;
+
+    @Property
+    private String sellerId;
+
+    @Property
+    private String sourceTokenId; // credit the energy came from
+
+    @Property
+    private String tokenId; // credit now held by the buyer
+
+    @Property
+    private double price; // per kWh, the resting order's price
+
+    @Property
+    private double quantity; // in kWh
+
+    @Property
+    private long timestampMillis;
+
+    @JsonCreator
+    public Trade(
+            @JsonProperty("tradeId") String tradeId,
+            @JsonProperty("bidOrderId") String bidOrderId,
+            @JsonProperty("askOrderId") String askOrderId,
+            @JsonProperty("buyerId") String buyerId,
+            @JsonProperty("sellerId") String sellerId,
+            @JsonProperty("sourceTokenId") String sourceTokenId,
+            @JsonProperty("tokenId") String tokenId,
+            @JsonProperty("price") double price,
+            @JsonProperty("quantity") double quantity,
+            @JsonProperty("timestampMillis") long timestampMillis) {
+        this.tradeId = tradeId;
+        this.bidOrderId = bidOrderId;
+        this.askOrderId = askOrderId;
+        this.buyerId = buyerId;
+        this.sellerId = sellerId;
+        this.sourceTokenId = sourceTokenId;
+        this.tokenId = tokenId;
+        this.price = price;
+        this.quantity = quantity;
+        this.timestampMillis = timestampMillis;
+    }
+
+    // --- Getters ---
+    public String getTradeId() {
+        return tradeId;
+    }
+
+    public String getBidOrderId() {
+        return bidOrderId;
+    }
+
+    public String getAskOrderId() {
+        return askOrderId;
+    }
+
+    public String getBuyerId() {
+        return buyerId;
+    }
+
+    public String getSellerId() {
+        return sellerId;
+    }
+
+    public String getSourceTokenId() {
+        return sourceTokenId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+}
@@ -0,0 +1,99 @@
+package org.energy.trading.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+// One entry of the aggregated chaincode event; fields that do not apply to the type are null and omitted
+@DataType
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TradingEvent {
+
+    @Property
+    private String type; // PROSUMER_REGISTERED, PPA_CREATED, CREDIT_MINTED or CREDIT_UPDATED
+
+    @Property
+    private String prosumerId;
+
+    @Property
+    private String agreementId;
+
+    @Property
+    private String buyerId;
+
+    @Property
+    private String tokenId;
+
+    @Property
+    private String ownerId;
+
+    @Property
+    private String eventId; // generation event that minted the credit
+
+    @Property
+    private Double energyAmount; // in kWh
+
+    @Property
+    private Boolean available;
+
+    @JsonCreator
+    public TradingEvent(
+            @JsonProperty("type") String type,
+            @JsonProperty("prosumerId") String prosumerId,
+            @JsonProperty("agreementId") String agreementId,
+            @JsonProperty("buyerId") String buyerId,
+            @JsonProperty("tokenId") String tokenId,
+            @JsonProperty("ownerId") String ownerId,
+            @JsonProperty("eventId") String eventId,
+            @JsonProperty("energyAmount") Double energyAmount,
+            @JsonProperty("available") Boolean available) {
+        this.type = type;
+        this.prosumerId = prosumerId;
+        this.agreementId = agreementId;
+        this.buyerId = buyerId;
+        this.tokenId = tokenId;
+        this.ownerId = ownerId;
+        this.eventId = eventId;
+        this.energyAmount = energyAmount;
+        this.available = available;
+    }
+
+    // --- Getters ---
+    public String getType() {
+        return type;
+    }
+
+    public String getProsumerId() {
+        return prosumerId;
+    }
+
+    public String getAgreementId() {
+        return agreementId;
+    }
+
+    public String getBuyerId() {
+        return buyerId;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Double getEnergyAmount() {
+        return energyAmount;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+}
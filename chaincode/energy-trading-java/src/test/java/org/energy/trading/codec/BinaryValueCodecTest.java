@@ -0,0 +1,143 @@
+package org.energy.trading.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.GenerationEvent;
+import org.energy.trading.models.Order;
+import org.energy.trading.models.Prosumer;
+import org.energy.trading.models.SimplifiedPPA;
+import org.energy.trading.models.TariffRate;
+import org.energy.trading.models.TariffSchedule;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Models other than GenerationEvent have no equals, so round trips compare their JSON trees
+class BinaryValueCodecTest {
+
+    private static final String TIMESTAMP = "2025-06-01T10:00:00.000+0530";
+    private static final long TIMESTAMP_MILLIS = 1_748_752_200_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BinaryValueCodec codec = new BinaryValueCodec();
+
+    @Test
+    void roundTripsStoredModels() {
+        SimplifiedPPA ppa = new SimplifiedPPA("PPA001", "PROSUMER001", "UTILITY001", 4.5, "2025-01-01", "2030-12-31");
+        ppa.setTotalEnergyGenerated(12.5);
+        Object[] values = {
+            new Prosumer("PROSUMER001", "Solar Site 1", "Pune, Maharashtra", 100.0, "ProsumerMSP"),
+            ppa,
+            new EnergyCredit("CREDIT001", "PROSUMER001", 12.5, "SOLAR", "BUYER001", 4.5, "Pune, Maharashtra", true),
+            new Order("ORDER001", "ASK", "PROSUMER001", "CREDIT001", 4.25, 12.5, 7.5, "OPEN", TIMESTAMP_MILLIS),
+            new TariffSchedule("PPA001", "+05:30", Arrays.asList(
+                    new TariffRate(4, 9, "22:00", "06:00", 0.0, 3.5),
+                    new TariffRate(1, 12, "00:00", "00:00", 10.0, 4.0))),
+        };
+        for (Object value : values) {
+            Object decoded = codec.decode(codec.encode(value), value.getClass());
+            assertEquals(objectMapper.valueToTree(value), objectMapper.valueToTree(decoded),
+                    value.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void roundTripsNullAndEmptyStrings() {
+        Order order = new Order("ORDER001", "BID", "BUYER001", null, 4.25, 12.5, 12.5, "OPEN", TIMESTAMP_MILLIS);
+        Order decoded = codec.decode(codec.encode(order), Order.class);
+        assertNull(decoded.getTokenId());
+
+        Prosumer prosumer = new Prosumer("PROSUMER001", "", "", 0.0, "ProsumerMSP");
+        assertEquals("", codec.decode(codec.encode(prosumer), Prosumer.class).getName());
+    }
+
+    @Test
+    void roundTripsAGenerationEventWithItsMillis() {
+        GenerationEvent event = event();
+        byte[] bytes = codec.encode(event);
+        assertEquals(BinaryValueCodec.FORMAT_VERSION, bytes[0]);
+
+        GenerationEvent decoded = codec.decode(bytes, GenerationEvent.class);
+        assertEquals(event, decoded);
+        assertEquals(TIMESTAMP_MILLIS, decoded.getTimestampMillis());
+    }
+
+    @Test
+    void derivesMillisForAVersionOneGenerationEvent() {
+        GenerationEvent decoded = codec.decode(versionOne(TIMESTAMP), GenerationEvent.class);
+        assertEquals(event(), decoded);
+        assertEquals(TIMESTAMP_MILLIS, decoded.getTimestampMillis());
+        assertEquals("PROCESSED", decoded.getStatus());
+    }
+
+    @Test
+    void rejectsAVersionOneGenerationEventWithAnUnparseableTimestamp() {
+        assertThrows(CodecException.class, () -> codec.decode(versionOne("2025-06-01 10:00"), GenerationEvent.class));
+    }
+
+    @Test
+    void decodesABufferInPlaceWithoutMovingIt() {
+        byte[] bytes = codec.encode(event());
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 2);
+        buffer.put((byte) 0).put(bytes).put((byte) 0);
+        buffer.position(1).limit(1 + bytes.length);
+
+        assertEquals(event(), codec.decode(buffer, GenerationEvent.class));
+        assertEquals(1, buffer.position());
+        assertEquals(event(), codec.decode(buffer.asReadOnlyBuffer(), GenerationEvent.class));
+    }
+
+    @Test
+    void rejectsUnknownVersionsOtherTypesAndTruncatedValues() {
+        byte[] bytes = codec.encode(event());
+
+        byte[] future = bytes.clone();
+        future[0] = BinaryValueCodec.FORMAT_VERSION + 1;
+        assertThrows(CodecException.class, () -> codec.decode(future, GenerationEvent.class));
+        assertThrows(CodecException.class, () -> codec.decode(bytes, Order.class));
+        assertThrows(CodecException.class, () -> codec.decode(Arrays.copyOf(bytes, bytes.length / 2),
+                GenerationEvent.class));
+    }
+
+    @Test
+    void tellsBinaryValuesFromJson() {
+        assertTrue(BinaryValueCodec.isBinary(codec.encode(event())));
+        assertTrue(BinaryValueCodec.isBinary(versionOne(TIMESTAMP)));
+        assertFalse(BinaryValueCodec.isBinary("{\"eventId\":\"E1\"}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(BinaryValueCodec.isBinary(" {}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(BinaryValueCodec.isBinary(new byte[0]));
+    }
+
+    private static GenerationEvent event() {
+        GenerationEvent event = new GenerationEvent("PROSUMER001_tx1", "PROSUMER001", "METER001", 12.5, TIMESTAMP,
+                "PPA001", 12.5, 56.25);
+        event.setStatus("PROCESSED");
+        return event;
+    }
+
+    // The version-1 layout: the version 2 fields without the trailing timestampMillis
+    private static byte[] versionOne(String timestamp) {
+        BinaryWriter writer = new BinaryWriter(64);
+        writer.writeByte(1);
+        writer.writeByte(3);
+        writer.writeString("PROSUMER001_tx1");
+        writer.writeString("PROSUMER001");
+        writer.writeString("METER001");
+        writer.writeDouble(12.5);
+        writer.writeString(timestamp);
+        writer.writeString("PPA001");
+        writer.writeDouble(12.5);
+        writer.writeDouble(56.25);
+        writer.writeString("PROCESSED");
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,70 @@
+package org.energy.trading.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.energy.trading.models.GenerationEvent;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LedgerCodecTest {
+
+    private static final String TIMESTAMP = "2025-06-01T10:00:00.000+0530";
+    private static final long TIMESTAMP_MILLIS = 1_748_752_200_000L;
+    // As written before timestampMillis existed
+    private static final String LEGACY_EVENT = "{\"eventId\":\"PROSUMER001_tx1\",\"prosumerId\":\"PROSUMER001\","
+            + "\"meterId\":\"METER001\",\"generatedKWh\":12.5,\"timestamp\":\"%s\",\"agreementId\":\"PPA001\","
+            + "\"tokensIssued\":12.5,\"invoiceValue\":56.25,\"status\":\"PROCESSED\"}";
+
+    private final LedgerCodec codec = new LedgerCodec(new ObjectMapper());
+
+    @Test
+    void readsValuesWrittenInEitherMode() {
+        GenerationEvent event = event();
+        for (CodecMode mode : CodecMode.values()) {
+            byte[] bytes = codec.encode(event, mode);
+            assertEquals(event, codec.decode(bytes, GenerationEvent.class), mode.name());
+            assertEquals(event, codec.decode(ByteBuffer.wrap(bytes), GenerationEvent.class), mode.name());
+        }
+    }
+
+    @Test
+    void derivesMillisForALegacyJsonEvent() {
+        GenerationEvent decoded = codec.decode(legacy(TIMESTAMP), GenerationEvent.class);
+        assertEquals(event(), decoded);
+        assertEquals(TIMESTAMP_MILLIS, decoded.getTimestampMillis());
+    }
+
+    @Test
+    void keepsStoredMillisEvenWhenZero() {
+        GenerationEvent event = event();
+        event.setTimestampMillis(0);
+        assertEquals(0, codec.decode(codec.encode(event, CodecMode.JSON), GenerationEvent.class).getTimestampMillis());
+    }
+
+    @Test
+    void rejectsALegacyJsonEventWithAnUnparseableTimestamp() {
+        assertThrows(CodecException.class, () -> codec.decode(legacy("yesterday"), GenerationEvent.class));
+    }
+
+    @Test
+    void rejectsEmptyValues() {
+        assertThrows(CodecException.class, () -> codec.decode(new byte[0], GenerationEvent.class));
+        assertThrows(CodecException.class, () -> codec.decode(ByteBuffer.allocate(0), GenerationEvent.class));
+    }
+
+    private static GenerationEvent event() {
+        GenerationEvent event = new GenerationEvent("PROSUMER001_tx1", "PROSUMER001", "METER001", 12.5, TIMESTAMP,
+                "PPA001", 12.5, 56.25);
+        event.setStatus("PROCESSED");
+        return event;
+    }
+
+    private static byte[] legacy(String timestamp) {
+        return String.format(LEGACY_EVENT, timestamp).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package org.energy.trading.contracts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.energy.trading.models.AuctionResult;
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.Trade;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Uniform-price clearing of an auction interval: the clearing price, pro-rata allocation and settlement
+class AuctionClearingTest {
+
+    private static final String PROSUMER_1 = "PROSUMER001";
+    private static final String PROSUMER_2 = "PROSUMER002";
+    private static final String BUYER_1 = "BUYER001";
+    private static final String BUYER_2 = "BUYER002";
+    private static final String INTERVAL = "202506010400";
+    private static final Instant INTERVAL_END = Instant.parse("2025-06-01T04:15:00Z");
+    private static final double DELTA = 1e-9;
+
+    private final ContractHarness harness = new ContractHarness();
+    private int readings;
+
+    @BeforeEach
+    void registerProsumers() {
+        harness.registerProsumer(PROSUMER_1);
+        harness.registerProsumer(PROSUMER_2);
+    }
+
+    @Test
+    void clearsAtTheMidpointOfTheVolumeMaximisingRangeAndScalesTheLongerSide() {
+        bid(BUYER_1, 5.0, 4.0);
+        bid(BUYER_2, 4.0, 4.0);
+        offer(PROSUMER_1, credit(PROSUMER_1, 5.0), 3.0);
+        offer(PROSUMER_2, credit(PROSUMER_2, 5.0), 4.5);
+
+        // 5 kWh trade at any price from 3.0 to 4.0; above that demand falls to 4
+        AuctionResult result = clear();
+
+        assertEquals(3.5, result.getClearingPrice(), DELTA);
+        assertEquals(5.0, result.getClearedVolume(), DELTA);
+        assertEquals(2, result.getBidCount());
+        assertEquals(2, result.getOfferCount());
+        assertEquals(2, result.getTradeCount());
+        // Demand of 8 exceeds supply of 5, so each bid gets 5/8 of its quantity
+        for (int sequence = 0; sequence < 2; sequence++) {
+            Trade trade = trade(result, sequence);
+            assertEquals(2.5, trade.getQuantity(), DELTA);
+            assertEquals(3.5, trade.getPrice(), DELTA);
+            assertEquals(PROSUMER_1, trade.getSellerId());
+        }
+        assertEquals(BUYER_2, trade(result, 0).getBuyerId());
+        assertEquals(BUYER_1, trade(result, 1).getBuyerId());
+    }
+
+    @Test
+    void scalesOffersWhenSupplyExceedsDemand() {
+        bid(BUYER_1, 4.0, 3.0);
+        String large = credit(PROSUMER_1, 4.0);
+        String small = credit(PROSUMER_2, 2.0);
+        offer(PROSUMER_1, large, 3.0);
+        offer(PROSUMER_2, small, 3.0);
+
+        AuctionResult result = clear();
+
+        assertEquals(3.5, result.getClearingPrice(), DELTA);
+        assertEquals(3.0, result.getClearedVolume(), DELTA);
+        assertEquals(2, result.getTradeCount());
+        assertEquals(2.0, trade(result, 0).getQuantity(), DELTA);
+        assertEquals(1.0, trade(result, 1).getQuantity(), DELTA);
+        // Each offer sold half its credit; the rest stays available with the seller
+        assertEquals(2.0, credit(large).getEnergyAmount(), DELTA);
+        assertEquals(1.0, credit(small).getEnergyAmount(), DELTA);
+        assertTrue(credit(large).isAvailable());
+        assertEquals(PROSUMER_1, credit(large).getOwnerId());
+    }
+
+    @Test
+    void clearsACrossedBookAtEqualPrices() {
+        bid(BUYER_1, 4.0, 5.0);
+        String token = credit(PROSUMER_1, 5.0);
+        offer(PROSUMER_1, token, 4.0);
+
+        AuctionResult result = clear();
+
+        assertEquals(4.0, result.getClearingPrice(), DELTA);
+        assertEquals(5.0, result.getClearedVolume(), DELTA);
+        assertEquals(1, result.getTradeCount());
+        assertEquals(BUYER_1, credit(token).getOwnerId());
+        assertEquals(4.0, credit(token).getTariffPerKWh(), DELTA);
+    }
+
+    @Test
+    void recordsAZeroVolumeResultForAnEmptyInterval() {
+        AuctionResult result = clear();
+
+        assertEquals(0.0, result.getClearingPrice(), DELTA);
+        assertEquals(0.0, result.getClearedVolume(), DELTA);
+        assertEquals(0, result.getBidCount());
+        assertEquals(0, result.getOfferCount());
+        assertEquals(0, result.getTradeCount());
+        assertEquals(result.getSettlementTxId(), harness.evaluate(
+                context -> harness.contract.getAuctionResult(context, INTERVAL)).getSettlementTxId());
+
+        ChaincodeException again = assertThrows(ChaincodeException.class, this::clear);
+        assertEquals("AUCTION_CLOSED", again.getPayloadString());
+    }
+
+    @Test
+    void tradesNothingWhenNoBidReachesAnOffer() {
+        bid(BUYER_1, 3.0, 5.0);
+        String token = credit(PROSUMER_1, 5.0);
+        offer(PROSUMER_1, token, 4.0);
+
+        AuctionResult result = clear();
+
+        assertEquals(0.0, result.getClearedVolume(), DELTA);
+        assertEquals(1, result.getBidCount());
+        assertEquals(1, result.getOfferCount());
+        assertEquals(0, result.getTradeCount());
+        assertEquals(5.0, credit(token).getEnergyAmount(), DELTA);
+        assertEquals(PROSUMER_1, credit(token).getOwnerId());
+    }
+
+    @Test
+    void dropsOffersWhoseCreditWentToTheContinuousBook() {
+        bid(BUYER_1, 5.0, 5.0);
+        String token = credit(PROSUMER_1, 5.0);
+        offer(PROSUMER_1, token, 3.0);
+        harness.submit(PROSUMER_1, context -> harness.contract.placeAsk(context, token, 6.0));
+
+        AuctionResult result = clear();
+
+        assertEquals(1, result.getOfferCount());
+        assertEquals(0, result.getTradeCount());
+        assertEquals(0.0, result.getClearedVolume(), DELTA);
+    }
+
+    @Test
+    void acceptsSubmissionsOnlyWhileTheIntervalIsOpen() {
+        bid(BUYER_1, 4.0, 5.0);
+        harness.setClock(INTERVAL_END.minusSeconds(1));
+        ChaincodeException early = assertThrows(ChaincodeException.class, () -> harness.submit(ContractHarness.CLIENT,
+                context -> harness.contract.clearAuction(context, INTERVAL)));
+        assertEquals("AUCTION_NOT_CLOSED", early.getPayloadString());
+
+        harness.setClock(INTERVAL_END);
+        ChaincodeException late = assertThrows(ChaincodeException.class, () -> bid(BUYER_2, 4.0, 5.0));
+        assertEquals("AUCTION_CLOSED", late.getPayloadString());
+    }
+
+    // Mints an available credit of kWh owned by the prosumer
+    private String credit(String prosumerId, double kWh) {
+        readings++;
+        return harness.generate(prosumerId, "METER" + readings, kWh, "2025-06-01T09:00:00.000+0530", BUYER_1);
+    }
+
+    private void bid(String bidderId, double price, double quantity) {
+        harness.submit(bidderId,
+                context -> harness.contract.submitAuctionBid(context, INTERVAL, bidderId, price, quantity));
+    }
+
+    private void offer(String ownerId, String tokenId, double price) {
+        harness.submit(ownerId, context -> harness.contract.submitAuctionOffer(context, INTERVAL, tokenId, price));
+    }
+
+    private AuctionResult clear() {
+        if (harness.now().isBefore(INTERVAL_END)) {
+            harness.setClock(INTERVAL_END);
+        }
+        return harness.submit(ContractHarness.CLIENT, context -> harness.contract.clearAuction(context, INTERVAL));
+    }
+
+    private Trade trade(AuctionResult result, int sequence) {
+        return harness.evaluate(context -> harness.contract.getTrade(context,
+                result.getSettlementTxId() + "_" + sequence));
+    }
+
+    private EnergyCredit credit(String tokenId) {
+        return harness.evaluate(context -> harness.contract.getEnergyCredit(context, tokenId));
+    }
+}
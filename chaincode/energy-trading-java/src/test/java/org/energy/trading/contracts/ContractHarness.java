@@ -0,0 +1,102 @@
+package org.energy.trading.contracts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.hyperledger.fabric.contract.Context;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Runs EnergyTradingContract transactions through the hooks the contract router calls, one at a time on an
+// InMemoryLedgerStub. A transaction's writes commit only if it returns; each one advances the clock a second.
+final class ContractHarness {
+
+    static final String MSP_ID = "ProsumerMSP";
+    static final String ADMIN = "admin";
+    static final String CLIENT = "client";
+
+    final EnergyTradingContract contract = new EnergyTradingContract();
+    final InMemoryLedgerStub stub = new InMemoryLedgerStub(MSP_ID);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Instant clock = Instant.parse("2025-06-01T04:00:00Z");
+    private long txCounter;
+    private boolean running;
+
+    <T> T submit(String identity, Function<Context, T> transaction) {
+        return submit(identity, Collections.emptyMap(), transaction);
+    }
+
+    // identity names a certificate under identities/; see InMemoryLedgerStub
+    <T> T submit(String identity, Map<String, byte[]> transientData, Function<Context, T> transaction) {
+        begin();
+        stub.beginTransaction("tx" + ++txCounter, clock, transientData);
+        stub.setIdentity(identity);
+        clock = clock.plusSeconds(1);
+        try {
+            Context context = contract.createContext(stub);
+            contract.beforeTransaction(context);
+            T result = transaction.apply(context);
+            contract.afterTransaction(context, result);
+            stub.commit();
+            return result;
+        } finally {
+            stub.rollback();
+            running = false;
+        }
+    }
+
+    // Evaluates as a client without an enrolled participant; queries never commit
+    <T> T evaluate(Function<Context, T> query) {
+        begin();
+        stub.beginTransaction("query" + txCounter, clock, Collections.emptyMap());
+        stub.setIdentity(CLIENT);
+        try {
+            return query.apply(contract.createContext(stub));
+        } finally {
+            stub.rollback();
+            running = false;
+        }
+    }
+
+    // A transaction started inside another would share its stub
+    private void begin() {
+        if (running) {
+            throw new IllegalStateException("A transaction is already running");
+        }
+        running = true;
+    }
+
+    Instant now() {
+        return clock;
+    }
+
+    void setClock(Instant clock) {
+        this.clock = clock;
+    }
+
+    // Registers a prosumer of MSP_ID, so its credits and orders pass the participant check
+    void registerProsumer(String prosumerId) {
+        submit(CLIENT, context -> contract.registerProsumer(context, prosumerId, prosumerId, "Pune, Maharashtra",
+                100.0, MSP_ID));
+    }
+
+    // Records one reading for the pair and returns the token id of the credit it mints
+    String generate(String prosumerId, String meterId, double generatedKWh, String timestamp, String buyerId) {
+        String result = submit(CLIENT, context -> contract.processElectricityGeneration(context, prosumerId,
+                generatedKWh, meterId, timestamp, buyerId));
+        return json(result).get("tokenId").asText();
+    }
+
+    JsonNode json(String value) {
+        try {
+            return objectMapper.readTree(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.energy.trading.contracts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.EventArchive;
+import org.energy.trading.models.GenerationEvent;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// archiveGenerationEvents: readings past the retention window fold into per-day archives and manifests,
+// and the rollup buckets of an archived day fold to one delta each without changing the series
+class EventArchiveTest {
+
+    private static final String PROSUMER_1 = "PROSUMER001";
+    private static final String BUYER_1 = "BUYER001";
+    private static final String METER = "METER001";
+    private static final String DAY_1 = "2025-01-10";
+    private static final String DAY_2 = "2025-01-11";
+    private static final double DELTA = 1e-9;
+
+    private final ContractHarness harness = new ContractHarness();
+    private final List<String> tokens = new ArrayList<>();
+    private String agreementId;
+
+    // The clock starts on 2025-06-01, so January is past the 90-day window and the last reading is inside it
+    @BeforeEach
+    void recordReadings() {
+        harness.registerProsumer(PROSUMER_1);
+        read(1.5, "2025-01-10T08:00:00.000+0000");
+        read(2.5, "2025-01-10T08:30:00.000+0000");
+        read(3.0, "2025-01-10T09:15:00.000+0000");
+        read(4.0, "2025-01-11T12:00:00.000+0000");
+        read(5.0, "2025-05-30T12:00:00.000+0000");
+
+        // Selling the first credit whole leaves it spent with the buyer
+        String token = tokens.get(0);
+        harness.submit(PROSUMER_1, context -> harness.contract.placeAsk(context, token, 4.0));
+        harness.submit(BUYER_1, context -> harness.contract.placeBid(context, BUYER_1, 4.0, 1.5));
+    }
+
+    @Test
+    void archivesOldDaysInBatchesAndKeepsTheSeries() {
+        String daily = daily();
+        String hourly = hourly();
+        String ppaDaily = ppaDaily();
+        assertEquals(3, harness.json(daily).size());
+        assertEquals(7.0, harness.json(daily).get(0).get("energyGenerated").asDouble(), DELTA);
+
+        assertEquals(2, archive(2));
+        assertEquals(2, archive(100));
+        assertEquals(0, archive(100));
+
+        assertEquals(daily, daily());
+        assertEquals(hourly, hourly());
+        assertEquals(ppaDaily, ppaDaily());
+
+        JsonNode events = harness.json(harness.evaluate(
+                context -> harness.contract.getGenerationEvents(context, PROSUMER_1)));
+        assertEquals(1, events.size());
+        assertEquals(5.0, events.get(0).get("generatedKWh").asDouble(), DELTA);
+    }
+
+    @Test
+    void summarisesEachDayAcrossSlices() {
+        archive(2);
+        archive(100);
+
+        // The first day was archived by two transactions, the third reading by the second one
+        EventArchive first = eventArchive(DAY_1);
+        assertEquals(3, first.getEventCount());
+        assertEquals(1, first.getCreditCount());
+        assertEquals(7.0, first.getGeneratedKWh(), DELTA);
+        assertEquals(2, first.getSliceCount());
+        assertEquals(parse("2025-01-10T08:00:00.000+0000"), first.getFirstEventMillis());
+        assertEquals(parse("2025-01-10T09:15:00.000+0000"), first.getLastEventMillis());
+
+        EventArchive second = eventArchive(DAY_2);
+        assertEquals(1, second.getEventCount());
+        assertEquals(0, second.getCreditCount());
+        assertEquals(1, second.getSliceCount());
+
+        JsonNode manifests = manifests(DAY_1);
+        assertEquals(2, manifests.size());
+        List<String> keys = new ArrayList<>();
+        manifests.forEach(manifest -> manifest.get("keys").forEach(key -> keys.add(key.asText())));
+        // Three events, their three readings and the spent credit
+        assertEquals(7, keys.size());
+        assertTrue(keys.contains("CREDIT_" + tokens.get(0)));
+        assertTrue(keys.contains(key("meter~reading", METER, String.format("%013d",
+                parse("2025-01-10T08:30:00.000+0000")))));
+        // The second day's credit is still available, so only its event and reading leave
+        assertEquals(2, manifests(DAY_2).get(0).get("keys").size());
+    }
+
+    @Test
+    void deletesArchivedKeysAndFoldsTheirBuckets() {
+        assertEquals(3, deltas("PROSUMER_DAY", PROSUMER_1, "20250110"));
+        assertEquals(2, deltas("PROSUMER_HOUR", PROSUMER_1, "2025011008"));
+
+        archive(100);
+
+        assertEquals(0, committed(new CompositeKey("prosumer~day~event", PROSUMER_1, "20250110")));
+        assertEquals(0, committed(new CompositeKey("prosumer~day~event", PROSUMER_1, "20250111")));
+        assertEquals(1, committed(new CompositeKey("prosumer~day~event", PROSUMER_1, "20250530")));
+        assertEquals(0, committed(new CompositeKey("meter~reading", METER, String.format("%013d",
+                parse("2025-01-10T08:00:00.000+0000")))));
+        assertEquals(0, harness.stub.getState("CREDIT_" + tokens.get(0)).length);
+        assertEquals(0, committed(new CompositeKey("owner~credit", BUYER_1, tokens.get(0))));
+
+        assertEquals(1, deltas("PROSUMER_DAY", PROSUMER_1, "20250110"));
+        assertEquals(1, deltas("PROSUMER_HOUR", PROSUMER_1, "2025011008"));
+        assertEquals(1, deltas("PROSUMER_HOUR", PROSUMER_1, "2025011009"));
+        assertEquals(1, deltas("PPA_DAY", agreementId, "20250110"));
+        assertEquals(1, deltas("PROSUMER_DAY", PROSUMER_1, "20250530"));
+
+        // Credits still available stay live
+        EnergyCredit available = harness.evaluate(
+                context -> harness.contract.getEnergyCredit(context, tokens.get(1)));
+        assertEquals(2.5, available.getEnergyAmount(), DELTA);
+        assertTrue(available.isAvailable());
+    }
+
+    @Test
+    void rejectsReadingsForAnArchivedDay() {
+        archive(100);
+
+        ChaincodeException replay = assertThrows(ChaincodeException.class,
+                () -> read(1.5, "2025-01-10T08:00:00.000+0000"));
+        assertEquals("VALUE_OUT_OF_RANGE", replay.getPayloadString());
+        ChaincodeException late = assertThrows(ChaincodeException.class,
+                () -> read(1.0, "2025-01-11T23:00:00.000+0000"));
+        assertEquals("VALUE_OUT_OF_RANGE", late.getPayloadString());
+    }
+
+    @Test
+    void requiresAnAdmin() {
+        ChaincodeException denied = assertThrows(ChaincodeException.class, () -> harness.submit(ContractHarness.CLIENT,
+                context -> harness.contract.archiveGenerationEvents(context, PROSUMER_1, 100)));
+        assertEquals("ACCESS_DENIED", denied.getPayloadString());
+
+        ChaincodeException missing = assertThrows(ChaincodeException.class, () -> eventArchive(DAY_1));
+        assertEquals("ARCHIVE_NOT_FOUND", missing.getPayloadString());
+    }
+
+    private void read(double kWh, String timestamp) {
+        JsonNode result = harness.json(harness.submit(ContractHarness.CLIENT,
+                context -> harness.contract.processElectricityGeneration(context, PROSUMER_1, kWh, METER, timestamp,
+                        BUYER_1)));
+        tokens.add(result.get("tokenId").asText());
+        agreementId = result.get("agreementId").asText();
+    }
+
+    private int archive(int limit) {
+        return harness.submit(ContractHarness.ADMIN,
+                context -> harness.contract.archiveGenerationEvents(context, PROSUMER_1, limit));
+    }
+
+    private EventArchive eventArchive(String day) {
+        return harness.evaluate(context -> harness.contract.getEventArchive(context, PROSUMER_1, day));
+    }
+
+    private JsonNode manifests(String day) {
+        return harness.json(harness.evaluate(context -> harness.contract.getArchiveManifests(context, PROSUMER_1, day)));
+    }
+
+    private String daily() {
+        return harness.evaluate(context -> harness.contract.getProsumerDailyGeneration(context, PROSUMER_1,
+                DAY_1, "2025-05-31"));
+    }
+
+    private String hourly() {
+        return harness.evaluate(context -> harness.contract.getProsumerHourlyGeneration(context, PROSUMER_1,
+                "2025-01-10T00:00:00.000+0000", "2025-01-11T23:00:00.000+0000"));
+    }
+
+    private String ppaDaily() {
+        return harness.evaluate(context -> harness.contract.getPPADailyGeneration(context, agreementId,
+                DAY_1, DAY_2));
+    }
+
+    // Committed rollup deltas of one bucket
+    private int deltas(String series, String entityId, String bucket) {
+        return committed(new CompositeKey("series~bucket~tx", series, entityId, bucket));
+    }
+
+    private int committed(CompositeKey partialKey) {
+        return harness.stub.committed(partialKey).size();
+    }
+
+    private static String key(String objectType, String... attributes) {
+        return new CompositeKey(objectType, attributes).toString();
+    }
+
+    private static long parse(String timestamp) {
+        return GenerationEvent.parseTimestamp(timestamp);
+    }
+}
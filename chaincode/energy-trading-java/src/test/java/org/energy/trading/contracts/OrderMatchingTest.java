@@ -0,0 +1,188 @@
+package org.energy.trading.contracts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.Order;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// Price-time matching of placeBid and placeAsk against the continuous order book
+class OrderMatchingTest {
+
+    private static final String PROSUMER_1 = "PROSUMER001";
+    private static final String PROSUMER_2 = "PROSUMER002";
+    private static final String BUYER_1 = "BUYER001";
+    private static final String BUYER_2 = "BUYER002";
+    private static final double DELTA = 1e-9;
+
+    private final ContractHarness harness = new ContractHarness();
+    private int readings;
+
+    @BeforeEach
+    void registerProsumers() {
+        harness.registerProsumer(PROSUMER_1);
+        harness.registerProsumer(PROSUMER_2);
+    }
+
+    @Test
+    void restsABidOnAnEmptyBook() {
+        JsonNode result = bid(BUYER_1, 4.0, 5.0);
+
+        assertEquals(0, result.get("trades").size());
+        assertEquals("OPEN", result.get("order").get("status").asText());
+        assertEquals(5.0, result.get("order").get("remaining").asDouble(), DELTA);
+        assertEquals(List.of(result.get("order").get("orderId").asText()), orderIds(book("BID")));
+        assertEquals(0, book("ASK").size());
+    }
+
+    @Test
+    void fillsTheBestPriceFirstAndEarlierOrdersFirstAtAPrice() {
+        String expensive = ask(PROSUMER_1, credit(PROSUMER_1, 5.0), 4.0);
+        String early = ask(PROSUMER_1, credit(PROSUMER_1, 5.0), 3.5);
+        String lateCredit = credit(PROSUMER_2, 5.0);
+        String late = ask(PROSUMER_2, lateCredit, 3.5);
+
+        JsonNode result = bid(BUYER_1, 5.0, 8.0);
+
+        JsonNode trades = result.get("trades");
+        assertEquals(2, trades.size());
+        assertEquals(early, trades.get(0).get("askOrderId").asText());
+        assertEquals(5.0, trades.get(0).get("quantity").asDouble(), DELTA);
+        assertEquals(late, trades.get(1).get("askOrderId").asText());
+        assertEquals(3.0, trades.get(1).get("quantity").asDouble(), DELTA);
+        // Trades execute at the resting order's price, not the bid's
+        assertEquals(3.5, trades.get(0).get("price").asDouble(), DELTA);
+        assertEquals(3.5, trades.get(1).get("price").asDouble(), DELTA);
+        assertEquals("FILLED", result.get("order").get("status").asText());
+
+        assertEquals("FILLED", order(early).getStatus());
+        assertEquals(2.0, order(late).getRemaining(), DELTA);
+        assertEquals(5.0, order(expensive).getRemaining(), DELTA);
+        assertEquals(List.of(late, expensive), orderIds(book("ASK")));
+        assertEquals(0, book("BID").size());
+
+        // The partially filled credit keeps the rest on sale; the buyer's share is split off spent
+        EnergyCredit rest = credit(lateCredit);
+        assertEquals(2.0, rest.getEnergyAmount(), DELTA);
+        assertEquals(PROSUMER_2, rest.getOwnerId());
+        EnergyCredit bought = credit(trades.get(1).get("tokenId").asText());
+        assertEquals(3.0, bought.getEnergyAmount(), DELTA);
+        assertEquals(BUYER_1, bought.getOwnerId());
+        assertEquals(3.5, bought.getTariffPerKWh(), DELTA);
+        assertFalse(bought.isAvailable());
+    }
+
+    @Test
+    void crossesAtEqualPrices() {
+        String ask = ask(PROSUMER_1, credit(PROSUMER_1, 5.0), 4.0);
+
+        JsonNode result = bid(BUYER_1, 4.0, 5.0);
+
+        assertEquals(1, result.get("trades").size());
+        assertEquals(4.0, result.get("trades").get(0).get("price").asDouble(), DELTA);
+        assertEquals("FILLED", result.get("order").get("status").asText());
+        assertEquals("FILLED", order(ask).getStatus());
+        assertEquals(0, book("ASK").size());
+        assertEquals(0, book("BID").size());
+    }
+
+    @Test
+    void stopsAtTheFirstPriceThatDoesNotCross() {
+        String ask = ask(PROSUMER_1, credit(PROSUMER_1, 5.0), 4.0);
+
+        JsonNode result = bid(BUYER_1, 3.9999, 5.0);
+
+        assertEquals(0, result.get("trades").size());
+        assertEquals(List.of(result.get("order").get("orderId").asText()), orderIds(book("BID")));
+        assertEquals(List.of(ask), orderIds(book("ASK")));
+    }
+
+    @Test
+    void fillsAnAskAgainstTheHighestBidsFirst() {
+        String low = bid(BUYER_1, 4.0, 3.0).get("order").get("orderId").asText();
+        String high = bid(BUYER_2, 4.5, 3.0).get("order").get("orderId").asText();
+        String credit = credit(PROSUMER_1, 5.0);
+
+        JsonNode result = harness.json(harness.submit(PROSUMER_1,
+                context -> harness.contract.placeAsk(context, credit, 3.0)));
+
+        JsonNode trades = result.get("trades");
+        assertEquals(2, trades.size());
+        assertEquals(high, trades.get(0).get("bidOrderId").asText());
+        assertEquals(4.5, trades.get(0).get("price").asDouble(), DELTA);
+        assertEquals(low, trades.get(1).get("bidOrderId").asText());
+        assertEquals(4.0, trades.get(1).get("price").asDouble(), DELTA);
+        assertEquals(2.0, trades.get(1).get("quantity").asDouble(), DELTA);
+        assertEquals("FILLED", result.get("order").get("status").asText());
+        assertEquals(1.0, order(low).getRemaining(), DELTA);
+        assertEquals(List.of(low), orderIds(book("BID")));
+    }
+
+    @Test
+    void passesOverTheTakersOwnOrders() {
+        String own = ask(PROSUMER_1, credit(PROSUMER_1, 5.0), 3.0);
+        String other = ask(PROSUMER_2, credit(PROSUMER_2, 5.0), 3.5);
+
+        JsonNode result = bid(PROSUMER_1, 4.0, 5.0);
+
+        assertEquals(1, result.get("trades").size());
+        assertEquals(other, result.get("trades").get(0).get("askOrderId").asText());
+        assertEquals(List.of(own), orderIds(book("ASK")));
+    }
+
+    @Test
+    void rejectsOrdersPlacedForAnotherParticipant() {
+        ChaincodeException bid = assertThrows(ChaincodeException.class,
+                () -> harness.submit(BUYER_2, context -> harness.contract.placeBid(context, BUYER_1, 4.0, 5.0)));
+        assertEquals("ACCESS_DENIED", bid.getPayloadString());
+
+        String credit = credit(PROSUMER_1, 5.0);
+        assertThrows(ChaincodeException.class,
+                () -> harness.submit(PROSUMER_2, context -> harness.contract.placeAsk(context, credit, 4.0)));
+        assertEquals(0, book("ASK").size());
+        assertEquals(0, book("BID").size());
+    }
+
+    // Mints an available credit of kWh owned by the prosumer
+    private String credit(String prosumerId, double kWh) {
+        readings++;
+        return harness.generate(prosumerId, "METER" + readings, kWh, "2025-06-01T09:00:00.000+0530", BUYER_1);
+    }
+
+    private String ask(String ownerId, String tokenId, double price) {
+        return harness.json(harness.submit(ownerId, context -> harness.contract.placeAsk(context, tokenId, price)))
+                .get("order").get("orderId").asText();
+    }
+
+    private JsonNode bid(String bidderId, double price, double quantity) {
+        return harness.json(harness.submit(bidderId,
+                context -> harness.contract.placeBid(context, bidderId, price, quantity)));
+    }
+
+    private JsonNode book(String side) {
+        return harness.json(harness.evaluate(context -> harness.contract.getOrderBook(context, side, 100)));
+    }
+
+    private Order order(String orderId) {
+        return harness.evaluate(context -> harness.contract.getOrder(context, orderId));
+    }
+
+    private EnergyCredit credit(String tokenId) {
+        return harness.evaluate(context -> harness.contract.getEnergyCredit(context, tokenId));
+    }
+
+    private static List<String> orderIds(JsonNode orders) {
+        List<String> ids = new ArrayList<>();
+        orders.forEach(order -> ids.add(order.get("orderId").asText()));
+        return ids;
+    }
+}
@@ -0,0 +1,160 @@
+package org.energy.trading.contracts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import org.energy.trading.models.TariffRate;
+import org.energy.trading.models.TariffSchedule;
+import org.junit.jupiter.api.Test;
+
+// TariffIndex.compile and resolve: month ranges, HH:mm windows, minKWh tiers and the schedule's offset
+class TariffIndexTest {
+
+    private static final double FALLBACK = 4.5;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void coversMonthsInclusively() {
+        TariffIndex index = compile("+00:00", new TariffRate(4, 6, "00:00", "00:00", 0.0, 5.0));
+
+        assertEquals(FALLBACK, resolve(index, "2025-03-31T23:59", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-04-01T00:00", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-06-30T23:59", 1.0), DELTA);
+        assertEquals(FALLBACK, resolve(index, "2025-07-01T00:00", 1.0), DELTA);
+    }
+
+    @Test
+    void wrapsMonthsPastDecember() {
+        TariffIndex index = compile("+00:00", new TariffRate(11, 2, "00:00", "00:00", 0.0, 5.0));
+
+        assertEquals(FALLBACK, resolve(index, "2025-10-31T12:00", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-11-01T12:00", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-12-31T12:00", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2026-01-15T12:00", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2026-02-28T12:00", 1.0), DELTA);
+        assertEquals(FALLBACK, resolve(index, "2026-03-01T12:00", 1.0), DELTA);
+    }
+
+    @Test
+    void wrapsWindowsPastMidnight() {
+        TariffIndex index = compile("+00:00",
+                new TariffRate(1, 12, "22:00", "06:00", 0.0, 3.0),
+                new TariffRate(1, 12, "06:00", "22:00", 0.0, 6.0));
+
+        // Start times are inclusive and end times exclusive
+        assertEquals(6.0, resolve(index, "2025-06-01T21:59", 1.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-01T22:00", 1.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-01T23:59", 1.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-02T00:00", 1.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-02T05:59", 1.0), DELTA);
+        assertEquals(6.0, resolve(index, "2025-06-02T06:00", 1.0), DELTA);
+    }
+
+    @Test
+    void readsAnEndTimeOfMidnightAsTheEndOfTheDay() {
+        TariffIndex index = compile("+00:00", new TariffRate(1, 12, "18:00", "00:00", 0.0, 7.0));
+
+        assertEquals(FALLBACK, resolve(index, "2025-06-01T17:59", 1.0), DELTA);
+        assertEquals(7.0, resolve(index, "2025-06-01T18:00", 1.0), DELTA);
+        assertEquals(7.0, resolve(index, "2025-06-01T23:59", 1.0), DELTA);
+        assertEquals(FALLBACK, resolve(index, "2025-06-02T00:00", 1.0), DELTA);
+    }
+
+    @Test
+    void appliesTheHighestTierAtOrBelowTheReading() {
+        TariffIndex index = compile("+00:00",
+                new TariffRate(1, 12, "00:00", "00:00", 50.0, 3.0),
+                new TariffRate(1, 12, "00:00", "00:00", 10.0, 4.0),
+                new TariffRate(1, 12, "00:00", "00:00", 5.0, 5.0));
+
+        assertEquals(FALLBACK, resolve(index, "2025-06-01T12:00", 4.999), DELTA);
+        assertEquals(5.0, resolve(index, "2025-06-01T12:00", 5.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-06-01T12:00", 9.999), DELTA);
+        assertEquals(4.0, resolve(index, "2025-06-01T12:00", 10.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-01T12:00", 50.0), DELTA);
+        assertEquals(3.0, resolve(index, "2025-06-01T12:00", 1000.0), DELTA);
+    }
+
+    @Test
+    void tiersOnlyTheBandsCoveringTheMinute() {
+        TariffIndex index = compile("+00:00",
+                new TariffRate(1, 12, "00:00", "00:00", 0.0, 5.0),
+                new TariffRate(1, 12, "10:00", "14:00", 20.0, 2.0));
+
+        assertEquals(5.0, resolve(index, "2025-06-01T09:59", 20.0), DELTA);
+        assertEquals(2.0, resolve(index, "2025-06-01T10:00", 20.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-06-01T10:00", 19.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-06-01T14:00", 20.0), DELTA);
+    }
+
+    @Test
+    void readsTimesInTheSchedulesOffset() {
+        TariffIndex index = compile("+05:30",
+                new TariffRate(7, 7, "09:00", "10:00", 0.0, 5.0),
+                new TariffRate(7, 7, "00:00", "00:30", 0.0, 6.0));
+
+        assertEquals(FALLBACK, resolve(index, "2025-07-01T03:29", 1.0), DELTA);
+        assertEquals(5.0, resolve(index, "2025-07-01T03:30", 1.0), DELTA);
+        assertEquals(FALLBACK, resolve(index, "2025-07-01T04:30", 1.0), DELTA);
+        // 18:30 UTC on 30 June is already July in +05:30
+        assertEquals(6.0, resolve(index, "2025-06-30T18:30", 1.0), DELTA);
+        assertEquals(FALLBACK, resolve(index, "2025-07-31T18:30", 1.0), DELTA);
+    }
+
+    @Test
+    void rejectsBandsWithTheSameMinKWhAtTheSameMinute() {
+        IllegalArgumentException overlap = assertThrows(IllegalArgumentException.class, () -> compile("+00:00",
+                new TariffRate(1, 6, "08:00", "12:00", 10.0, 5.0),
+                new TariffRate(6, 9, "11:00", "13:00", 10.0, 6.0)));
+        assertEquals("Tariff bands overlap in month 6 at 11:00 from 10.0 kWh", overlap.getMessage());
+
+        // The same minKWh is fine where the bands do not meet
+        TariffIndex index = compile("+00:00",
+                new TariffRate(1, 6, "08:00", "12:00", 10.0, 5.0),
+                new TariffRate(7, 9, "11:00", "13:00", 10.0, 6.0),
+                new TariffRate(1, 6, "12:00", "13:00", 10.0, 7.0));
+        assertEquals(7.0, resolve(index, "2025-06-01T12:00", 10.0), DELTA);
+        assertEquals(6.0, resolve(index, "2025-07-01T12:00", 10.0), DELTA);
+    }
+
+    @Test
+    void rejectsMalformedSchedules() {
+        assertThrows(IllegalArgumentException.class,
+                () -> compile(null, new TariffRate(1, 12, "00:00", "00:00", 0.0, 5.0)));
+        assertThrows(DateTimeException.class,
+                () -> compile("+25:00", new TariffRate(1, 12, "00:00", "00:00", 0.0, 5.0)));
+        assertThrows(IllegalArgumentException.class, () -> compile("+00:00"));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(0, 12, "00:00", "00:00", 0.0, 5.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(1, 13, "00:00", "00:00", 0.0, 5.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(1, 12, "24:00", "00:00", 0.0, 5.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(1, 12, "00:00", "9:00", 0.0, 5.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(1, 12, "00:00", "00:00", -1.0, 5.0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> compile("+00:00", new TariffRate(1, 12, "00:00", "00:00", Double.NaN, 5.0)));
+    }
+
+    @Test
+    void fallsBackWithoutBands() {
+        assertEquals(FALLBACK, resolve(TariffIndex.NONE, "2025-06-01T12:00", 1.0), DELTA);
+    }
+
+    private static TariffIndex compile(String utcOffset, TariffRate... rates) {
+        return TariffIndex.compile(new TariffSchedule("PPA001", utcOffset, Arrays.asList(rates)));
+    }
+
+    // utcTime is an ISO local date-time in UTC
+    private static double resolve(TariffIndex index, String utcTime, double kWh) {
+        long epochMillis = LocalDateTime.parse(utcTime).toInstant(ZoneOffset.UTC).toEpochMilli();
+        return index.resolve(epochMillis, kWh, FALLBACK);
+    }
+}
@@ -0,0 +1,103 @@
+package org.energy.trading.contracts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import org.energy.trading.models.EnergyCredit;
+import org.energy.trading.models.TariffSchedule;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// setTariffSchedule: who may set a schedule, where it is stored and how it prices later readings
+class TariffScheduleTest {
+
+    private static final String PROSUMER_1 = "PROSUMER001";
+    private static final String BUYER_1 = "BUYER001";
+    private static final String AGREEMENT = "PPA001";
+    private static final double DELTA = 1e-9;
+
+    // Evening readings of 10 kWh or more earn 6.0 in +05:30; everything else keeps the flat 4.0
+    private static final String SCHEDULE = "{\"utcOffset\":\"+05:30\",\"rates\":["
+            + "{\"fromMonth\":1,\"toMonth\":12,\"startTime\":\"18:00\",\"endTime\":\"22:00\",\"minKWh\":10,"
+            + "\"tariffPerKWh\":6.0}]}";
+
+    private final ContractHarness harness = new ContractHarness();
+    private int readings;
+
+    @BeforeEach
+    void createAgreement() {
+        harness.registerProsumer(PROSUMER_1);
+        harness.submit(ContractHarness.CLIENT, context -> harness.contract.createPPA(context, AGREEMENT, PROSUMER_1,
+                BUYER_1, 4.0, "2025-01-01", "2030-12-31"));
+    }
+
+    @Test
+    void requiresAnAdmin() {
+        ChaincodeException denied = assertThrows(ChaincodeException.class,
+                () -> harness.submit(ContractHarness.CLIENT, schedule(SCHEDULE),
+                        context -> harness.contract.setTariffSchedule(context, AGREEMENT)));
+        assertEquals("ACCESS_DENIED", denied.getPayloadString());
+        assertEquals(0, harness.stub.getState("TARIFF_" + AGREEMENT).length);
+    }
+
+    @Test
+    void pricesLaterReadingsByTheirBand() {
+        assertEquals(1, setSchedule(SCHEDULE));
+
+        assertEquals(6.0, tariffOf(10.0, "2025-06-01T18:00:00.000+0530"), DELTA);
+        assertEquals(4.0, tariffOf(9.99, "2025-06-01T18:00:00.000+0530"), DELTA);
+        assertEquals(4.0, tariffOf(10.0, "2025-06-01T22:00:00.000+0530"), DELTA);
+        // 18:00 in +05:30, written in UTC
+        assertEquals(6.0, tariffOf(10.0, "2025-06-01T12:30:00.000+0000"), DELTA);
+    }
+
+    @Test
+    void keepsTheScheduleInTheCommercialCollection() {
+        harness.submit(ContractHarness.ADMIN,
+                context -> harness.contract.setCommercialCollection(context, "commercial"));
+        setSchedule(SCHEDULE);
+
+        assertEquals(0, harness.stub.getState("TARIFF_" + AGREEMENT).length);
+        assertTrue(harness.stub.getPrivateData("commercial", "TARIFF_" + AGREEMENT).length > 0);
+        TariffSchedule stored = harness.evaluate(context -> harness.contract.getTariffSchedule(context, AGREEMENT));
+        assertEquals(AGREEMENT, stored.getAgreementId());
+        assertEquals("+05:30", stored.getUtcOffset());
+        assertEquals(6.0, tariffOf(12.0, "2025-06-01T19:00:00.000+0530"), DELTA);
+    }
+
+    @Test
+    void rejectsOverlappingBands() {
+        String overlapping = "{\"utcOffset\":\"+05:30\",\"rates\":["
+                + "{\"fromMonth\":1,\"toMonth\":12,\"startTime\":\"18:00\",\"endTime\":\"22:00\",\"minKWh\":10,"
+                + "\"tariffPerKWh\":6.0},"
+                + "{\"fromMonth\":6,\"toMonth\":6,\"startTime\":\"21:00\",\"endTime\":\"23:00\",\"minKWh\":10,"
+                + "\"tariffPerKWh\":5.0}]}";
+
+        ChaincodeException invalid = assertThrows(ChaincodeException.class, () -> setSchedule(overlapping));
+        assertEquals("INVALID_INPUT", invalid.getPayloadString());
+        assertEquals(4.0, tariffOf(10.0, "2025-06-01T21:00:00.000+0530"), DELTA);
+    }
+
+    private int setSchedule(String json) {
+        return harness.submit(ContractHarness.ADMIN, schedule(json),
+                context -> harness.contract.setTariffSchedule(context, AGREEMENT));
+    }
+
+    // The tariff of the credit minted for a reading of kWh at timestamp
+    private double tariffOf(double kWh, String timestamp) {
+        readings++;
+        String tokenId = harness.generate(PROSUMER_1, "METER" + readings, kWh, timestamp, BUYER_1);
+        EnergyCredit credit = harness.evaluate(context -> harness.contract.getEnergyCredit(context, tokenId));
+        return credit.getTariffPerKWh();
+    }
+
+    private static Map<String, byte[]> schedule(String json) {
+        return Collections.singletonMap("tariffSchedule", json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -22,6 +22,8 @@ MAX_RETRY=${11:-"5"}
 VERBOSE=${12:-"false"}
 
 CCAAS_SERVER_PORT=9999
+# Prometheus metrics of each chaincode container, published on the host as 9101 (org1) and 9102 (org2)
+CCAAS_METRICS_PORT=9100
 
 : ${CONTAINER_CLI:="docker"}
 if command -v ${CONTAINER_CLI}-compose > /dev/null 2>&1; then
@@ -140,12 +142,14 @@ startDockerContainer() {
                   --network fabric_test \
                   -e CHAINCODE_SERVER_ADDRESS=0.0.0.0:${CCAAS_SERVER_PORT} \
                   -e CHAINCODE_ID=$PACKAGE_ID -e CORE_CHAINCODE_ID_NAME=$PACKAGE_ID \
+                  -e ENERGY_TRADING_METRICS_PORT=${CCAAS_METRICS_PORT} -p 9101:${CCAAS_METRICS_PORT} \
                     ${CC_NAME}_ccaas_image:latest
 
     ${CONTAINER_CLI} run  --rm -d --name peer0org2_${CC_NAME}_ccaas \
                   --network fabric_test \
                   -e CHAINCODE_SERVER_ADDRESS=0.0.0.0:${CCAAS_SERVER_PORT} \
                   -e CHAINCODE_ID=$PACKAGE_ID -e CORE_CHAINCODE_ID_NAME=$PACKAGE_ID \
+                  -e ENERGY_TRADING_METRICS_PORT=${CCAAS_METRICS_PORT} -p 9102:${CCAAS_METRICS_PORT} \
                     ${CC_NAME}_ccaas_image:latest
     res=$?
     { set +x; } 2>/dev/null
@@ -159,11 +163,13 @@ startDockerContainer() {
                   --network fabric_test \
                   -e CHAINCODE_SERVER_ADDRESS=0.0.0.0:${CCAAS_SERVER_PORT} \
                   -e CHAINCODE_ID=$PACKAGE_ID -e CORE_CHAINCODE_ID_NAME=$PACKAGE_ID \
+                  -e ENERGY_TRADING_METRICS_PORT=${CCAAS_METRICS_PORT} -p 9101:${CCAAS_METRICS_PORT} \
                     ${CC_NAME}_ccaas_image:latest"
     infoln "    ${CONTAINER_CLI} run --rm -d --name peer0org2_${CC_NAME}_ccaas  \
                   --network fabric_test \
                   -e CHAINCODE_SERVER_ADDRESS=0.0.0.0:${CCAAS_SERVER_PORT} \
                   -e CHAINCODE_ID=$PACKAGE_ID -e CORE_CHAINCODE_ID_NAME=$PACKAGE_ID \
+                  -e ENERGY_TRADING_METRICS_PORT=${CCAAS_METRICS_PORT} -p 9102:${CCAAS_METRICS_PORT} \
                     ${CC_NAME}_ccaas_image:latest"
 
   fi